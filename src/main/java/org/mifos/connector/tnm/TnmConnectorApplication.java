@@ -1,13 +1,22 @@
 package org.mifos.connector.tnm;
 
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CUSTOM_HEADER_FILTER_STRATEGY;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_PAY_CALLBACK_EXECUTOR;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_PAY_LANE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_STATUS_LANE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_VALIDATION_LANE;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.mifos.connector.tnm.camel.config.CustomHeaderFilterStrategy;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import org.mifos.connector.tnm.camel.config.AllowListHeaderFilterStrategy;
+import org.mifos.connector.tnm.camel.config.IngestionProperties;
+import org.mifos.connector.tnm.util.ExecutionMode;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.mifos.connector.tnm.util.PriorityLaneExecutor;
+import org.mifos.connector.tnm.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -19,23 +28,93 @@ import org.springframework.context.annotation.Bean;
 public class TnmConnectorApplication {
 
     /**
-     * Configures the object mapper to be used for serialization and deserialization.
+     * Configures the object mapper to be used for serialization and deserialization, also used by the Camel Jackson
+     * data format. It is a separate instance from the shared {@link JsonMappers#mapper()}, so that reconfiguring the bean
+     * does not change the channel payloads.
      *
      * @return {@link ObjectMapper}
      */
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        return objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL)
-                .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return JsonMappers.newBeanMapper();
+    }
+
+    /**
+     * Coalesces concurrent PayBill pay callbacks carrying the same TNM transaction ID.
+     *
+     * @return {@link SingleFlight}
+     */
+    @Bean
+    public SingleFlight<String, String> payRequestSingleFlight() {
+        return new SingleFlight<>("paybill-pay");
+    }
+
+    /**
+     * Runs the blocking channel calls made while handling PayBill pay requests, off the request threads.
+     *
+     * @param executionMode
+     *            {@link ExecutionMode}
+     * @param threads
+     *            the number of channel threads when running on platform threads
+     * @return {@link ExecutorService}
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService payBillChannelExecutor(ExecutionMode executionMode, @Value("${paybill.pay.channel-threads:32}") int threads) {
+        return executionMode.newExecutor("paybill-channel-", threads);
+    }
+
+    /**
+     * Continues the routing of PayBill pay requests once their workflow has been started, off the Zeebe client and
+     * channel threads completing them.
+     *
+     * @param executionMode
+     *            {@link ExecutionMode}
+     * @param threads
+     *            the number of callback threads when running on platform threads
+     * @return {@link ExecutorService}
+     */
+    @Bean(name = PAYBILL_PAY_CALLBACK_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService payBillPayCallbackExecutor(ExecutionMode executionMode,
+            @Value("${paybill.pay.callback-threads:8}") int threads) {
+        return executionMode.newExecutor("paybill-pay-callback-", threads);
+    }
+
+    /**
+     * Queues the channel calls of the PayBill routes in priority lanes in front of the channel executor: pay requests
+     * first, then validations, then status polls.
+     *
+     * @param payBillChannelExecutor
+     *            the channel executor
+     * @param properties
+     *            {@link IngestionProperties}
+     * @return {@link PriorityLaneExecutor}
+     */
+    @Bean
+    public PriorityLaneExecutor payBillIngestion(ExecutorService payBillChannelExecutor, IngestionProperties properties) {
+        return new PriorityLaneExecutor("paybill", payBillChannelExecutor, properties.getMaxConcurrency(),
+                List.of(new PriorityLaneExecutor.LaneSpec(PAYBILL_PAY_LANE, properties.getPayHighWaterMark()),
+                        new PriorityLaneExecutor.LaneSpec(PAYBILL_VALIDATION_LANE, properties.getValidationHighWaterMark()),
+                        new PriorityLaneExecutor.LaneSpec(PAYBILL_STATUS_LANE, properties.getStatusHighWaterMark())));
+    }
+
+    @Bean(PAYBILL_PAY_LANE)
+    public Executor payBillPayLane(PriorityLaneExecutor payBillIngestion) {
+        return payBillIngestion.lane(PAYBILL_PAY_LANE);
+    }
+
+    @Bean(PAYBILL_VALIDATION_LANE)
+    public Executor payBillValidationLane(PriorityLaneExecutor payBillIngestion) {
+        return payBillIngestion.lane(PAYBILL_VALIDATION_LANE);
+    }
+
+    @Bean(PAYBILL_STATUS_LANE)
+    public Executor payBillStatusLane(PriorityLaneExecutor payBillIngestion) {
+        return payBillIngestion.lane(PAYBILL_STATUS_LANE);
     }
 
     @Bean(CUSTOM_HEADER_FILTER_STRATEGY)
-    public CustomHeaderFilterStrategy headerFilterStrategy() {
-        return new CustomHeaderFilterStrategy();
+    public AllowListHeaderFilterStrategy headerFilterStrategy() {
+        return new AllowListHeaderFilterStrategy();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,226 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_TRANSACTION;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_TRANSFER_STATUS;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_VALIDATE;
+
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.grpc.Status;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
+import org.mifos.connector.tnm.util.AdaptiveLimiter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive concurrency limits of the calls to the channel connector, one per call, and of the Zeebe commands.
+ * <p>
+ * A route calling the channel runs {@link #acquire(String)} right before the call and {@link #release()} right after
+ * it, and Zeebe commands are sent through {@link #zeebe(Supplier)}. Calls above the current limit fail at once with
+ * {@link DownstreamUnavailableException}, answered with a 503, instead of queueing in front of a system that is already
+ * slowing down. Channel calls answered with a server error, calls ending in an exception, recorded by the error route
+ * with {@link #releaseOnFailure(Exchange)}, and Zeebe commands failing on the transport, a deadline or an exhausted
+ * broker count as dropped. Zeebe commands rejected for other reasons, an unknown process for example, are regular
+ * samples.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimits implements MeterBinder {
+
+    public static final String ZEEBE = "zeebe";
+
+    private static final String METRIC_PREFIX = "tnm.concurrency";
+    private static final String CALL_PROPERTY = "concurrencyLimitCall";
+    private static final Set<Status.Code> ZEEBE_DROPPED_CODES = EnumSet.of(Status.Code.UNAVAILABLE, Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.RESOURCE_EXHAUSTED);
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<String, AdaptiveLimiter> limiters;
+
+    public AdaptiveConcurrencyLimits(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        AdaptiveLimiter.Config channelConfig = properties.getChannel().toConfig();
+        this.limiters = Map.of(CHANNEL_VALIDATE, new AdaptiveLimiter(CHANNEL_VALIDATE, channelConfig), CHANNEL_TRANSACTION,
+                new AdaptiveLimiter(CHANNEL_TRANSACTION, channelConfig), CHANNEL_TRANSFER_STATUS,
+                new AdaptiveLimiter(CHANNEL_TRANSFER_STATUS, channelConfig), ZEEBE,
+                new AdaptiveLimiter(ZEEBE, properties.getZeebe().toConfig()));
+    }
+
+    /**
+     * Creates the processor taking a slot of the concurrency limit of a channel call.
+     *
+     * @param call
+     *            the name of the channel call
+     * @return {@link Processor}
+     * @throws IllegalArgumentException
+     *             if the call has no concurrency limit
+     */
+    public Processor acquire(String call) {
+        AdaptiveLimiter limiter = getLimiter(call);
+        return exchange -> {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            if (!limiter.tryAcquire()) {
+                log.debug("Concurrency limit {} of {} reached, failing fast", limiter.getLimit(), call);
+                throw DownstreamUnavailableException.INSTANCE;
+            }
+            exchange.setProperty(CALL_PROPERTY, new PendingCall(limiter, System.nanoTime()));
+        };
+    }
+
+    /**
+     * Creates the processor releasing the slot taken by the last acquire, sampling the round trip time of the call.
+     *
+     * @return {@link Processor}
+     */
+    public Processor release() {
+        return exchange -> {
+            Integer responseCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+            PendingCall pendingCall = removePendingCall(exchange);
+            if (pendingCall != null) {
+                pendingCall.limiter().onResult(System.nanoTime() - pendingCall.startNanos(), responseCode == null || responseCode >= 500);
+            }
+        };
+    }
+
+    /**
+     * Releases the slot of the channel call in progress, if any. The call counts as dropped, unless it was rejected by
+     * its circuit breaker before reaching the channel.
+     *
+     * @param exchange
+     *            the failed {@link Exchange}
+     */
+    public void releaseOnFailure(Exchange exchange) {
+        PendingCall pendingCall = removePendingCall(exchange);
+        if (pendingCall == null) {
+            return;
+        }
+        if (exchange.getProperty(Exchange.EXCEPTION_CAUGHT) instanceof DownstreamUnavailableException) {
+            pendingCall.limiter().release();
+        } else {
+            pendingCall.limiter().onResult(System.nanoTime() - pendingCall.startNanos(), true);
+        }
+    }
+
+    /**
+     * Sends a Zeebe command within the Zeebe concurrency limit.
+     *
+     * @param command
+     *            sends the command
+     * @param <T>
+     *            the response type
+     * @return the response, or a future failed with {@link DownstreamUnavailableException} if the limit is reached
+     */
+    public <T> CompletionStage<T> zeebe(Supplier<? extends CompletionStage<T>> command) {
+        return zeebe(command, CompletableFuture::completedFuture);
+    }
+
+    /**
+     * Sends a Zeebe command followed by a second one depending on its response, both within a single slot of the Zeebe
+     * concurrency limit, so that the second command is never rejected once the first one went through. The round trip
+     * time of the first command is sampled, a failure of either command counts as dropped.
+     *
+     * @param command
+     *            sends the first command
+     * @param followUp
+     *            sends the second command from the response of the first one
+     * @param <T>
+     *            the response type of the first command
+     * @param <U>
+     *            the response type of the second command
+     * @return the response of the second command, or a future failed with {@link DownstreamUnavailableException} if
+     *         the limit is reached
+     */
+    public <T, U> CompletionStage<U> zeebe(Supplier<? extends CompletionStage<T>> command,
+            Function<? super T, ? extends CompletionStage<U>> followUp) {
+        if (!properties.isEnabled()) {
+            return command.get().thenCompose(followUp);
+        }
+        AdaptiveLimiter limiter = limiters.get(ZEEBE);
+        if (!limiter.tryAcquire()) {
+            log.debug("Concurrency limit {} of Zeebe commands reached, failing fast", limiter.getLimit());
+            return CompletableFuture.failedFuture(DownstreamUnavailableException.INSTANCE);
+        }
+        long startNanos = System.nanoTime();
+        CompletionStage<T> response;
+        try {
+            response = command.get();
+        } catch (RuntimeException ex) {
+            limiter.release();
+            throw ex;
+        }
+        AtomicLong rttNanos = new AtomicLong();
+        return response.whenComplete((result, failure) -> rttNanos.set(System.nanoTime() - startNanos)).thenCompose(followUp)
+                .whenComplete((result, failure) -> limiter.onResult(rttNanos.get(), failure != null && isZeebeDropped(failure)));
+    }
+
+    /**
+     * Returns the limiter of a channel call or of the Zeebe commands.
+     *
+     * @param name
+     *            the name of the channel call, or {@value #ZEEBE}
+     * @return {@link AdaptiveLimiter}
+     * @throws IllegalArgumentException
+     *             if there is no such limiter
+     */
+    public AdaptiveLimiter getLimiter(String name) {
+        AdaptiveLimiter limiter = limiters.get(name);
+        if (limiter == null) {
+            throw new IllegalArgumentException("No concurrency limit for " + name);
+        }
+        return limiter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AdaptiveLimiter limiter : limiters.values()) {
+            Gauge.builder(METRIC_PREFIX + ".limit", limiter, AdaptiveLimiter::getLimit).tag("limiter", limiter.getName())
+                    .description("Current adaptive concurrency limit").register(registry);
+            Gauge.builder(METRIC_PREFIX + ".in.flight", limiter, AdaptiveLimiter::getInFlight).tag("limiter", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".rejected", limiter, AdaptiveLimiter::getRejectedCount)
+                    .tag("limiter", limiter.getName()).description("Calls rejected because the concurrency limit was reached")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Tells whether a failed Zeebe command shows that Zeebe is overloaded or unreachable, rather than rejecting the
+     * command itself.
+     */
+    static boolean isZeebeDropped(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof ClientStatusException statusException) {
+            return ZEEBE_DROPPED_CODES.contains(statusException.getStatusCode());
+        }
+        Status.Code code = Status.fromThrowable(cause).getCode();
+        if (code != Status.Code.UNKNOWN) {
+            return ZEEBE_DROPPED_CODES.contains(code);
+        }
+        return cause instanceof TimeoutException || cause instanceof IOException;
+    }
+
+    private static PendingCall removePendingCall(Exchange exchange) {
+        return exchange.removeProperty(CALL_PROPERTY) instanceof PendingCall call ? call : null;
+    }
+
+    private record PendingCall(AdaptiveLimiter limiter, long startNanos) {}
+}
@@ -0,0 +1,72 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.ACCOUNT_HOLDING_INSTITUTION_ID;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.AMS_NAME;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CLIENT_NAME;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CONTENT_TYPE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.TENANT_ID;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.X_CORRELATION_ID;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.HeaderFilterStrategy;
+
+/**
+ * Header filter strategy of the calls to the channel connector, only sending the headers of an allow-list.
+ * <p>
+ * The allow-list is lower-cased once when the strategy is built. The decision for a header name is then cached, so
+ * that each header of each hop costs a single hash lookup instead of prefix and case checks. Inbound, only the
+ * {@code Camel} headers are filtered, as before.
+ * </p>
+ */
+public class AllowListHeaderFilterStrategy implements HeaderFilterStrategy {
+
+    /**
+     * Headers the connector sends to the channel connector.
+     */
+    public static final Set<String> CHANNEL_HEADERS = Set.of(CONTENT_TYPE, "Accept", X_CORRELATION_ID, TENANT_ID, AMS_NAME, "amsUrl",
+            ACCOUNT_HOLDING_INSTITUTION_ID, CLIENT_NAME, "requestType");
+
+    private static final String CAMEL_PREFIX = "camel";
+    private static final int MAX_CACHED_DECISIONS = 1024;
+
+    private final Set<String> allowed;
+    private final Map<String, Boolean> outboundDecisions = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> inboundDecisions = new ConcurrentHashMap<>();
+
+    public AllowListHeaderFilterStrategy() {
+        this(CHANNEL_HEADERS);
+    }
+
+    public AllowListHeaderFilterStrategy(Collection<String> allowedHeaders) {
+        this.allowed = allowedHeaders.stream().map(header -> header.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public boolean applyFilterToCamelHeaders(String headerName, Object headerValue, Exchange exchange) {
+        return decide(outboundDecisions, headerName, true);
+    }
+
+    @Override
+    public boolean applyFilterToExternalHeaders(String headerName, Object headerValue, Exchange exchange) {
+        return decide(inboundDecisions, headerName, false);
+    }
+
+    private boolean decide(Map<String, Boolean> decisions, String headerName, boolean outbound) {
+        Boolean filtered = decisions.get(headerName);
+        if (filtered == null) {
+            filtered = outbound ? !allowed.contains(headerName.toLowerCase(Locale.ROOT))
+                    : headerName.regionMatches(true, 0, CAMEL_PREFIX, 0, CAMEL_PREFIX.length());
+            // Header names are a small fixed set, the bound only guards against a peer sending arbitrary ones
+            if (decisions.size() < MAX_CACHED_DECISIONS) {
+                decisions.put(headerName, filtered);
+            }
+        }
+        return filtered;
+    }
+}
@@ -2,8 +2,12 @@ package org.mifos.connector.tnm.camel.config;
 
 import java.util.ArrayList;
 import java.util.List;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.exception.UnknownShortCodeException;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -11,26 +15,83 @@ import org.springframework.stereotype.Component;
  * Class to hold properties for AMS Paybill.
  *
  */
+@Slf4j
 @Getter
 @Setter
 @Component
 @ConfigurationProperties(prefix = "paybill")
-public class AmsPayBillProperties {
+public class AmsPayBillProperties implements InitializingBean {
 
     private String accountHoldingInstitutionId;
     private String defaultAms;
     private String defaultAmsShortCode;
-    private List<AmsProperties> groups = new ArrayList<>();
+    private volatile List<AmsProperties> groups = new ArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile AmsRoutingTable routingTable;
+
+    public void setAccountHoldingInstitutionId(String accountHoldingInstitutionId) {
+        this.accountHoldingInstitutionId = accountHoldingInstitutionId;
+        this.routingTable = null;
+    }
+
+    public void setGroups(List<AmsProperties> groups) {
+        this.groups = groups;
+        this.routingTable = null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        log.info("Loaded {} PayBill AMS routes", getRoutingTable().size());
+    }
+
+    /**
+     * Returns the routing table of the configured groups, built once after the properties are bound and again whenever
+     * they are rebound.
+     *
+     * @return {@link AmsRoutingTable}
+     */
+    public AmsRoutingTable getRoutingTable() {
+        AmsRoutingTable table = routingTable;
+        if (table == null) {
+            table = AmsRoutingTable.of(groups, accountHoldingInstitutionId);
+            routingTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Replaces the AMS groups with a reloaded set. The new routing table is fully built before it is published, so
+     * lookups running concurrently see either the previous table or the new one.
+     *
+     * @param reloadedGroups
+     *            the reloaded AMS groups
+     * @return the new routing table
+     */
+    public AmsRoutingTable replaceGroups(List<AmsProperties> reloadedGroups) {
+        AmsRoutingTable table = AmsRoutingTable.of(reloadedGroups, accountHoldingInstitutionId);
+        this.groups = List.copyOf(reloadedGroups);
+        this.routingTable = table;
+        return table;
+    }
 
     /**
-     * Fetches the AMS properties from the business short code.
+     * Fetches the AMS route of the business short code.
      *
      * @param businessShortCode
      *            the AMS short code
-     * @return the AMS properties
+     * @return the AMS route
+     * @throws UnknownShortCodeException
+     *             if no AMS is configured for the short code
      */
-    public AmsProperties getAmsPropertiesFromShortCode(String businessShortCode) {
-        return getGroups().stream().filter(p -> p.getBusinessShortCode().equalsIgnoreCase(businessShortCode)).findFirst().get();
+    public AmsRoute getRoute(String businessShortCode) {
+        AmsRoute route = getRoutingTable().find(businessShortCode);
+        if (route == null) {
+            log.warn("No AMS configured for business short code {}", businessShortCode);
+            throw UnknownShortCodeException.INSTANCE;
+        }
+        return route;
     }
 
 }
@@ -0,0 +1,42 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAYBILL_WORKFLOW_SUBTYPE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAYBILL_WORKFLOW_TYPE;
+import static org.mifos.connector.tnm.util.TnmUtils.getPrimaryIdentifierName;
+import static org.mifos.connector.tnm.util.TnmUtils.getWorkflowId;
+
+/**
+ * Immutable routing entry of a business short code, with the values derived from its AMS computed once.
+ *
+ * @param businessShortCode
+ *            the business short code
+ * @param ams
+ *            the AMS name
+ * @param currency
+ *            the default currency
+ * @param baseUrl
+ *            the AMS base URL
+ * @param primaryIdentifierName
+ *            the name of the primary identifier of the AMS
+ * @param bpmnProcessId
+ *            the BPMN process id of the PayBill workflow of the AMS
+ */
+public record AmsRoute(String businessShortCode, String ams, String currency, String baseUrl, String primaryIdentifierName,
+        String bpmnProcessId) {
+
+    /**
+     * Builds the route of an AMS group.
+     *
+     * @param amsProperties
+     *            {@link AmsProperties}
+     * @param accountHoldingInstitutionId
+     *            the account holding institution id
+     * @return {@link AmsRoute}
+     */
+    public static AmsRoute of(AmsProperties amsProperties, String accountHoldingInstitutionId) {
+        String ams = amsProperties.getAms();
+        return new AmsRoute(amsProperties.getBusinessShortCode(), ams, amsProperties.getCurrency(), amsProperties.getBaseUrl(),
+                getPrimaryIdentifierName(ams),
+                getWorkflowId(TNM_PAYBILL_WORKFLOW_TYPE, TNM_PAYBILL_WORKFLOW_SUBTYPE, ams, accountHoldingInstitutionId));
+    }
+}
@@ -0,0 +1,49 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing the PayBill AMS routing table, and reloading it from the routing file on a POST.
+ * <p>
+ * It is not exposed over HTTP by default. The connector has no actuator security, so only add it to
+ * {@code management.endpoints.web.exposure.include} when the management port is only reachable from a trusted network,
+ * for example by moving it to its own {@code management.server.port}.
+ * </p>
+ */
+@Component
+@Endpoint(id = "paybillroutes")
+@RequiredArgsConstructor
+public class AmsRoutingEndpoint {
+
+    private final AmsPayBillProperties amsPayBillProperties;
+    private final AmsRoutingTableReloader reloader;
+
+    /**
+     * Lists the current routes.
+     *
+     * @return the routes and the last reload
+     */
+    @ReadOperation
+    public Map<String, Object> routes() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("routes", amsPayBillProperties.getRoutingTable().routes());
+        body.put("lastReload", reloader.getLastReload());
+        return body;
+    }
+
+    /**
+     * Reloads the routes from the routing file.
+     *
+     * @return the outcome of the reload
+     */
+    @WriteOperation
+    public AmsRoutingTableReloader.ReloadResult reload() {
+        return reloader.reload();
+    }
+}
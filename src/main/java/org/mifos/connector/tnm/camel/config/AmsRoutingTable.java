@@ -0,0 +1,72 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable index of the AMS routes by normalized business short code.
+ */
+@Slf4j
+public final class AmsRoutingTable {
+
+    private final Map<String, AmsRoute> routes;
+
+    private AmsRoutingTable(Map<String, AmsRoute> routes) {
+        this.routes = Map.copyOf(routes);
+    }
+
+    /**
+     * Builds the routing table of the AMS groups. When a short code is configured more than once the first group wins.
+     *
+     * @param groups
+     *            the AMS groups
+     * @param accountHoldingInstitutionId
+     *            the account holding institution id
+     * @return {@link AmsRoutingTable}
+     */
+    public static AmsRoutingTable of(List<AmsProperties> groups, String accountHoldingInstitutionId) {
+        Map<String, AmsRoute> routes = new HashMap<>();
+        for (AmsProperties group : groups) {
+            String key = normalize(group.getBusinessShortCode());
+            if (key == null) {
+                log.warn("Ignoring AMS group without a business short code: {}", group);
+            } else if (routes.putIfAbsent(key, AmsRoute.of(group, accountHoldingInstitutionId)) != null) {
+                log.warn("Business short code {} is configured more than once, ignoring {}", group.getBusinessShortCode(), group);
+            }
+        }
+        return new AmsRoutingTable(routes);
+    }
+
+    /**
+     * Finds the route of a business short code.
+     *
+     * @param businessShortCode
+     *            the business short code, matched ignoring case and surrounding whitespace
+     * @return the route, or null if the short code is unknown
+     */
+    public AmsRoute find(String businessShortCode) {
+        String key = normalize(businessShortCode);
+        return key == null ? null : routes.get(key);
+    }
+
+    /**
+     * Returns the routes sorted by business short code.
+     *
+     * @return the routes
+     */
+    public List<AmsRoute> routes() {
+        return routes.values().stream().sorted(Comparator.comparing(AmsRoute::businessShortCode)).toList();
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    private static String normalize(String businessShortCode) {
+        return businessShortCode == null ? null : businessShortCode.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,134 @@
+package org.mifos.connector.tnm.camel.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reloads the PayBill AMS groups from a JSON file without restarting the connector.
+ * <p>
+ * The file holds the same groups as {@code paybill.groups}, as a JSON array of objects with {@code businessShortCode},
+ * {@code ams}, {@code currency} and {@code baseUrl}. It is polled for changes and can also be reloaded on demand
+ * through the {@code paybillroutes} actuator endpoint. A file that cannot be read or holds an invalid group is
+ * rejected as a whole and the current routing table is kept.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AmsRoutingTableReloader implements DisposableBean {
+
+    private static final TypeReference<List<AmsProperties>> GROUPS_TYPE = new TypeReference<>() {};
+
+    private final AmsPayBillProperties amsPayBillProperties;
+    private final Path file;
+    private final ScheduledExecutorService watcher;
+
+    private FileTime lastModified;
+    private volatile ReloadResult lastReload;
+
+    public AmsRoutingTableReloader(AmsPayBillProperties amsPayBillProperties, @Value("${paybill.routing.file:}") String file,
+            @Value("${paybill.routing.poll-interval:30s}") Duration pollInterval) {
+        this.amsPayBillProperties = amsPayBillProperties;
+        this.file = StringUtils.hasText(file) ? Path.of(file) : null;
+        if (this.file == null) {
+            this.watcher = null;
+            return;
+        }
+        reloadIfChanged();
+        this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "paybill-routing-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = pollInterval.toMillis();
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads the routing file, whether it changed or not.
+     *
+     * @return the outcome of the reload
+     * @throws IllegalStateException
+     *             if no routing file is configured or it holds invalid groups
+     * @throws UncheckedIOException
+     *             if the routing file cannot be read
+     */
+    public synchronized ReloadResult reload() {
+        if (file == null) {
+            throw new IllegalStateException("No PayBill routing file is configured, set paybill.routing.file");
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            List<AmsProperties> groups = JsonMappers.mapper().readValue(file.toFile(), GROUPS_TYPE);
+            validate(groups);
+            AmsRoutingTable table = amsPayBillProperties.replaceGroups(groups);
+            lastModified = modified;
+            lastReload = new ReloadResult(file.toString(), table.size(), Instant.now());
+            log.info("Reloaded {} PayBill AMS routes from {}", table.size(), file);
+            return lastReload;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read PayBill routing file " + file, ex);
+        }
+    }
+
+    public ReloadResult getLastReload() {
+        return lastReload;
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    synchronized void reloadIfChanged() {
+        try {
+            if (!Files.exists(file) || Files.getLastModifiedTime(file).equals(lastModified)) {
+                return;
+            }
+            reload();
+        } catch (RuntimeException | IOException ex) {
+            log.error("Keeping the current PayBill routing table, reloading {} failed: {}", file, ex.getMessage());
+        }
+    }
+
+    private static void validate(List<AmsProperties> groups) {
+        if (groups == null || groups.isEmpty()) {
+            throw new IllegalStateException("The PayBill routing file holds no groups");
+        }
+        for (AmsProperties group : groups) {
+            if (!StringUtils.hasText(group.getBusinessShortCode()) || !StringUtils.hasText(group.getAms())
+                    || !StringUtils.hasText(group.getBaseUrl())) {
+                throw new IllegalStateException("Invalid PayBill routing group " + group);
+            }
+        }
+    }
+
+    /**
+     * Outcome of a routing table reload.
+     *
+     * @param source
+     *            the file the routes were loaded from
+     * @param routes
+     *            the number of routes loaded
+     * @param reloadedAt
+     *            when the routes were loaded
+     */
+    public record ReloadResult(String source, int routes, Instant reloadedAt) {}
+}
@@ -1,9 +1,12 @@
 package org.mifos.connector.tnm.camel.config;
 
 import java.util.HashMap;
+import lombok.RequiredArgsConstructor;
 import org.apache.camel.CamelContext;
+import org.apache.camel.component.http.HttpComponent;
 import org.apache.camel.spi.RestConfiguration;
 import org.apache.camel.spring.boot.CamelContextConfiguration;
+import org.mifos.connector.tnm.util.ExecutionMode;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,8 +15,16 @@ import org.springframework.context.annotation.Configuration;
  * Configuration class for camel context.
  */
 @Configuration
+@RequiredArgsConstructor
 public class CamelContextConfig {
 
+    private static final String[] HTTP_SCHEMES = {"http", "https"};
+
+    private final ExecutionMode executionMode;
+    private final JsonOutputPolicy jsonOutputPolicy;
+    private final EndpointCacheMetrics endpointCacheMetrics;
+    private final ChannelConnectionPool channelConnectionPool;
+
     @Value("${camel.server-port}")
     private int serverPort;
 
@@ -32,6 +43,15 @@ public class CamelContextConfig {
                 camelContext.setMessageHistory(false);
                 camelContext.setStreamCaching(true);
                 camelContext.disableJMX();
+                endpointCacheMetrics.monitor(camelContext);
+                if (executionMode.isVirtualThreads()) {
+                    camelContext.getExecutorServiceManager().setThreadPoolFactory(new VirtualThreadPoolFactory());
+                }
+                for (String scheme : HTTP_SCHEMES) {
+                    HttpComponent http = camelContext.getComponent(scheme, HttpComponent.class);
+                    http.setClientConnectionManager(channelConnectionPool.getConnectionManager());
+                    http.setHttpClientConfigurer(channelConnectionPool);
+                }
 
                 RestConfiguration rest = new RestConfiguration();
                 camelContext.setRestConfiguration(rest);
@@ -40,7 +60,7 @@ public class CamelContextConfig {
                 rest.setPort(serverPort);
                 rest.setBindingMode(RestConfiguration.RestBindingMode.json);
                 rest.setDataFormatProperties(new HashMap<>());
-                rest.getDataFormatProperties().put("prettyPrint", "true");
+                rest.getDataFormatProperties().put("prettyPrint", String.valueOf(jsonOutputPolicy.isPrettyPrint()));
                 rest.setScheme("http");
             }
 
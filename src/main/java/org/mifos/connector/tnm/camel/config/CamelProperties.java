@@ -13,7 +13,7 @@ public class CamelProperties {
     public static final String CONTENT_TYPE_VAL = "application/json";
     public static final String CONTENT_TYPE = "Content-Type";
     public static final String CAMEL_HTTP_RESPONSE_CODE = "CamelHttpResponseCode";
-    public static final String CHANNEL_URL_PROPERTY_IN_HEADER = "${header.channelUrl}";
+    public static final String CHANNEL_HOST = "{{channel.host}}";
     public static final String BRIDGE_ENDPOINT_QUERY_PARAM = "?bridgeEndpoint=true&throwExceptionOnFailure=false";
 
     public static final String BUSINESS_SHORT_CODE = "BusinessShortCode";
@@ -22,12 +22,17 @@ public class CamelProperties {
     public static final String SECONDARY_IDENTIFIER_NAME = "MSISDN";
     public static final String GET_ACCOUNT_DETAILS_FLAG = "getAccountDetails";
     public static final String CUSTOM_HEADER_FILTER_STRATEGY = "customHeaderFilterStrategy";
+    public static final String CHANNEL_ENDPOINT_QUERY_PARAM = BRIDGE_ENDPOINT_QUERY_PARAM + "&headerFilterStrategy=#"
+            + CUSTOM_HEADER_FILTER_STRATEGY;
+    public static final String PAYBILL_PAY_LANE = "payBillPayLane";
+    public static final String PAYBILL_PAY_CALLBACK_EXECUTOR = "payBillPayCallbackExecutor";
+    public static final String PAYBILL_VALIDATION_LANE = "payBillValidationLane";
+    public static final String PAYBILL_STATUS_LANE = "payBillStatusLane";
     public static final String X_CORRELATION_ID = "X-CorrelationID";
     public static final String ACCOUNT_HOLDING_INSTITUTION_ID = "accountHoldingInstitutionId";
     public static final String AMS_NAME = "amsName";
     public static final String TENANT_ID = "Platform-TenantId";
     public static final String CLIENT_ACCOUNT_NUMBER = "clientAccountNumber";
-    public static final String CHANNEL_URL = "channelUrl";
     public static final String CLIENT_NAME = "clientName";
     public static final String PAYBILL_TRANSACTION_ID_URL_PARAM = "paybillTransactionId";
     public static final String TNM_PAYBILL_WORKFLOW_SUBTYPE = "inbound";
@@ -38,4 +43,7 @@ public class CamelProperties {
     public static final String TNM_PAY_OAF_TRANSACTION_REFERENCE = "oafTransactionReference";
     public static final String TNM_VALIDATION_REQUEST_PAYLOAD = "validationRequest";
     public static final String PAYBILL_TRANSFER_CODE = "transferCode";
+    public static final String PRETTY_PRINT_HEADER = "X-Pretty-Print";
+    public static final String PRETTY_PRINT_QUERY_PARAM = "pretty";
+    public static final String JSON_PRETTY_PRINT = "jsonPrettyPrint";
 }
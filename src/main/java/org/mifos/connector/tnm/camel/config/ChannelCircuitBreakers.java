@@ -0,0 +1,162 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.AMS_NAME;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
+import org.mifos.connector.tnm.util.CircuitBreaker;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breakers of the calls to the channel connector, one per call and AMS.
+ * <p>
+ * A route calling the channel runs {@link #guard(String)} right before the call and {@link #record()} right after it.
+ * The guard fails the exchange with {@link DownstreamUnavailableException}, answered with a 503, while the breaker is
+ * open, so requests do not wait out the timeouts of an unhealthy channel or AMS. Calls answered with a server error and
+ * calls ending in an exception, recorded by the error route with {@link #recordFailure(Exchange)}, count as failures.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ChannelCircuitBreakers implements MeterBinder {
+
+    public static final String CHANNEL_VALIDATE = "channel-validate";
+    public static final String CHANNEL_TRANSACTION = "channel-transaction";
+    public static final String CHANNEL_TRANSFER_STATUS = "channel-transfer-status";
+
+    private static final String METRIC_PREFIX = "tnm.circuit.breaker";
+    private static final String CALL_PROPERTY = "channelCircuitBreakerCall";
+    private static final String NO_AMS = "none";
+
+    private final ChannelProperties.CircuitBreakerProperties properties;
+    private final CircuitBreaker.Config config;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public ChannelCircuitBreakers(ChannelProperties channelProperties) {
+        this.properties = channelProperties.getCircuitBreaker();
+        this.config = properties.toConfig();
+    }
+
+    /**
+     * Creates the processor asking the circuit breaker of a channel call for the permission to make it.
+     *
+     * @param call
+     *            the name of the channel call
+     * @return {@link Processor}
+     */
+    public Processor guard(String call) {
+        return exchange -> {
+            if (!properties.isEnabled()) {
+                return;
+            }
+            CircuitBreaker breaker = breaker(call, exchange.getIn().getHeader(AMS_NAME, NO_AMS, String.class));
+            if (!breaker.tryAcquire()) {
+                log.debug("Circuit breaker {} is open, failing fast", breaker.getName());
+                throw DownstreamUnavailableException.INSTANCE;
+            }
+            exchange.setProperty(CALL_PROPERTY, new PendingCall(breaker, System.nanoTime()));
+        };
+    }
+
+    /**
+     * Creates the processor recording the outcome of the channel call made after the last guard.
+     *
+     * @return {@link Processor}
+     */
+    public Processor record() {
+        return exchange -> {
+            Integer responseCode = exchange.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+            complete(exchange, responseCode == null || responseCode >= 500);
+        };
+    }
+
+    /**
+     * Records the channel call in progress, if any, as failed.
+     *
+     * @param exchange
+     *            the failed {@link Exchange}
+     */
+    public void recordFailure(Exchange exchange) {
+        complete(exchange, true);
+    }
+
+    /**
+     * Returns the state of the circuit breaker of a channel call.
+     *
+     * @param call
+     *            the name of the channel call
+     * @param ams
+     *            the AMS of the call, or null
+     * @return {@link CircuitBreaker.State}
+     */
+    public CircuitBreaker.State getState(String call, String ams) {
+        return breaker(call, ams == null ? NO_AMS : ams).getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        synchronized (breakers) {
+            this.registry = meterRegistry;
+            breakers.values().forEach(breaker -> bindBreaker(meterRegistry, breaker));
+        }
+    }
+
+    private void complete(Exchange exchange, boolean failed) {
+        PendingCall pendingCall = exchange.removeProperty(CALL_PROPERTY) instanceof PendingCall call ? call : null;
+        if (pendingCall != null) {
+            pendingCall.breaker().onResult(System.nanoTime() - pendingCall.startNanos(), failed);
+        }
+    }
+
+    private CircuitBreaker breaker(String call, String ams) {
+        String name = call + ":" + ams;
+        CircuitBreaker breaker = breakers.get(name);
+        if (breaker != null) {
+            return breaker;
+        }
+        synchronized (breakers) {
+            return breakers.computeIfAbsent(name, key -> {
+                CircuitBreaker created = new CircuitBreaker(key, config, this::onTransition);
+                MeterRegistry meterRegistry = registry;
+                if (meterRegistry != null) {
+                    bindBreaker(meterRegistry, created);
+                }
+                return created;
+            });
+        }
+    }
+
+    private void onTransition(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+        log.warn("Circuit breaker {} changed from {} to {}", breaker.getName(), from, to);
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            Counter.builder(METRIC_PREFIX + ".transitions").tags(tags(breaker)).tag("from", from.name()).tag("to", to.name())
+                    .register(meterRegistry).increment();
+        }
+    }
+
+    private static void bindBreaker(MeterRegistry meterRegistry, CircuitBreaker breaker) {
+        Gauge.builder(METRIC_PREFIX + ".state", breaker, b -> b.getState().ordinal()).tags(tags(breaker))
+                .description("0 closed, 1 open, 2 half open").register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", breaker, CircuitBreaker::getRejectedCount).tags(tags(breaker))
+                .register(meterRegistry);
+    }
+
+    private static String[] tags(CircuitBreaker breaker) {
+        String name = breaker.getName();
+        int separator = name.indexOf(':');
+        return new String[] { "call", name.substring(0, separator), "ams", name.substring(separator + 1) };
+    }
+
+    private record PendingCall(CircuitBreaker breaker, long startNanos) {}
+}
@@ -0,0 +1,140 @@
+package org.mifos.connector.tnm.camel.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.component.http.HttpClientConfigurer;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pool of keep-alive connections shared by every call to the channel connector.
+ * <p>
+ * The connection manager and this configurer are set on the HTTP components, which only the channel endpoints use, so
+ * that all their producers lease connections from the same bounded pool instead of each opening its own. An endpoint
+ * shuts down a connection manager of its own when it stops, but leaves the one of its component alone, so the pool
+ * survives the restart of a route. Connections are kept alive for the duration
+ * announced by the channel, capped by the configured one, and a background thread closes the ones idle for too long.
+ * The pool usage and the time spent waiting for a connection are exposed as meters.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ChannelConnectionPool implements HttpClientConfigurer, MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "tnm.channel.pool";
+
+    private final ChannelProperties.Pool properties;
+    private final TimedConnectionManager connectionManager;
+    private final IdleConnectionEvictor evictor;
+
+    public ChannelConnectionPool(ChannelProperties channelProperties) {
+        this.properties = channelProperties.getPool();
+        this.connectionManager = new TimedConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        this.evictor = new IdleConnectionEvictor(connectionManager, properties.getEvictionInterval().toMillis(), TimeUnit.MILLISECONDS,
+                properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        evictor.start();
+        log.info("Channel connection pool: max total {}, max per route {}", properties.getMaxTotal(), properties.getMaxPerRoute());
+    }
+
+    public PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    @Override
+    public void configureHttpClient(HttpClientBuilder clientBuilder) {
+        clientBuilder.setConnectionManager(connectionManager);
+        clientBuilder.setConnectionManagerShared(true);
+        clientBuilder.setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAlive().toMillis()));
+        clientBuilder.setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getLeaseTimeout().toMillis()).build());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "leased", PoolStats::getLeased);
+        gauge(registry, "available", PoolStats::getAvailable);
+        gauge(registry, "pending", PoolStats::getPending);
+        gauge(registry, "max", PoolStats::getMax);
+        Gauge.builder(METRIC_PREFIX + ".utilization", connectionManager, manager -> {
+            PoolStats stats = manager.getTotalStats();
+            return stats.getMax() == 0 ? 0 : (double) stats.getLeased() / stats.getMax();
+        }).register(registry);
+        connectionManager.leaseWait = Timer.builder(METRIC_PREFIX + ".lease.wait").publishPercentileHistogram().register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        evictor.shutdown();
+        connectionManager.shutdown();
+    }
+
+    private void gauge(MeterRegistry registry, String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(METRIC_PREFIX + ".connections", connectionManager, manager -> value.applyAsDouble(manager.getTotalStats()))
+                .tag("state", state).register(registry);
+    }
+
+    /**
+     * Keeps connections alive for the duration announced by the server, capped by the given one.
+     */
+    static ConnectionKeepAliveStrategy keepAliveStrategy(long maxKeepAliveMillis) {
+        return (response, context) -> {
+            long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return announced > 0 ? Math.min(announced, maxKeepAliveMillis) : maxKeepAliveMillis;
+        };
+    }
+
+    /**
+     * Connection manager recording how long each lease waits for a connection.
+     */
+    private static final class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private volatile Timer leaseWait;
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.get(timeout, unit);
+                    } finally {
+                        Timer timer = leaseWait;
+                        if (timer != null) {
+                            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.mifos.connector.tnm.util.CircuitBreaker;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the calls to the channel connector.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "channel")
+public class ChannelProperties {
+
+    private String host;
+    private Pool pool = new Pool();
+    private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+    /**
+     * Class to hold properties for the pool of connections to the channel connector.
+     *
+     */
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxTotal = 200;
+        private int maxPerRoute = 100;
+        private Duration keepAlive = Duration.ofSeconds(30);
+        private Duration idleTimeout = Duration.ofSeconds(60);
+        private Duration evictionInterval = Duration.ofSeconds(10);
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration socketTimeout = Duration.ofSeconds(30);
+        private Duration leaseTimeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Class to hold properties for the circuit breakers of the calls to the channel connector.
+     *
+     */
+    @Getter
+    @Setter
+    public static class CircuitBreakerProperties {
+
+        private boolean enabled;
+        private int windowSize = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 0.5;
+        private Duration slowCallDuration = Duration.ofSeconds(10);
+        private double slowCallRateThreshold = 0.8;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int trialCalls = 5;
+
+        public CircuitBreaker.Config toConfig() {
+            return new CircuitBreaker.Config(windowSize, minimumCalls, failureRateThreshold, slowCallDuration, slowCallRateThreshold,
+                    openDuration, trialCalls);
+        }
+    }
+}
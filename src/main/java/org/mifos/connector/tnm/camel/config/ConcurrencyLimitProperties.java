@@ -0,0 +1,48 @@
+package org.mifos.connector.tnm.camel.config;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.mifos.connector.tnm.util.AdaptiveLimiter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the adaptive concurrency limits of the channel and Zeebe calls.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled;
+    private LimiterProperties channel = new LimiterProperties(20, 2, 200);
+    private LimiterProperties zeebe = new LimiterProperties(50, 5, 500);
+
+    /**
+     * Class to hold properties for an adaptive concurrency limit.
+     *
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class LimiterProperties {
+
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private int probeInterval = 1000;
+
+        LimiterProperties(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public AdaptiveLimiter.Config toConfig() {
+            return new AdaptiveLimiter.Config(initialLimit, minLimit, maxLimit, probeInterval);
+        }
+    }
+}
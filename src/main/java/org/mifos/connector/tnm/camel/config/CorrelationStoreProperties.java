@@ -0,0 +1,54 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Class to hold properties for the validation/pay correlation store.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "correlation-store")
+public class CorrelationStoreProperties {
+
+    private String backend = "memory";
+    private int maxEntries = 100_000;
+    private Duration gracePeriod = Duration.ofSeconds(30);
+    private Redis redis = new Redis();
+    private Journal journal = new Journal();
+
+    /**
+     * Class to hold properties for the Redis correlation store backend.
+     *
+     */
+    @Getter
+    @Setter
+    public static class Redis {
+
+        private String uri = "redis://localhost:6379";
+        private String keyPrefix = "tnm:correlation:";
+        private Duration commandTimeout = Duration.ofMillis(500);
+        private int nearCacheMaxEntries = 10_000;
+        private Duration nearCacheTtl = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Class to hold properties for the memory-mapped journal of the in-memory correlation store backend.
+     *
+     */
+    @Getter
+    @Setter
+    public static class Journal {
+
+        private boolean enabled;
+        private String path = "/var/lib/ph-ee-connector-tnm/correlation.journal";
+        private DataSize size = DataSize.ofMegabytes(16);
+        private Duration compactionInterval = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,62 @@
+package org.mifos.connector.tnm.camel.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ExtendedCamelContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the Camel endpoint registry.
+ * <p>
+ * Channel calls go through a few static endpoints, the variable part of their path being sent with
+ * {@link org.apache.camel.Exchange#HTTP_PATH}. The size of the registry should therefore stay flat once the routes are
+ * started, and every endpoint created afterwards is a cache miss worth looking at.
+ * </p>
+ */
+@Component
+public class EndpointCacheMetrics implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.camel.endpoints";
+
+    private final LongAdder created = new LongAdder();
+    private volatile CamelContext camelContext;
+
+    /**
+     * Starts counting the endpoints created by the camel context.
+     *
+     * @param context
+     *            the camel context
+     */
+    public void monitor(CamelContext context) {
+        this.camelContext = context;
+        context.adapt(ExtendedCamelContext.class).registerEndpointCallback((uri, endpoint) -> {
+            created.increment();
+            return endpoint;
+        });
+    }
+
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".cache.size", this, metrics -> metrics.registrySize(false)).tag("type", "static")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".cache.size", this, metrics -> metrics.registrySize(true)).tag("type", "dynamic")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".cache.misses", this, EndpointCacheMetrics::getCreatedCount).register(registry);
+    }
+
+    private double registrySize(boolean dynamic) {
+        CamelContext context = camelContext;
+        if (context == null) {
+            return 0;
+        }
+        return dynamic ? context.getEndpointRegistry().dynamicSize() : context.getEndpointRegistry().staticSize();
+    }
+}
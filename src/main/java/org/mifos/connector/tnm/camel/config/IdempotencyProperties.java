@@ -0,0 +1,25 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the local PayBill transaction ID index.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.idempotency")
+public class IdempotencyProperties {
+
+    private boolean trustFilterNegatives;
+    private Duration warmUp = Duration.ofMinutes(10);
+    private long expectedTransactions = 1_000_000L;
+    private double falsePositiveRate = 0.01;
+    private int committedCacheSize = 100_000;
+    private Duration committedCacheTtl = Duration.ofHours(24);
+}
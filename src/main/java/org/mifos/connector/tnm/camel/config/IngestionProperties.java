@@ -0,0 +1,22 @@
+package org.mifos.connector.tnm.camel.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the ingestion lanes of the PayBill channel calls.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.ingestion")
+public class IngestionProperties {
+
+    private int maxConcurrency = 32;
+    private int payHighWaterMark = 1000;
+    private int validationHighWaterMark = 400;
+    private int statusHighWaterMark = 200;
+}
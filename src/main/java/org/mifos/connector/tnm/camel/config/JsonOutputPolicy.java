@@ -0,0 +1,173 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.JSON_PRETTY_PRINT;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PRETTY_PRINT_HEADER;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PRETTY_PRINT_QUERY_PARAM;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Route;
+import org.apache.camel.support.RoutePolicySupport;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Route policy choosing between compact and indented JSON for the responses of a REST route.
+ * <p>
+ * Responses are compact unless pretty printing is enabled for the whole connector, or a request asks for it with the
+ * {@value CamelProperties#PRETTY_PRINT_HEADER} header or the {@value CamelProperties#PRETTY_PRINT_QUERY_PARAM} query
+ * parameter. The choice is taken when the exchange enters the route, as later steps may drop the request headers. The
+ * size of every response and the time spent marshalling or indenting it are recorded per route and mode.
+ * </p>
+ */
+@Slf4j
+@Component
+public class JsonOutputPolicy extends RoutePolicySupport implements MeterBinder {
+
+    private static final String COMPACT = "compact";
+    private static final String PRETTY = "pretty";
+    private static final String FORMATTED = "jsonOutputFormatted";
+    private static final ObjectWriter COMPACT_WRITER = JsonMappers.mapper().writer();
+    private static final ObjectWriter PRETTY_WRITER = JsonMappers.mapper().writerWithDefaultPrettyPrinter();
+
+    private final boolean prettyPrint;
+    private final Map<String, RouteMeters> routeMeters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public JsonOutputPolicy(@Value("${json.pretty-print:false}") boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    @Override
+    public void onExchangeBegin(Route route, Exchange exchange) {
+        exchange.setProperty(JSON_PRETTY_PRINT, prettyPrint || isRequested(exchange.getIn()));
+    }
+
+    @Override
+    public void onExchangeDone(Route route, Exchange exchange) {
+        Message message = exchange.getMessage();
+        Object body = message.getBody();
+        byte[] bytes;
+        if (body instanceof byte[] array) {
+            bytes = array;
+        } else if (body instanceof String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+        } else {
+            return;
+        }
+        boolean pretty = isPretty(exchange);
+        if (pretty && !exchange.getProperty(FORMATTED, false, Boolean.class)) {
+            long start = System.nanoTime();
+            try {
+                bytes = PRETTY_WRITER.writeValueAsBytes(JsonMappers.mapper().readTree(bytes));
+                recordMarshal(route.getRouteId(), true, start);
+            } catch (IOException ex) {
+                log.debug("Response of route {} is not JSON, sending it as is", route.getRouteId());
+            }
+        }
+        message.setBody(bytes);
+        RouteMeters meters = meters(route.getRouteId());
+        if (meters != null) {
+            (pretty ? meters.prettySize() : meters.compactSize()).record(bytes.length);
+        }
+    }
+
+    /**
+     * Marshals a response body in the output mode of the exchange.
+     *
+     * @param exchange
+     *            {@link Exchange}
+     * @param value
+     *            the response body
+     * @return the JSON response body
+     * @throws JsonProcessingException
+     *             if the body cannot be serialized
+     */
+    public byte[] marshal(Exchange exchange, Object value) throws JsonProcessingException {
+        boolean pretty = isPretty(exchange);
+        long start = System.nanoTime();
+        byte[] body = (pretty ? PRETTY_WRITER : COMPACT_WRITER).writeValueAsBytes(value);
+        recordMarshal(exchange.getFromRouteId(), pretty, start);
+        exchange.setProperty(FORMATTED, true);
+        return body;
+    }
+
+    /**
+     * Tells whether the response of an exchange is indented.
+     *
+     * @param exchange
+     *            {@link Exchange}
+     * @return true for indented JSON
+     */
+    public boolean isPretty(Exchange exchange) {
+        return exchange.getProperty(JSON_PRETTY_PRINT, prettyPrint, Boolean.class);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        routeMeters.clear();
+    }
+
+    private void recordMarshal(String routeId, boolean pretty, long start) {
+        RouteMeters meters = meters(routeId);
+        if (meters != null) {
+            (pretty ? meters.prettyMarshal() : meters.compactMarshal()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Returns the meters of a route, registered on its first response.
+     */
+    private RouteMeters meters(String routeId) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null || routeId == null) {
+            return null;
+        }
+        return routeMeters.computeIfAbsent(routeId, id -> new RouteMeters(size(meterRegistry, id, false), size(meterRegistry, id, true),
+                marshal(meterRegistry, id, false), marshal(meterRegistry, id, true)));
+    }
+
+    private static DistributionSummary size(MeterRegistry registry, String routeId, boolean pretty) {
+        return DistributionSummary.builder("tnm.response.size").description("Size of the JSON responses").baseUnit("bytes")
+                .tags("route", routeId, "mode", mode(pretty)).register(registry);
+    }
+
+    private static Timer marshal(MeterRegistry registry, String routeId, boolean pretty) {
+        return Timer.builder("tnm.response.marshal").description("Time spent marshalling or indenting the JSON responses")
+                .tags("route", routeId, "mode", mode(pretty)).register(registry);
+    }
+
+    private static boolean isRequested(Message message) {
+        return isTrue(message.getHeader(PRETTY_PRINT_HEADER)) || isTrue(message.getHeader(PRETTY_PRINT_QUERY_PARAM));
+    }
+
+    private static boolean isTrue(Object value) {
+        return value != null && "true".equalsIgnoreCase(value.toString());
+    }
+
+    private static String mode(boolean pretty) {
+        return pretty ? PRETTY : COMPACT;
+    }
+
+    private record RouteMeters(DistributionSummary compactSize, DistributionSummary prettySize, Timer compactMarshal,
+            Timer prettyMarshal) {
+    }
+}
@@ -0,0 +1,32 @@
+package org.mifos.connector.tnm.camel.config;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.DataFormat;
+import org.apache.camel.support.service.ServiceSupport;
+import org.mifos.connector.tnm.util.JsonMappers;
+
+/**
+ * JSON data format unmarshalling with a pre-built {@link ObjectReader} instead of resolving the target type on every
+ * exchange.
+ */
+public class ObjectReaderDataFormat extends ServiceSupport implements DataFormat {
+
+    private final ObjectReader reader;
+
+    public ObjectReaderDataFormat(ObjectReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
+        JsonMappers.mapper().writeValue(stream, graph);
+    }
+
+    @Override
+    public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
+        return reader.readValue(stream);
+    }
+}
@@ -0,0 +1,40 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the rate limits of the PayBill REST routes.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+    private Limit global = new Limit(2000, 4000);
+    private Limit perShortCode = new Limit(500, 1000);
+    private Map<String, Limit> shortCodes = new HashMap<>();
+
+    /**
+     * Class to hold the properties of a single rate limit.
+     *
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private double permitsPerSecond;
+        private int burst;
+    }
+}
@@ -0,0 +1,22 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the preload of the accounts validated locally.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.roster-preload")
+public class RosterPreloadProperties {
+
+    private String file;
+    private String ams = "roster";
+    private Duration pollInterval = Duration.ofMinutes(5);
+}
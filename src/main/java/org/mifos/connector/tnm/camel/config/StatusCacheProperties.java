@@ -0,0 +1,23 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the cache of PayBill transaction status lookups.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.status-cache")
+public class StatusCacheProperties {
+
+    private boolean enabled;
+    private int maxEntries = 10_000;
+    private Duration terminalTtl = Duration.ofHours(1);
+    private Duration pendingTtl = Duration.ofSeconds(5);
+}
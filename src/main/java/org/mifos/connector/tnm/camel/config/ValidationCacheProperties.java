@@ -0,0 +1,23 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Class to hold properties for the cache of PayBill account validations.
+ *
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "paybill.validation-cache")
+public class ValidationCacheProperties {
+
+    private boolean enabled;
+    private int maxEntries = 50_000;
+    private Duration positiveTtl = Duration.ofSeconds(60);
+    private Duration negativeTtl = Duration.ofSeconds(15);
+}
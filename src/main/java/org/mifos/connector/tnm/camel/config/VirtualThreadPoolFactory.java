@@ -0,0 +1,33 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.support.DefaultThreadPoolFactory;
+import org.apache.camel.util.concurrent.ThreadPoolRejectedPolicy;
+import org.mifos.connector.tnm.util.BoundedThreadPerTaskExecutor;
+import org.mifos.connector.tnm.util.ExecutionMode;
+
+/**
+ * Camel thread pool factory handing out virtual thread executors instead of platform thread pools.
+ * <p>
+ * Each executor keeps the limits of its thread pool profile: at most max pool size tasks run at once and at most max
+ * queue size wait, above which the caller runs the task under the caller runs policy and the task is rejected under
+ * the others. Cached and scheduled pools are left to the default factory, they are unbounded by design or only run
+ * short timer tasks.
+ * </p>
+ */
+public class VirtualThreadPoolFactory extends DefaultThreadPoolFactory {
+
+    private static final String THREAD_NAME_PREFIX = "camel-virtual-";
+
+    @Override
+    public ExecutorService newThreadPool(ThreadPoolProfile profile, ThreadFactory threadFactory) {
+        Integer maxPoolSize = profile.getMaxPoolSize();
+        Integer maxQueueSize = profile.getMaxQueueSize();
+        int maxQueued = maxQueueSize == null || maxQueueSize < 0 ? Integer.MAX_VALUE : maxQueueSize;
+        boolean callerRuns = profile.getRejectedPolicy() == null || profile.getRejectedPolicy() == ThreadPoolRejectedPolicy.CallerRuns;
+        return new BoundedThreadPerTaskExecutor(profile.getId(), ExecutionMode.newVirtualThreadFactory(THREAD_NAME_PREFIX),
+                maxPoolSize == null ? 1 : Math.max(1, maxPoolSize), maxQueued, callerRuns);
+    }
+}
@@ -1,5 +1,7 @@
 package org.mifos.connector.tnm.camel.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -17,6 +19,7 @@ public class ZeebeProperties {
 
     private Client client;
     private int waitTnmPayRequestPeriod = 30;
+    private Variables variables = new Variables();
 
     /**
      * Class to hold properties for Zeebe client.
@@ -30,4 +33,16 @@ public class ZeebeProperties {
         private int numberOfWorkers;
         private int evenlyAllocatedMaxJobs;
     }
+
+    /**
+     * Class to hold properties for the variables sent to Zeebe.
+     *
+     */
+    @Getter
+    @Setter
+    public class Variables {
+
+        private boolean slim;
+        private List<String> required = new ArrayList<>();
+    }
 }
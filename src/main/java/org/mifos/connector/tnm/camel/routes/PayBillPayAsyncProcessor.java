@@ -0,0 +1,97 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_PAY_CALLBACK_EXECUTOR;
+import static org.mifos.connector.tnm.util.TnmConstant.THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.mifos.connector.tnm.exception.TnmConnectorException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous processor for the PayBill pay route.
+ * <p>
+ * The pay request is handed over to {@link PayBillRouteProcessor#startPayRequest(Exchange)} and the exchange continues
+ * routing once it completes, so the route never waits on Zeebe or on the channel. The routing continues on the
+ * callback executor rather than on the Zeebe client or channel thread that completed the request. The number of pay
+ * requests in flight is capped, requests above the cap are rejected with a 503. A request holds its slot until the
+ * work it started or joined is over, even when the caller stopped waiting for it at the coalescing timeout.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PayBillPayAsyncProcessor extends AsyncProcessorSupport implements MeterBinder {
+
+    private final PayBillRouteProcessor payBillRouteProcessor;
+    private final Executor callbackExecutor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final LongAdder rejected = new LongAdder();
+
+    public PayBillPayAsyncProcessor(PayBillRouteProcessor payBillRouteProcessor,
+            @Qualifier(PAYBILL_PAY_CALLBACK_EXECUTOR) Executor callbackExecutor,
+            @Value("${paybill.pay.max-in-flight:512}") int maxInFlight) {
+        this.payBillRouteProcessor = payBillRouteProcessor;
+        this.callbackExecutor = callbackExecutor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            log.warn("Rejecting PayBill pay request, {} requests already in flight", maxInFlight);
+            exchange.setException(new TnmConnectorException(THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE));
+            callback.done(true);
+            return true;
+        }
+        CompletableFuture<String> payRequest = null;
+        CompletableFuture<Void> result;
+        try {
+            payRequest = payBillRouteProcessor.startPayRequest(exchange);
+            result = payBillRouteProcessor.awaitPayRequest(exchange, payRequest);
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        // Held until the work is over, not only until this caller stops waiting for it
+        (payRequest != null ? payRequest : result).whenComplete((ignored, failure) -> inFlight.release());
+        result.whenCompleteAsync((ignored, failure) -> {
+            if (failure != null) {
+                exchange.setException(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+            callback.done(false);
+        }, callbackExecutor);
+        return false;
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tnm.paybill.pay.in.flight", this, PayBillPayAsyncProcessor::getInFlightCount)
+                .description("PayBill pay requests waiting on Zeebe or the channel").register(registry);
+        FunctionCounter.builder("tnm.paybill.pay.rejected", this, PayBillPayAsyncProcessor::getRejectedCount)
+                .description("PayBill pay requests rejected because too many were in flight").register(registry);
+    }
+}
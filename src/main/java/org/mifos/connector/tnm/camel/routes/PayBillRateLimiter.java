@@ -0,0 +1,142 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.BUSINESS_SHORT_CODE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CONTENT_TYPE_VAL;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
+import org.mifos.connector.tnm.camel.config.RateLimitProperties;
+import org.mifos.connector.tnm.util.PayBillResponseTemplates;
+import org.mifos.connector.tnm.util.TokenBucket;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control of the PayBill REST routes, run before the request is unmarshalled.
+ * <p>
+ * Each business short code has its own token bucket, with the limit configured for it or the default per short code
+ * one, and every request also takes a token from a global bucket. A request rejected by the global bucket gives its
+ * short code token back. Short codes missing from the routing table share a single bucket, so that made up short codes
+ * neither get their own limit nor their own meters. A rejected request is answered right away with a pre-encoded 429
+ * and stops its route.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PayBillRateLimiter implements Processor, MeterBinder {
+
+    static final String UNKNOWN_SHORT_CODE = "unknown";
+    private static final String METRIC_NAME = "tnm.paybill.rate.limit.requests";
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final RateLimitProperties properties;
+    private final AmsPayBillProperties amsPayBillProperties;
+    private final TokenBucket global;
+    private final LongAdder globalRejected = new LongAdder();
+    private final Map<String, ShortCodeLimit> limits = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public PayBillRateLimiter(RateLimitProperties properties, AmsPayBillProperties amsPayBillProperties) {
+        this.properties = properties;
+        this.amsPayBillProperties = amsPayBillProperties;
+        this.global = bucket(properties.getGlobal());
+    }
+
+    @Override
+    public void process(Exchange exchange) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ShortCodeLimit limit = limitFor(exchange.getIn().getHeader(BUSINESS_SHORT_CODE, String.class));
+        if (!limit.bucket().tryAcquire()) {
+            reject(exchange, limit);
+            return;
+        }
+        if (!global.tryAcquire()) {
+            // Give the token back, the request did not go through and must not count against its short code
+            limit.bucket().release();
+            globalRejected.increment();
+            reject(exchange, limit);
+            return;
+        }
+        limit.accepted().increment();
+    }
+
+    public long getAcceptedCount(String shortCode) {
+        ShortCodeLimit limit = limits.get(shortCode);
+        return limit == null ? 0 : limit.accepted().sum();
+    }
+
+    public long getRejectedCount(String shortCode) {
+        ShortCodeLimit limit = limits.get(shortCode);
+        return limit == null ? 0 : limit.rejected().sum();
+    }
+
+    public long getGlobalRejectedCount() {
+        return globalRejected.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        FunctionCounter.builder("tnm.paybill.rate.limit.global.rejected", this, PayBillRateLimiter::getGlobalRejectedCount)
+                .description("PayBill requests rejected by the global rate limit").register(registry);
+        limits.values().forEach(limit -> register(registry, limit));
+    }
+
+    private ShortCodeLimit limitFor(String shortCode) {
+        String key = shortCode != null ? shortCode : amsPayBillProperties.getDefaultAmsShortCode();
+        ShortCodeLimit limit = key != null ? limits.get(key) : null;
+        if (limit != null) {
+            return limit;
+        }
+        if (key == null || (!properties.getShortCodes().containsKey(key) && amsPayBillProperties.getRoutingTable().find(key) == null)) {
+            key = UNKNOWN_SHORT_CODE;
+        }
+        return limits.computeIfAbsent(key, this::newLimit);
+    }
+
+    private ShortCodeLimit newLimit(String shortCode) {
+        ShortCodeLimit limit = new ShortCodeLimit(shortCode,
+                bucket(properties.getShortCodes().getOrDefault(shortCode, properties.getPerShortCode())), new LongAdder(), new LongAdder());
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry != null) {
+            register(meterRegistry, limit);
+        }
+        return limit;
+    }
+
+    private static void register(MeterRegistry registry, ShortCodeLimit limit) {
+        FunctionCounter.builder(METRIC_NAME, limit.accepted(), LongAdder::sum).tags("shortCode", limit.shortCode(), "result", "accepted")
+                .register(registry);
+        FunctionCounter.builder(METRIC_NAME, limit.rejected(), LongAdder::sum).tags("shortCode", limit.shortCode(), "result", "rejected")
+                .register(registry);
+    }
+
+    private static void reject(Exchange exchange, ShortCodeLimit limit) {
+        limit.rejected().increment();
+        log.debug("Rejecting PayBill request of short code {}, rate limit reached", limit.shortCode());
+        Message message = exchange.getMessage();
+        message.setBody(PayBillResponseTemplates.tooManyRequestsResponse());
+        message.setHeader(Exchange.HTTP_RESPONSE_CODE, HTTP_TOO_MANY_REQUESTS);
+        message.setHeader(Exchange.CONTENT_TYPE, CONTENT_TYPE_VAL);
+        message.setHeader(RETRY_AFTER, RETRY_AFTER_SECONDS);
+        exchange.setRouteStop(true);
+    }
+
+    private static TokenBucket bucket(RateLimitProperties.Limit limit) {
+        return new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst());
+    }
+
+    private record ShortCodeLimit(String shortCode, TokenBucket bucket, LongAdder accepted, LongAdder rejected) {}
+}
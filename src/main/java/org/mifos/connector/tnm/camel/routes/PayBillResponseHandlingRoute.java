@@ -1,19 +1,16 @@
 package org.mifos.connector.tnm.camel.routes;
 
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAY_OAF_TRANSACTION_REFERENCE;
-import static org.mifos.connector.tnm.util.TnmConstant.PAYMENT_SUCCESSFUL_MESSAGE;
-import static org.mifos.connector.tnm.util.TnmUtils.buildPayBillTransactionResponseResponse;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.LoggingLevel;
 import org.mifos.connector.common.camel.ErrorHandlerRouteBuilder;
 import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
-import org.mifos.connector.tnm.dto.PayBillPayResponse;
-import org.mifos.connector.tnm.util.TnmUtils;
-import org.springframework.http.HttpStatus;
+import org.mifos.connector.common.mojaloop.type.TransferState;
+import org.mifos.connector.tnm.idempotency.TransactionIdIndex;
+import org.mifos.connector.tnm.util.PayBillResponseTemplates;
 import org.springframework.stereotype.Component;
 
 /**
@@ -25,7 +22,7 @@ import org.springframework.stereotype.Component;
 public class PayBillResponseHandlingRoute extends ErrorHandlerRouteBuilder {
 
     private final PayBillRouteProcessor payBillRouteProcessor;
-    private ObjectMapper objectMapper = TnmUtils.getObjectMapper();
+    private final TransactionIdIndex transactionIdIndex;
 
     @Override
     public void configure() {
@@ -44,7 +41,11 @@ public class PayBillResponseHandlingRoute extends ErrorHandlerRouteBuilder {
                 .log(LoggingLevel.INFO, "## Paybill Transaction status success response route").process(e -> {
 
                     TransactionStatusResponseDTO channelResponse = e.getIn().getBody(TransactionStatusResponseDTO.class);
-                    e.getIn().setBody(buildPayBillTransactionResponseResponse(true, channelResponse).toString());
+                    if (channelResponse != null && channelResponse.getTransactionId() != null
+                            && TransferState.COMMITTED.equals(channelResponse.getTransferState())) {
+                        transactionIdIndex.markCommitted(channelResponse.getTransactionId());
+                    }
+                    e.getIn().setBody(PayBillResponseTemplates.transactionResponse(true, channelResponse));
 
                 });
 
@@ -52,15 +53,14 @@ public class PayBillResponseHandlingRoute extends ErrorHandlerRouteBuilder {
                 .log(LoggingLevel.INFO, "## Paybill Transaction status failure response route").process(e -> {
                     TransactionStatusResponseDTO channelResponse = e.getIn().getBody(TransactionStatusResponseDTO.class);
 
-                    e.getIn().setBody(buildPayBillTransactionResponseResponse(false, channelResponse).toString());
+                    e.getIn().setBody(PayBillResponseTemplates.transactionResponse(false, channelResponse));
                 });
 
         from("direct:paybill-pay-response-success").id("paybill-pay-response-success")
                 .log(LoggingLevel.INFO, "## Paybill Pay request success response route").process(e -> {
                     Object oafTransactionReferenceObj = e.getIn().getHeader(TNM_PAY_OAF_TRANSACTION_REFERENCE);
                     String oafTransactionRef = Objects.nonNull(oafTransactionReferenceObj) ? oafTransactionReferenceObj.toString() : "";
-                    e.getIn().setBody(objectMapper.writeValueAsString(
-                            new PayBillPayResponse(HttpStatus.OK.value(), PAYMENT_SUCCESSFUL_MESSAGE, oafTransactionRef)));
+                    e.getIn().setBody(PayBillResponseTemplates.payResponse(oafTransactionRef));
                 });
 
     }
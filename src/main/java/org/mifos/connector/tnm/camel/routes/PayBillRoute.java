@@ -1,25 +1,32 @@
 package org.mifos.connector.tnm.camel.routes;
 
-import static org.mifos.connector.tnm.camel.config.CamelProperties.BRIDGE_ENDPOINT_QUERY_PARAM;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CAMEL_HTTP_RESPONSE_CODE;
-import static org.mifos.connector.tnm.camel.config.CamelProperties.CHANNEL_URL_PROPERTY_IN_HEADER;
-import static org.mifos.connector.tnm.camel.config.CamelProperties.CUSTOM_HEADER_FILTER_STRATEGY;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CHANNEL_ENDPOINT_QUERY_PARAM;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CHANNEL_HOST;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CONTENT_TYPE_VAL;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_TRANSACTION;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_TRANSFER_STATUS;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_VALIDATE;
 import static org.mifos.connector.tnm.util.TnmConstant.JSON_PARSE_EXCEPTION_CLIENT_MESSAGE;
 import static org.mifos.connector.tnm.util.TnmConstant.THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import io.camunda.zeebe.client.api.command.ClientException;
+import io.lettuce.core.RedisException;
+import java.util.concurrent.RejectedExecutionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
-import org.apache.camel.model.dataformat.JsonLibrary;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.mifos.connector.common.camel.ErrorHandlerRouteBuilder;
-import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
+import org.mifos.connector.tnm.camel.config.AdaptiveConcurrencyLimits;
+import org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers;
+import org.mifos.connector.tnm.camel.config.JsonOutputPolicy;
+import org.mifos.connector.tnm.camel.config.ObjectReaderDataFormat;
 import org.mifos.connector.tnm.dto.PayBillErrorResponse;
-import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
-import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
 import org.mifos.connector.tnm.exception.TnmConnectorException;
+import org.mifos.connector.tnm.util.JsonMappers;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
@@ -32,6 +39,13 @@ import org.springframework.stereotype.Component;
 public class PayBillRoute extends ErrorHandlerRouteBuilder {
 
     private final PayBillRouteProcessor payBillRouteProcessor;
+    private final PayBillPayAsyncProcessor payBillPayAsyncProcessor;
+    private final PayBillStatusAsyncProcessor payBillStatusAsyncProcessor;
+    private final PayBillValidationAsyncProcessor payBillValidationAsyncProcessor;
+    private final PayBillRateLimiter payBillRateLimiter;
+    private final JsonOutputPolicy jsonOutputPolicy;
+    private final ChannelCircuitBreakers channelCircuitBreakers;
+    private final AdaptiveConcurrencyLimits concurrencyLimits;
 
     @Override
     public void configure() {
@@ -39,50 +53,59 @@ public class PayBillRoute extends ErrorHandlerRouteBuilder {
         onException(Exception.class).to("direct:error-response").handled(true);
 
         // Validate Route
-        from("rest:GET:/paybill/validate/{clientAccountNumber}").id("paybill-validation-route").to("direct:account-status").unmarshal()
-                .json(JsonLibrary.Jackson, PayBillValidationResponseDto.class).log("## Is reconciled: ${body.isReconciled}").choice().when()
-                .simple("${body.isReconciled} == 'true'").to("direct:start-paybill-workflow")
-                .to("direct:paybill-validation-response-success").otherwise().to("direct:paybill-validation-response-failure").end();
+        from("rest:GET:/paybill/validate/{clientAccountNumber}").id("paybill-validation-route").routePolicy(jsonOutputPolicy)
+                .process(payBillRateLimiter).process(payBillValidationAsyncProcessor)
+                .unmarshal(new ObjectReaderDataFormat(JsonMappers.VALIDATION_RESPONSE_READER)).log("## Is reconciled: ${body.isReconciled}")
+                .choice().when().simple("${body.isReconciled} == 'true'").to("direct:start-paybill-workflow")
+                .to("direct:paybill-validation-response-success").otherwise()
+                .to("direct:paybill-validation-response-failure").end();
 
         // Pay Route
-        from("rest:POST:/paybill/pay").id("paybill-pay-route-base").log(LoggingLevel.INFO, "## PayBill start Pay request processing")
-                .to("direct:paybill-pay-route").log("## PayBill start request sent to channel").end();
+        from("rest:POST:/paybill/pay").id("paybill-pay-route-base").routePolicy(jsonOutputPolicy).process(payBillRateLimiter)
+                .log(LoggingLevel.INFO, "## PayBill start Pay request processing").to("direct:paybill-pay-route")
+                .log("## PayBill start request sent to channel").end();
 
         // Get Transaction status Route
-        from("rest:GET:/paybill/confirm/{paybillTransactionId}").id("paybill-transaction-status-check-route")
-                .log(LoggingLevel.INFO, " ## PayBill Transaction status request").to("direct:paybill-transaction-status-check-base")
-                .unmarshal().json(JsonLibrary.Jackson, TransactionStatusResponseDTO.class).choice()
+        from("rest:GET:/paybill/confirm/{paybillTransactionId}").id("paybill-transaction-status-check-route").routePolicy(jsonOutputPolicy)
+                .process(payBillRateLimiter).log(LoggingLevel.INFO, " ## PayBill Transaction status request")
+                .process(payBillStatusAsyncProcessor).unmarshal(new ObjectReaderDataFormat(JsonMappers.TRANSACTION_STATUS_READER)).choice()
                 .when(header(CAMEL_HTTP_RESPONSE_CODE).isEqualTo("200")).to("direct:paybill-transaction-status-response-success")
                 .otherwise().to("direct:paybill-transaction-status-response-failure").end();
 
         from("direct:account-status").id("account-status-route").log(LoggingLevel.INFO, "## PayBill Validation Payload request")
-                .setBody(payBillRouteProcessor::buildBodyForAccountStatus)
-                .toD(CHANNEL_URL_PROPERTY_IN_HEADER + "/accounts/validate/${header.primaryIdentifier}/${header.primaryIdentifierValue}"
-                        + BRIDGE_ENDPOINT_QUERY_PARAM)
+                .setBody(payBillRouteProcessor::buildBodyForAccountStatus).process(concurrencyLimits.acquire(CHANNEL_VALIDATE))
+                .process(channelCircuitBreakers.guard(CHANNEL_VALIDATE))
+                .to(CHANNEL_HOST + "/accounts/validate" + CHANNEL_ENDPOINT_QUERY_PARAM).process(channelCircuitBreakers.record())
+                .process(concurrencyLimits.release())
                 .log(LoggingLevel.INFO, "Account Status request sent to channel Paybill validate endpoint")
                 .log(LoggingLevel.DEBUG, "Status: ${header.CamelHttpResponseCode}")
                 .log(LoggingLevel.DEBUG, "Channel Validation response: \n.. ${body}");
 
         from("direct:start-paybill-workflow").id("start-paybill-workflow").log(LoggingLevel.INFO, "Starting Tnm Workflow for PayBill")
-                .setBody(payBillRouteProcessor::buildBodyForStartPayBillWorkflow)
-                .toD(CHANNEL_URL_PROPERTY_IN_HEADER + "/channel/gsma/transaction" + BRIDGE_ENDPOINT_QUERY_PARAM + "&headerFilterStrategy=#"
-                        + CUSTOM_HEADER_FILTER_STRATEGY)
+                .setBody(payBillRouteProcessor::buildBodyForStartPayBillWorkflow).process(concurrencyLimits.acquire(CHANNEL_TRANSACTION))
+                .process(channelCircuitBreakers.guard(CHANNEL_TRANSACTION))
+                .to(CHANNEL_HOST + "/channel/gsma/transaction" + CHANNEL_ENDPOINT_QUERY_PARAM).process(channelCircuitBreakers.record())
+                .process(concurrencyLimits.release())
                 .log(LoggingLevel.INFO, "Starting GSMA Txn workflow in channel").to("log:INFO?showBody=true&showHeaders=true");
 
-        from("direct:paybill-pay-route").id("paybill-pay-route").log(LoggingLevel.INFO, "Starting Tnm PayBill Pay route").unmarshal()
-                .json(JsonLibrary.Jackson, TnmPayBillPayRequestDto.class).process(payBillRouteProcessor::processRequestForPayBillPayRoute)
+        from("direct:paybill-pay-route").id("paybill-pay-route").log(LoggingLevel.INFO, "Starting Tnm PayBill Pay route")
+                .unmarshal(new ObjectReaderDataFormat(JsonMappers.PAY_REQUEST_READER)).process(payBillPayAsyncProcessor)
                 .to("direct:paybill-pay-response-success").end();
 
         from("direct:paybill-transaction-status-check-base").id("paybill-transaction-status-check-base")
                 .log(LoggingLevel.INFO, "## PayBill Transaction status request")
                 .process(payBillRouteProcessor::processRequestForTransactionStatusCheck)
-                .toD(CHANNEL_URL_PROPERTY_IN_HEADER + "/channel/transfer/${header.paybillTransactionId}" + BRIDGE_ENDPOINT_QUERY_PARAM)
+                .process(concurrencyLimits.acquire(CHANNEL_TRANSFER_STATUS)).process(channelCircuitBreakers.guard(CHANNEL_TRANSFER_STATUS))
+                .to(CHANNEL_HOST + "/channel/transfer" + CHANNEL_ENDPOINT_QUERY_PARAM).process(channelCircuitBreakers.record())
+                .process(concurrencyLimits.release())
                 .log(LoggingLevel.INFO, "Transaction Status request sent to channel")
                 .log(LoggingLevel.DEBUG, "Status: ${header.CamelHttpResponseCode}")
                 .log(LoggingLevel.DEBUG, "Channel Trx status response: \n\n.. ${body}");
 
         from("direct:error-response").id("error-response").log(LoggingLevel.ERROR, "Error message: ${exception.message}")
                 .log(LoggingLevel.ERROR, "Error: ${exception}").process(exchange -> {
+                    channelCircuitBreakers.recordFailure(exchange);
+                    concurrencyLimits.releaseOnFailure(exchange);
                     Exception exception = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
                     PayBillErrorResponse errorResponse = new PayBillErrorResponse();
                     errorResponse.setMessage(exception.getMessage());
@@ -91,13 +114,15 @@ public class PayBillRoute extends ErrorHandlerRouteBuilder {
                         httpStatus = tnmConnectorException.getHttpStatus();
                     } else if (exception instanceof JsonParseException) {
                         errorResponse.setMessage(JSON_PARSE_EXCEPTION_CLIENT_MESSAGE);
-                    } else if (exception instanceof ClientException) {
+                    } else if (exception instanceof ClientException || exception instanceof RejectedExecutionException
+                            || exception instanceof RedisException || exception instanceof ConnectionPoolTimeoutException) {
                         errorResponse.setMessage(THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE);
                         httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
                     }
                     errorResponse.setStatus(httpStatus.value());
-                    exchange.getIn().setBody(errorResponse);
+                    exchange.getIn().setBody(jsonOutputPolicy.marshal(exchange, errorResponse));
                     exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, httpStatus.value());
-                }).marshal().json(JsonLibrary.Jackson);
+                    exchange.getIn().setHeader(Exchange.CONTENT_TYPE, CONTENT_TYPE_VAL);
+                });
     }
 }
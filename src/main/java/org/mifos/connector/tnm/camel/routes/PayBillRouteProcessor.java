@@ -4,12 +4,12 @@ import static org.mifos.connector.tnm.camel.config.CamelProperties.ACCOUNT_HOLDI
 import static org.mifos.connector.tnm.camel.config.CamelProperties.AMS_NAME;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.BUSINESS_SHORT_CODE;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CHANNEL_REQUEST;
-import static org.mifos.connector.tnm.camel.config.CamelProperties.CHANNEL_URL;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CLIENT_ACCOUNT_NUMBER;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CLIENT_NAME;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CONTENT_TYPE;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.CONTENT_TYPE_VAL;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.GET_ACCOUNT_DETAILS_FLAG;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_PAY_LANE;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_TRANSACTION_ID_URL_PARAM;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_TRANSFER_CODE;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.SECONDARY_IDENTIFIER_NAME;
@@ -19,9 +19,8 @@ import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAYBILL_W
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAY_OAF_TRANSACTION_REFERENCE;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_TRX_ID;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.X_CORRELATION_ID;
-import static org.mifos.connector.tnm.util.TnmUtils.buildPayBillValidationResponse;
+import static org.mifos.connector.tnm.util.TnmConstant.THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE;
 import static org.mifos.connector.tnm.util.TnmUtils.generateWorkflowId;
-import static org.mifos.connector.tnm.util.TnmUtils.getPrimaryIdentifierName;
 import static org.mifos.connector.tnm.util.TnmUtils.getTnmPayRequestPayWaitPeriod;
 import static org.mifos.connector.tnm.util.TnmUtils.getWorkflowId;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.CURRENCY;
@@ -32,37 +31,55 @@ import static org.mifos.connector.tnm.zeebe.ZeebeVariables.TRANSACTION_ID;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.TRANSFER_CREATE_FAILED;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.ZeebeFuture;
+import io.camunda.zeebe.client.api.response.PublishMessageResponse;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.camel.Exchange;
 import org.apache.camel.ProducerTemplate;
-import org.json.JSONObject;
+import org.apache.camel.util.CaseInsensitiveMap;
 import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
 import org.mifos.connector.common.gsma.dto.GsmaTransfer;
 import org.mifos.connector.common.mojaloop.type.TransferState;
+import org.mifos.connector.tnm.camel.config.AdaptiveConcurrencyLimits;
 import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
-import org.mifos.connector.tnm.camel.config.AmsProperties;
+import org.mifos.connector.tnm.camel.config.AmsRoute;
 import org.mifos.connector.tnm.camel.config.CamelProperties;
 import org.mifos.connector.tnm.camel.config.ZeebeProperties;
 import org.mifos.connector.tnm.dto.ChannelRequestDto;
 import org.mifos.connector.tnm.dto.ChannelValidationRequestDto;
 import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
 import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
 import org.mifos.connector.tnm.exception.MissingFieldException;
+import org.mifos.connector.tnm.exception.TnmConnectorException;
 import org.mifos.connector.tnm.exception.TnmConnectorExistingTransactionIdException;
 import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+import org.mifos.connector.tnm.idempotency.TransactionIdIndex;
+import org.mifos.connector.tnm.store.CorrelationStore;
+import org.mifos.connector.tnm.util.CachedClock;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.mifos.connector.tnm.util.PayBillResponseTemplates;
+import org.mifos.connector.tnm.util.PriorityLaneExecutor;
+import org.mifos.connector.tnm.util.SingleFlight;
+import org.mifos.connector.tnm.util.StreamingJson;
 import org.mifos.connector.tnm.util.TnmUtils;
+import org.mifos.connector.tnm.zeebe.ZeebeVariableSchema;
 import org.mifos.connector.tnm.zeebe.ZeebeVariables;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -80,13 +97,16 @@ public class PayBillRouteProcessor {
     private final AmsPayBillProperties amsPayBillProps;
 
     private final ZeebeProperties zeebeProperties;
+    private final CorrelationStore correlationStore;
+    private final TransactionIdIndex transactionIdIndex;
+    private final SingleFlight<String, String> payRequestSingleFlight;
+    @Qualifier(PAYBILL_PAY_LANE)
+    private final Executor payBillPayLane;
+    private final ZeebeVariableSchema zeebeVariableSchema;
+    private final AdaptiveConcurrencyLimits concurrencyLimits;
 
-    @Value("${channel.host}")
-    private String channelUrl;
-
-    private ObjectMapper objectMapper = TnmUtils.getObjectMapper();
-    public static Map<String, Boolean> reconciledStore = new HashMap<>();
-    public static Map<String, String> workflowInstanceStore = new HashMap<>();
+    @Value("${paybill.pay.coalescing-timeout:30s}")
+    private Duration payRequestCoalescingTimeout = Duration.ofSeconds(30);
 
     /**
      * Build the request body for get account status request.
@@ -108,17 +128,18 @@ public class PayBillRouteProcessor {
             throw new MissingFieldException("MSISDN is required for PayBill validation");
         }
 
-        AmsProperties amsProperties = amsPayBillProps.getAmsPropertiesFromShortCode(
-                Objects.nonNull(shortCodeFromReq) ? shortCodeFromReq.toString() : amsPayBillProps.getDefaultAmsShortCode());
-        final String amsName = amsProperties.getAms();
-        final String currency = Objects.nonNull(currencyFromHeaders) ? currencyFromHeaders.toString() : amsProperties.getCurrency();
-        exchange.getIn().removeHeaders("*");
-        exchange.getIn().setHeader("amsUrl", amsProperties.getBaseUrl());
-        exchange.getIn().setHeader(CONTENT_TYPE, CONTENT_TYPE_VAL);
-        exchange.getIn().setHeader("amsName", amsName);
-        exchange.getIn().setHeader("accountHoldingInstitutionId", amsPayBillProps.getAccountHoldingInstitutionId());
-        exchange.setProperty("channelUrl", channelUrl);
-        exchange.setProperty("primaryIdentifier", getPrimaryIdentifierName(amsName));
+        AmsRoute amsRoute = amsPayBillProps
+                .getRoute(Objects.nonNull(shortCodeFromReq) ? shortCodeFromReq.toString() : amsPayBillProps.getDefaultAmsShortCode());
+        final String amsName = amsRoute.ams();
+        final String currency = Objects.nonNull(currencyFromHeaders) ? currencyFromHeaders.toString() : amsRoute.currency();
+        Map<String, Object> headers = newChannelHeaders();
+        headers.put("amsUrl", amsRoute.baseUrl());
+        headers.put(CONTENT_TYPE, CONTENT_TYPE_VAL);
+        headers.put(AMS_NAME, amsName);
+        headers.put(ACCOUNT_HOLDING_INSTITUTION_ID, amsPayBillProps.getAccountHoldingInstitutionId());
+        headers.put(Exchange.HTTP_PATH, amsRoute.primaryIdentifierName() + "/" + clientAccountNumber);
+        exchange.getIn().setHeaders(headers);
+        exchange.setProperty("primaryIdentifier", amsRoute.primaryIdentifierName());
         exchange.setProperty("primaryIdentifierValue", clientAccountNumber);
         exchange.setProperty("secondaryIdentifier", SECONDARY_IDENTIFIER_NAME);
         exchange.setProperty("secondaryIdentifierValue", msisdn);
@@ -126,7 +147,7 @@ public class PayBillRouteProcessor {
                 getAccountDetailsFlag);
         log.debug("Header:{}", exchange.getIn().getHeaders());
         try {
-            return objectMapper.writeValueAsString(obj);
+            return JsonMappers.CHANNEL_VALIDATION_REQUEST_WRITER.writeValueAsString(obj);
         } catch (JsonProcessingException ex) {
             throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
         }
@@ -148,66 +169,129 @@ public class PayBillRouteProcessor {
         log.debug("Validation IsReconciled: {}", isReconciled);
         log.debug("Validation Transaction ID present: {}", validationTransactionId);
 
-        // Add the validation transactionID as clientCorrelationId in the reconciledStore
+        // Add the validation transactionID as clientCorrelationId in the correlation store
         String clientCorrelationId = validationTransactionId;
-        reconciledStore.put(clientCorrelationId, isReconciled);
+        correlationStore.putReconciled(clientCorrelationId, isReconciled);
 
         try {
 
-            e.getIn().removeHeaders("*");
-            e.getIn().setHeader(ACCOUNT_HOLDING_INSTITUTION_ID, validationResponseDto.getAccountHoldingInstitutionId());
-            e.getIn().setHeader(AMS_NAME, validationResponseDto.getAmsName());
-            e.getIn().setHeader(TENANT_ID, validationResponseDto.getAccountHoldingInstitutionId());
-            e.getIn().setHeader(X_CORRELATION_ID, clientCorrelationId);
-            e.getIn().setHeader(CONTENT_TYPE, CONTENT_TYPE_VAL);
-            e.getIn().setHeader(CLIENT_NAME, validationResponseDto.getClientName());
+            Map<String, Object> headers = newChannelHeaders();
+            headers.put(ACCOUNT_HOLDING_INSTITUTION_ID, validationResponseDto.getAccountHoldingInstitutionId());
+            headers.put(AMS_NAME, validationResponseDto.getAmsName());
+            headers.put(TENANT_ID, validationResponseDto.getAccountHoldingInstitutionId());
+            headers.put(X_CORRELATION_ID, clientCorrelationId);
+            headers.put(CONTENT_TYPE, CONTENT_TYPE_VAL);
+            headers.put(CLIENT_NAME, validationResponseDto.getClientName());
+            e.getIn().setHeaders(headers);
 
             e.setProperty("isValidationReferencePresent", isReconciled);
-            e.setProperty("channelUrl", channelUrl);
 
             GsmaTransfer gsmaTransfer = TnmUtils.createGsmaTransferDto(validationResponseDto, clientCorrelationId,
                     zeebeProperties.getWaitTnmPayRequestPeriod());
+            String process = getWorkflowId(TNM_PAYBILL_WORKFLOW_TYPE, TNM_PAYBILL_WORKFLOW_SUBTYPE, validationResponseDto.getAmsName(),
+                    validationResponseDto.getAccountHoldingInstitutionId());
+            gsmaTransfer.setCustomData(zeebeVariableSchema.customData(process, gsmaTransfer.getCustomData()));
 
-            return objectMapper.writeValueAsString(gsmaTransfer);
+            return JsonMappers.GSMA_TRANSFER_WRITER.writeValueAsString(gsmaTransfer);
         } catch (JsonProcessingException ex) {
             throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
         }
     }
 
     /**
-     * Process the request for PayBill pay route.
+     * Process the request for PayBill pay route without blocking the calling thread.
+     *
+     * @param e
+     *            {@link Exchange}
+     * @return completes once the workflow has been started or resumed, with the oafTransactionReference set as header
+     */
+    public CompletableFuture<Void> processRequestForPayBillPayRouteAsync(Exchange e) {
+        return awaitPayRequest(e, startPayRequest(e));
+    }
+
+    /**
+     * Starts the PayBill workflow of a pay request, or joins the one in flight for the same TNM transaction ID.
      *
      * @param e
      *            {@link Exchange}
+     * @return completes with the oafTransactionReference once the workflow has been started or resumed, shared by the
+     *         duplicates of the request and never completed by their timeouts
      */
-    public void processRequestForPayBillPayRoute(Exchange e) {
+    public CompletableFuture<String> startPayRequest(Exchange e) {
         TnmPayBillPayRequestDto requestDto = e.getIn().getBody(TnmPayBillPayRequestDto.class);
+        String tnmTransactionId = requestDto.getTransactionId();
+        if (tnmTransactionId == null) {
+            return startPayWorkflow(e, requestDto);
+        }
+        // TNM retries the callback when we are slow, let the copies share the outcome of the first one
+        return payRequestSingleFlight.execute(tnmTransactionId, () -> startPayWorkflow(e, requestDto));
+    }
+
+    /**
+     * Waits for a pay request started by {@link #startPayRequest(Exchange)}, for at most the coalescing timeout when it
+     * may be shared with duplicates.
+     *
+     * @param e
+     *            {@link Exchange}
+     * @param payRequest
+     *            the started pay request
+     * @return completes once the workflow has been started or resumed, with the oafTransactionReference set as header
+     */
+    public CompletableFuture<Void> awaitPayRequest(Exchange e, CompletableFuture<String> payRequest) {
+        String tnmTransactionId = e.getIn().getBody(TnmPayBillPayRequestDto.class).getTransactionId();
+        CompletableFuture<String> result = payRequest;
+        if (tnmTransactionId != null) {
+            // A copy, the timeout of one caller must not fail the request shared with the others
+            result = payRequest.copy().orTimeout(payRequestCoalescingTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return result.handle((oafTransactionReference, failure) -> {
+            if (failure != null) {
+                throw toPayRequestException(tnmTransactionId, failure);
+            }
+            e.getIn().setHeader(TNM_PAY_OAF_TRANSACTION_REFERENCE, oafTransactionReference);
+            return null;
+        });
+    }
+
+    /**
+     * Starts or resumes the PayBill workflow for a pay request.
+     *
+     * @param e
+     *            {@link Exchange}
+     * @param requestDto
+     *            {@link TnmPayBillPayRequestDto}
+     * @return the oafTransactionReference of the workflow
+     */
+    private CompletableFuture<String> startPayWorkflow(Exchange e, TnmPayBillPayRequestDto requestDto) {
         log.debug("PayBill Response: {}", requestDto);
         log.debug("Is oafTransactionReference present: {}", requestDto.getOafValidationRef());
         final Object currencyFromHeaders = e.getIn().getHeader(CURRENCY);
         final Object shortCodeFromReq = e.getIn().getHeader(BUSINESS_SHORT_CODE);
 
-        AmsProperties amsProperties = amsPayBillProps.getAmsPropertiesFromShortCode(
-                Objects.nonNull(shortCodeFromReq) ? shortCodeFromReq.toString() : amsPayBillProps.getDefaultAmsShortCode());
-        final String amsName = amsProperties.getAms();
-        final String currency = Objects.nonNull(currencyFromHeaders) ? currencyFromHeaders.toString() : amsProperties.getCurrency();
-        final String amsUrl = amsProperties.getBaseUrl();
+        AmsRoute amsRoute = amsPayBillProps
+                .getRoute(Objects.nonNull(shortCodeFromReq) ? shortCodeFromReq.toString() : amsPayBillProps.getDefaultAmsShortCode());
+        final String currency = Objects.nonNull(currencyFromHeaders) ? currencyFromHeaders.toString() : amsRoute.currency();
 
         Boolean isReconciled = Objects.nonNull(requestDto.getOafValidationRef());
         requestDto.setValidationReferencePresent(isReconciled);
-        requestDto.setAmsName(amsProperties.getAms());
+        requestDto.setAmsName(amsRoute.ams());
 
-        e.setProperty("amsUrl", amsUrl);
+        e.setProperty("amsUrl", amsRoute.baseUrl());
         e.setProperty("secondaryIdentifier", "MSISDN");
         e.setProperty("secondaryIdentifierValue", requestDto.getMsisdn());
-        try {
 
-            validateUniqueTransactionId(requestDto.getTransactionId());
-        } catch (JsonProcessingException ex) {
-            throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
-        }
+        return validateUniqueTransactionIdAsync(requestDto.getTransactionId())
+                .thenCompose(ignored -> submitPayWorkflow(requestDto, amsRoute, currency, isReconciled))
+                .thenApply(oafTransactionReference -> {
+                    // The workflow got its pay request, a later callback with the same trans_id is a duplicate
+                    transactionIdIndex.markPaid(requestDto.getTransactionId());
+                    return oafTransactionReference;
+                });
+    }
 
-        ChannelRequestDto channelRequestDto = TnmUtils.convertPayBillToChannelPayload(requestDto, amsName, currency);
+    private CompletableFuture<String> submitPayWorkflow(TnmPayBillPayRequestDto requestDto, AmsRoute amsRoute, String currency,
+            boolean isReconciled) {
+        ChannelRequestDto channelRequestDto = TnmUtils.convertPayBillToChannelPayload(requestDto, amsRoute.ams(), currency);
         channelRequestDto.setUseWorkflowIdAsTransactionId(true);
 
         String oafTransactionReference = requestDto.getOafValidationRef();
@@ -215,17 +299,17 @@ public class PayBillRouteProcessor {
 
         Map<String, Object> variables = new HashMap<>();
         variables.put("confirmationReceived", true);
-        variables.put(CHANNEL_REQUEST, channelRequestDto.toString());
+        variables.put(CHANNEL_REQUEST, StreamingJson.writeChannelRequest(channelRequestDto));
         variables.put("amount", requestDto.getTransactionAmount());
         variables.put("accountId", requestDto.getAccountNumber());
-        variables.put("originDate", Long.parseLong(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"))));
+        variables.put("originDate", CachedClock.system().compactDateTime());
         variables.put("phoneNumber", requestDto.getMsisdn());
         String tnmTransactionId = requestDto.getTransactionId();
         variables.put(SERVER_TRANSACTION_ID, tnmTransactionId);
         variables.put(EXTERNAL_ID, tnmTransactionId);
 
         // Getting TNM workflow transaction id and removing key
-        String workflowInstanceKey = workflowInstanceStore.get(oafTransactionReference);
+        String workflowInstanceKey = correlationStore.getWorkflowInstanceKey(oafTransactionReference);
 
         variables.put(IS_VALIDATION_REFERENCE_PRESENT, isReconciled && workflowInstanceKey != null);
         variables.put(TRANSACTION_ID, tnmTransactionId);
@@ -234,25 +318,55 @@ public class PayBillRouteProcessor {
         log.info("Workflow transaction id : {}", workflowInstanceKey);
 
         if (workflowInstanceKey != null) {
-            zeebeClient.newPublishMessageCommand().messageName("pendingPayRequest").correlationKey(oafTransactionReference)
-                    .timeToLive(Duration.ofMillis(300)).variables(variables).send();
-            log.debug("Published Variables");
-        } else {
-            log.debug("No workflow of such transaction ID exists");
-            workflowInstanceKey = generateWorkflowId();
-            oafTransactionReference = workflowInstanceKey;
-            variables.put("clientCorrelationId", workflowInstanceKey);
-            variables.putIfAbsent(TNM_TRX_ID, oafTransactionReference);
-            variables.putIfAbsent(PAYBILL_TRANSFER_CODE, oafTransactionReference);
-            variables.put(ZeebeVariables.ORIGIN_DATE, Instant.now().toEpochMilli());
-            variables.put(CamelProperties.TNM_PAY_REQUEST_PAY_WAIT_PERIOD,
-                    getTnmPayRequestPayWaitPeriod(zeebeProperties.getWaitTnmPayRequestPeriod()));
-            zeebeClient.newCreateInstanceCommand().bpmnProcessId(getWorkflowId(TNM_PAYBILL_WORKFLOW_TYPE, TNM_PAYBILL_WORKFLOW_SUBTYPE,
-                    amsName, amsPayBillProps.getAccountHoldingInstitutionId())).latestVersion().variables(variables).send().join();
-            zeebeClient.newPublishMessageCommand().messageName("pendingPayRequest").correlationKey(workflowInstanceKey)
-                    .timeToLive(Duration.ofMillis(300)).variables(variables).send();
+            log.debug("Publishing variables to the pending workflow");
+            String payload = zeebeVariableSchema.serialize(amsRoute.bpmnProcessId(), variables);
+            return publishPendingPayRequest(oafTransactionReference, payload).thenApply(response -> oafTransactionReference)
+                    .toCompletableFuture();
         }
-        e.getIn().setHeader(TNM_PAY_OAF_TRANSACTION_REFERENCE, oafTransactionReference);
+        log.debug("No workflow of such transaction ID exists");
+        String newWorkflowInstanceKey = generateWorkflowId();
+        variables.put("clientCorrelationId", newWorkflowInstanceKey);
+        variables.putIfAbsent(TNM_TRX_ID, newWorkflowInstanceKey);
+        variables.putIfAbsent(PAYBILL_TRANSFER_CODE, newWorkflowInstanceKey);
+        variables.put(ZeebeVariables.ORIGIN_DATE, CachedClock.system().millis());
+        variables.put(CamelProperties.TNM_PAY_REQUEST_PAY_WAIT_PERIOD,
+                getTnmPayRequestPayWaitPeriod(zeebeProperties.getWaitTnmPayRequestPeriod()));
+        // Serialized once, the same payload starts the instance and resumes it. Both commands share one slot of the
+        // Zeebe concurrency limit, a created instance must not be left waiting for a pay request that was rejected.
+        String payload = zeebeVariableSchema.serialize(amsRoute.bpmnProcessId(), variables);
+        return concurrencyLimits
+                .zeebe(() -> zeebeClient.newCreateInstanceCommand().bpmnProcessId(amsRoute.bpmnProcessId()).latestVersion()
+                        .variables(payload).send(), processInstance -> sendPendingPayRequest(newWorkflowInstanceKey, payload))
+                .thenApply(response -> newWorkflowInstanceKey).toCompletableFuture();
+    }
+
+    private CompletionStage<PublishMessageResponse> publishPendingPayRequest(String correlationKey, String variables) {
+        return concurrencyLimits.zeebe(() -> sendPendingPayRequest(correlationKey, variables));
+    }
+
+    private ZeebeFuture<PublishMessageResponse> sendPendingPayRequest(String correlationKey, String variables) {
+        return zeebeClient.newPublishMessageCommand().messageName("pendingPayRequest").correlationKey(correlationKey)
+                .timeToLive(Duration.ofMillis(300)).variables(variables).send();
+    }
+
+    /**
+     * Creates the headers of a channel request. They replace all the headers of the message in one step, instead of
+     * removing every header by pattern and setting them again one by one.
+     */
+    private static Map<String, Object> newChannelHeaders() {
+        return new CaseInsensitiveMap();
+    }
+
+    private RuntimeException toPayRequestException(String tnmTransactionId, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            log.warn("Timed out waiting for the pay request of transaction {} to start its workflow", tnmTransactionId);
+            return new TnmConnectorException(THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE, cause, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new TnmConnectorException(cause.getMessage(), cause, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     /**
@@ -264,13 +378,55 @@ public class PayBillRouteProcessor {
      *             if there is an error processing JSON
      */
     public void validateUniqueTransactionId(String transactionId) throws JsonProcessingException {
+        if (TransactionIdIndex.Lookup.UNKNOWN.equals(checkTransactionIdIndex(transactionId))) {
+            checkChannelTransactionStatus(transactionId);
+        }
+    }
+
+    /**
+     * Validate the unique transaction ID, running the channel status check through the pay lane of the ingestion stage
+     * when the local index cannot answer.
+     *
+     * @param transactionId
+     *            the transaction ID
+     * @return completes once the transaction ID is known to be unique
+     */
+    public CompletableFuture<Void> validateUniqueTransactionIdAsync(String transactionId) {
+        if (!TransactionIdIndex.Lookup.UNKNOWN.equals(checkTransactionIdIndex(transactionId))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return PriorityLaneExecutor.runAsync(() -> {
+            try {
+                checkChannelTransactionStatus(transactionId);
+            } catch (JsonProcessingException ex) {
+                throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+            }
+        }, payBillPayLane);
+    }
+
+    private TransactionIdIndex.Lookup checkTransactionIdIndex(String transactionId) {
+        TransactionIdIndex.Lookup lookup = transactionIdIndex.lookup(transactionId);
+        transactionIdIndex.markSeen(transactionId);
+        if (TransactionIdIndex.Lookup.COMMITTED.equals(lookup)) {
+            throw new TnmConnectorExistingTransactionIdException("Transaction ID already exists");
+        } else if (TransactionIdIndex.Lookup.NEW.equals(lookup)) {
+            log.debug("Transaction ID {} not seen before, skipping the channel status check", transactionId);
+        }
+        return lookup;
+    }
+
+    private void checkChannelTransactionStatus(String transactionId) throws JsonProcessingException {
         log.info("Checking transaction status for transactionId: {}", transactionId);
         Exchange exchange = producerTemplate.send("direct:paybill-transaction-status-check-base",
                 ex -> ex.getIn().setHeader(PAYBILL_TRANSACTION_ID_URL_PARAM, transactionId));
+        if (exchange.getProperty(Exchange.EXCEPTION_CAUGHT) instanceof DownstreamUnavailableException unavailable) {
+            throw unavailable;
+        }
         String responseBody = exchange.getIn().getBody(String.class);
         if (!Objects.isNull(responseBody)) {
-            TransactionStatusResponseDTO response = objectMapper.readValue(responseBody, TransactionStatusResponseDTO.class);
+            TransactionStatusResponseDTO response = JsonMappers.TRANSACTION_STATUS_READER.readValue(responseBody);
             if (TransferState.COMMITTED.equals(response.getTransferState())) {
+                transactionIdIndex.markCommitted(transactionId);
                 throw new TnmConnectorExistingTransactionIdException("Transaction ID already exists");
             }
         }
@@ -290,13 +446,14 @@ public class PayBillRouteProcessor {
             throw new MissingFieldException("Transaction id is mandatory");
         }
 
-        exchange.getIn().removeHeaders("*");
-        exchange.getIn().setHeader(CONTENT_TYPE, CONTENT_TYPE_VAL);
-        exchange.getIn().setHeader("requestType", "transfers");
-        exchange.getIn().setHeader(TENANT_ID, "oaf");
+        Map<String, Object> headers = newChannelHeaders();
+        headers.put(CONTENT_TYPE, CONTENT_TYPE_VAL);
+        headers.put("requestType", "transfers");
+        headers.put(TENANT_ID, "oaf");
+        headers.put(Exchange.HTTP_PATH, tnmTransactionId.toString());
+        exchange.getIn().setHeaders(headers);
 
         exchange.setProperty(PAYBILL_TRANSACTION_ID_URL_PARAM, tnmTransactionId.toString());
-        exchange.setProperty(CHANNEL_URL, channelUrl);
     }
 
     /**
@@ -306,22 +463,22 @@ public class PayBillRouteProcessor {
      *            {@link Exchange}
      */
     public void processResponseForPayBillValidationResponseSuccess(Exchange e) {
-        String channelResponseBodyString = e.getIn().getBody(String.class);
-        JSONObject channelResponse = new JSONObject(channelResponseBodyString);
+        String channelResponse = e.getIn().getBody(String.class);
         log.debug("channelResponse:{}", channelResponse);
-        String workflowInstanceKey = channelResponse.getString("transactionId");
+        String workflowInstanceKey = StreamingJson.readTextField(channelResponse, "transactionId");
+        if (workflowInstanceKey == null) {
+            throw new TnmConnectorJsonProcessingException("Channel response has no transactionId");
+        }
 
         // Retrieving client correlation ID added to the header in --- route
         String clientCorrelationId = e.getIn().getHeader(X_CORRELATION_ID).toString();
         Object clientName = e.getIn().getHeader(CLIENT_NAME);
-        Boolean reconciled = reconciledStore.get(clientCorrelationId);
+        Boolean reconciled = correlationStore.removeReconciled(clientCorrelationId);
         // Storing the key value
-        workflowInstanceStore.put(clientCorrelationId, workflowInstanceKey);
-        reconciledStore.remove(clientCorrelationId);
+        correlationStore.putWorkflowInstanceKey(clientCorrelationId, workflowInstanceKey);
 
-        e.getIn().setBody(
-                buildPayBillValidationResponse(reconciled, clientCorrelationId, Objects.nonNull(clientName) ? clientName.toString() : null)
-                        .toString());
+        e.getIn().setBody(PayBillResponseTemplates.validationResponse(reconciled, clientCorrelationId,
+                Objects.nonNull(clientName) ? clientName.toString() : null));
     }
 
     /**
@@ -331,10 +488,9 @@ public class PayBillRouteProcessor {
      *            {@link Exchange}
      */
     public void processResponseForPayBillValidationResponseError(Exchange e) {
-        JSONObject channelResponse = new JSONObject(e.getIn().getBody());
-        log.debug("channelResponse:{}", channelResponse);
+        log.debug("channelResponse:{}", e.getIn().getBody(String.class));
 
-        e.getIn().setBody(buildPayBillValidationResponse(false, null, null).toString());
+        e.getIn().setBody(PayBillResponseTemplates.validationResponse(false, null, null));
     }
 
 }
@@ -0,0 +1,135 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_STATUS_LANE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_TRANSACTION_ID_URL_PARAM;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.mifos.connector.common.mojaloop.type.TransferState;
+import org.mifos.connector.tnm.camel.config.StatusCacheProperties;
+import org.mifos.connector.tnm.exception.MissingFieldException;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+import org.mifos.connector.tnm.util.PriorityLaneExecutor;
+import org.mifos.connector.tnm.util.SingleFlight;
+import org.mifos.connector.tnm.util.StreamingJson;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Asynchronous processor answering PayBill transaction status lookups from a short lived cache.
+ * <p>
+ * Successful channel answers are cached per transaction ID, for a long time once the transfer reached a terminal state
+ * and for a short time otherwise. On a miss the channel is called through the status lane of the ingestion stage, the
+ * lowest priority one, and concurrent lookups for the same transaction ID share a single call. Failed lookups are not
+ * cached.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PayBillStatusAsyncProcessor extends AsyncProcessorSupport implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.paybill.status.cache";
+    private static final Set<String> TERMINAL_STATES = Set.of(TransferState.COMMITTED.name(), TransferState.ABORTED.name());
+    private static final int HTTP_OK = 200;
+
+    private final ProducerTemplate producerTemplate;
+    private final Executor payBillStatusLane;
+    private final StatusCacheProperties properties;
+    private final BoundedExpiringMap<String, ChannelStatus> cache;
+    private final SingleFlight<String, ChannelStatus> singleFlight = new SingleFlight<>("paybill-status");
+
+    public PayBillStatusAsyncProcessor(ProducerTemplate producerTemplate, @Qualifier(PAYBILL_STATUS_LANE) Executor payBillStatusLane,
+            StatusCacheProperties properties) {
+        this.producerTemplate = producerTemplate;
+        this.payBillStatusLane = payBillStatusLane;
+        this.properties = properties;
+        this.cache = new BoundedExpiringMap<>(properties.getMaxEntries(), properties.getPendingTtl());
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        Object transactionIdHeader = exchange.getIn().getHeader(PAYBILL_TRANSACTION_ID_URL_PARAM);
+        if (Objects.isNull(transactionIdHeader) || !StringUtils.hasText(transactionIdHeader.toString())) {
+            exchange.setException(new MissingFieldException("Transaction id is mandatory"));
+            callback.done(true);
+            return true;
+        }
+        String transactionId = transactionIdHeader.toString();
+        ChannelStatus cached = properties.isEnabled() ? cache.get(transactionId) : null;
+        if (cached != null) {
+            log.debug("Transaction status of {} served from cache", transactionId);
+            cached.applyTo(exchange);
+            callback.done(true);
+            return true;
+        }
+        CompletableFuture<ChannelStatus> result;
+        try {
+            result = singleFlight.execute(transactionId,
+                    () -> PriorityLaneExecutor.supplyAsync(() -> fetch(transactionId), payBillStatusLane));
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        result.whenComplete((status, failure) -> {
+            if (failure != null) {
+                exchange.setException(failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            } else {
+                status.applyTo(exchange);
+            }
+            callback.done(false);
+        });
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, METRIC_PREFIX);
+        singleFlight.bindTo(registry);
+    }
+
+    private ChannelStatus fetch(String transactionId) {
+        Exchange response = producerTemplate.send("direct:paybill-transaction-status-check-base",
+                e -> e.getIn().setHeader(PAYBILL_TRANSACTION_ID_URL_PARAM, transactionId));
+        Exception failure = response.getException() != null ? response.getException()
+                : response.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        if (failure != null) {
+            throw new CompletionException(failure);
+        }
+        ChannelStatus status = new ChannelStatus(response.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class),
+                response.getMessage().getBody(String.class));
+        if (properties.isEnabled() && Objects.equals(status.responseCode(), HTTP_OK) && status.body() != null) {
+            cache.put(transactionId, status, isTerminal(status.body()) ? properties.getTerminalTtl() : properties.getPendingTtl());
+        }
+        return status;
+    }
+
+    private static boolean isTerminal(String body) {
+        try {
+            return TERMINAL_STATES.contains(StreamingJson.readTextField(body, "transferState"));
+        } catch (TnmConnectorJsonProcessingException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Answer of the channel to a transaction status lookup.
+     */
+    record ChannelStatus(Integer responseCode, String body) {
+
+        void applyTo(Exchange exchange) {
+            exchange.getIn().setBody(body);
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, responseCode);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.BUSINESS_SHORT_CODE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CLIENT_ACCOUNT_NUMBER;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.GET_ACCOUNT_DETAILS_FLAG;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_VALIDATION_LANE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.SECONDARY_IDENTIFIER_NAME;
+import static org.mifos.connector.tnm.zeebe.ZeebeVariables.CURRENCY;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.support.AsyncProcessorSupport;
+import org.mifos.connector.tnm.camel.config.ValidationCacheProperties;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+import org.mifos.connector.tnm.roster.RosterAccountPreloader;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.mifos.connector.tnm.util.PriorityLaneExecutor;
+import org.mifos.connector.tnm.util.SingleFlight;
+import org.mifos.connector.tnm.util.StreamingJson;
+import org.mifos.connector.tnm.util.TnmUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchronous processor answering PayBill account validations from a short lived cache.
+ * <p>
+ * Channel answers are cached per business short code, account number, MSISDN, currency and account details flag,
+ * reconciled accounts for the positive time to live and the others for the negative one. On a miss the channel is
+ * called through the validation lane of the ingestion stage, and concurrent identical validations share a single call.
+ * Every validation but the one that made the call gets a new transaction ID, so that each of them still starts its own
+ * GSMA workflow. Failed validations are not cached. Accounts preloaded by the {@link RosterAccountPreloader} are
+ * answered without the cache or the channel.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PayBillValidationAsyncProcessor extends AsyncProcessorSupport implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.paybill.validation.cache";
+    private static final String TRANSACTION_ID = "transactionId";
+    private static final int HTTP_OK = 200;
+
+    private final ProducerTemplate producerTemplate;
+    private final Executor payBillValidationLane;
+    private final ValidationCacheProperties properties;
+    private final RosterAccountPreloader rosterAccountPreloader;
+    private final BoundedExpiringMap<String, ChannelValidation> cache;
+    private final SingleFlight<String, ChannelValidation> singleFlight = new SingleFlight<>("paybill-validation");
+
+    public PayBillValidationAsyncProcessor(ProducerTemplate producerTemplate,
+            @Qualifier(PAYBILL_VALIDATION_LANE) Executor payBillValidationLane, ValidationCacheProperties properties,
+            RosterAccountPreloader rosterAccountPreloader) {
+        this.producerTemplate = producerTemplate;
+        this.payBillValidationLane = payBillValidationLane;
+        this.properties = properties;
+        this.rosterAccountPreloader = rosterAccountPreloader;
+        this.cache = new BoundedExpiringMap<>(properties.getMaxEntries(), properties.getNegativeTtl());
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        try {
+            String preloaded = answerFromRoster(exchange);
+            if (preloaded != null) {
+                log.debug("Account validation served from the preloaded roster");
+                new ChannelValidation(HTTP_OK, preloaded).applyTo(exchange, false);
+                callback.done(true);
+                return true;
+            }
+        } catch (RuntimeException ex) {
+            exchange.setException(ex);
+            callback.done(true);
+            return true;
+        }
+        String key = cacheKey(exchange);
+        ChannelValidation cached = properties.isEnabled() ? cache.get(key) : null;
+        if (cached != null) {
+            log.debug("Account validation served from cache");
+            try {
+                cached.applyTo(exchange, true);
+            } catch (RuntimeException ex) {
+                exchange.setException(ex);
+            }
+            callback.done(true);
+            return true;
+        }
+        Map<String, Object> requestHeaders = new HashMap<>(exchange.getIn().getHeaders());
+        CompletableFuture<ChannelValidation> result;
+        // Set when this exchange makes the channel call, which only happens on the calling thread
+        boolean[] leader = new boolean[1];
+        try {
+            result = singleFlight.execute(key, () -> {
+                leader[0] = true;
+                return PriorityLaneExecutor.supplyAsync(() -> fetch(key, requestHeaders), payBillValidationLane);
+            });
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        boolean follower = !leader[0];
+        result.whenComplete((validation, failure) -> {
+            try {
+                if (failure != null) {
+                    exchange.setException(
+                            failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+                } else {
+                    validation.applyTo(exchange, follower);
+                }
+            } catch (RuntimeException ex) {
+                exchange.setException(ex);
+            }
+            callback.done(false);
+        });
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, METRIC_PREFIX);
+        singleFlight.bindTo(registry);
+    }
+
+    private ChannelValidation fetch(String key, Map<String, Object> requestHeaders) {
+        Exchange response = producerTemplate.send("direct:account-status", e -> e.getIn().setHeaders(requestHeaders));
+        Exception failure = response.getException() != null ? response.getException()
+                : response.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        if (failure != null) {
+            throw new CompletionException(failure);
+        }
+        ChannelValidation validation = new ChannelValidation(response.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class),
+                response.getMessage().getBody(String.class));
+        if (properties.isEnabled() && Objects.equals(validation.responseCode(), HTTP_OK) && validation.body() != null) {
+            cache.put(key, validation, isReconciled(validation.body()) ? properties.getPositiveTtl() : properties.getNegativeTtl());
+        }
+        return validation;
+    }
+
+    private String answerFromRoster(Exchange exchange) {
+        String accountDetailsFlag = exchange.getIn().getHeader(GET_ACCOUNT_DETAILS_FLAG, String.class);
+        return rosterAccountPreloader.answer(exchange.getIn().getHeader(BUSINESS_SHORT_CODE, String.class),
+                exchange.getIn().getHeader(CLIENT_ACCOUNT_NUMBER, String.class),
+                exchange.getIn().getHeader(SECONDARY_IDENTIFIER_NAME, String.class), exchange.getIn().getHeader(CURRENCY, String.class),
+                accountDetailsFlag == null || Boolean.parseBoolean(accountDetailsFlag));
+    }
+
+    private static boolean isReconciled(String body) {
+        try {
+            return Boolean.parseBoolean(StreamingJson.readTextField(body, "reconciled"));
+        } catch (TnmConnectorJsonProcessingException ex) {
+            return false;
+        }
+    }
+
+    private static String cacheKey(Exchange exchange) {
+        return String.join("|", String.valueOf(exchange.getIn().getHeader(BUSINESS_SHORT_CODE)),
+                String.valueOf(exchange.getIn().getHeader(CLIENT_ACCOUNT_NUMBER)),
+                String.valueOf(exchange.getIn().getHeader(SECONDARY_IDENTIFIER_NAME)), String.valueOf(exchange.getIn().getHeader(CURRENCY)),
+                String.valueOf(exchange.getIn().getHeader(GET_ACCOUNT_DETAILS_FLAG)));
+    }
+
+    /**
+     * Answer of the channel to an account validation.
+     */
+    record ChannelValidation(Integer responseCode, String body) {
+
+        void applyTo(Exchange exchange, boolean newTransactionId) {
+            exchange.getIn().setBody(newTransactionId ? withNewTransactionId(body) : body);
+            exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, responseCode);
+        }
+
+        private static String withNewTransactionId(String body) {
+            if (body == null) {
+                return null;
+            }
+            try {
+                JsonNode validation = JsonMappers.mapper().readTree(body);
+                if (!(validation instanceof ObjectNode object) || !object.has(TRANSACTION_ID)) {
+                    return body;
+                }
+                object.put(TRANSACTION_ID, TnmUtils.generateWorkflowId());
+                return JsonMappers.mapper().writeValueAsString(object);
+            } catch (JsonProcessingException ex) {
+                throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+            }
+        }
+    }
+}
@@ -4,10 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.json.JSONObject;
 
 /**
- * Class representing the request to be sent to the Channel connector.
+ * Class representing the request to be sent to the Channel connector. Its JSON form is written by
+ * {@code StreamingJson.writeChannelRequest}.
  */
 @Getter
 @Setter
@@ -15,9 +15,9 @@ import org.json.JSONObject;
 @AllArgsConstructor
 public class ChannelRequestDto {
 
-    JSONObject payer;
-    JSONObject payee;
-    JSONObject amount;
+    PartyIdInfo payer;
+    PartyIdInfo payee;
+    Amount amount;
 
     Boolean useWorkflowIdAsTransactionId;
 
@@ -28,4 +28,40 @@ public class ChannelRequestDto {
         return "{" + "payer:" + payer + ", payee:" + payee + ", amount:" + amount + ", useWorkflowIdAsTransactionId:"
                 + useWorkflowIdAsTransactionId + ", workflowId:" + workflowId + "}";
     }
+
+    /**
+     * Identifier of the payer or payee, written under {@code partyIdInfo}.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PartyIdInfo {
+
+        String partyIdType;
+        String partyIdentifier;
+
+        @Override
+        public String toString() {
+            return "{" + "partyIdInfo:{" + "partyIdType:" + partyIdType + ", partyIdentifier:" + partyIdentifier + "}}";
+        }
+    }
+
+    /**
+     * Amount of the request.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Amount {
+
+        String amount;
+        String currency;
+
+        @Override
+        public String toString() {
+            return "{" + "amount:" + amount + ", currency:" + currency + "}";
+        }
+    }
 }
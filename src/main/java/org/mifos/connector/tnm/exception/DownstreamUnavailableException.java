@@ -0,0 +1,22 @@
+package org.mifos.connector.tnm.exception;
+
+import static org.mifos.connector.tnm.util.TnmConstant.THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a call is rejected because the circuit breaker of its downstream system is open, or because
+ * the concurrency limit of that system is reached.
+ * <p>
+ * Rejections come in bursts while a downstream system is unhealthy, so a single instance without stack trace is shared
+ * instead of building a new exception each time.
+ * </p>
+ */
+public final class DownstreamUnavailableException extends TnmConnectorException {
+
+    public static final DownstreamUnavailableException INSTANCE = new DownstreamUnavailableException();
+
+    private DownstreamUnavailableException() {
+        super(THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE, false);
+    }
+}
@@ -23,4 +23,9 @@ public class TnmConnectorException extends RuntimeException {
         this.httpStatus = httpStatus;
     }
 
+    protected TnmConnectorException(String message, HttpStatus httpStatus, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.httpStatus = httpStatus;
+    }
+
 }
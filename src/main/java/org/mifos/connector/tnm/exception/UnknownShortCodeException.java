@@ -0,0 +1,19 @@
+package org.mifos.connector.tnm.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a request names a business short code that is not configured.
+ * <p>
+ * Unknown short codes are a client error that can be repeated at a high rate, so a single instance without stack trace
+ * is shared instead of building a new exception each time.
+ * </p>
+ */
+public final class UnknownShortCodeException extends TnmConnectorException {
+
+    public static final UnknownShortCodeException INSTANCE = new UnknownShortCodeException();
+
+    private UnknownShortCodeException() {
+        super("Unknown business short code", HttpStatus.BAD_REQUEST, false);
+    }
+}
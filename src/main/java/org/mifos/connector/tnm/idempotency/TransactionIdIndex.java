@@ -0,0 +1,176 @@
+package org.mifos.connector.tnm.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.camel.config.IdempotencyProperties;
+import org.mifos.connector.tnm.store.CorrelationStore;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index of the TNM transaction IDs seen by the connector, used to skip the channel transaction status lookup whenever
+ * the answer is already known.
+ * <p>
+ * IDs known to be COMMITTED, or whose pay request started a workflow, are kept in a local LRU cache and, when the
+ * correlation store backend is shared, in the {@link CorrelationStore} for every replica. Every other ID seen goes into
+ * a Bloom filter of this replica. With {@code paybill.idempotency.trust-filter-negatives} set, an ID that the filter has
+ * definitely never seen, once it has been filling for the warm-up period, is new only if the shared record does not
+ * know it either: the filter is per replica and starts empty on every restart, so its negatives alone prove nothing.
+ * Without a shared backend, or when it cannot be reached, the channel is asked. The shared record is kept for the
+ * committed cache TTL, TNM is not expected to retry older callbacks.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TransactionIdIndex implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.transaction.index";
+
+    /**
+     * Outcome of a lookup in the index.
+     */
+    public enum Lookup {
+        /** The transaction is known to be COMMITTED. */
+        COMMITTED,
+        /** The transaction has definitely not been seen before. */
+        NEW,
+        /** The channel must be asked. */
+        UNKNOWN
+    }
+
+    private final IdempotencyProperties properties;
+    private final CorrelationStore correlationStore;
+    private final BoundedExpiringMap<String, Boolean> committed;
+    private final LongSupplier clock;
+    private volatile BloomFilter seen;
+    private volatile long trustedFromMillis;
+
+    private Counter committedLookups;
+    private Counter newLookups;
+    private Counter unknownLookups;
+
+    @Autowired
+    public TransactionIdIndex(IdempotencyProperties properties, CorrelationStore correlationStore) {
+        this(properties, correlationStore, System::currentTimeMillis);
+    }
+
+    TransactionIdIndex(IdempotencyProperties properties, CorrelationStore correlationStore, LongSupplier clock) {
+        this.properties = properties;
+        this.correlationStore = correlationStore;
+        this.clock = clock;
+        this.committed = new BoundedExpiringMap<>(properties.getCommittedCacheSize(), properties.getCommittedCacheTtl(), true);
+        resetFilter(null);
+    }
+
+    /**
+     * Looks a transaction ID up.
+     *
+     * @param transactionId
+     *            the TNM transaction ID
+     * @return {@link Lookup}
+     */
+    public Lookup lookup(String transactionId) {
+        Lookup lookup;
+        if (transactionId == null) {
+            lookup = Lookup.UNKNOWN;
+        } else if (committed.get(transactionId) != null) {
+            lookup = Lookup.COMMITTED;
+        } else if (properties.isTrustFilterNegatives() && clock.getAsLong() >= trustedFromMillis && !seen.mightContain(transactionId)) {
+            lookup = lookupPaid(transactionId);
+        } else {
+            lookup = Lookup.UNKNOWN;
+        }
+        count(lookup);
+        return lookup;
+    }
+
+    /**
+     * Records that a transaction ID has been received or reported by the channel.
+     *
+     * @param transactionId
+     *            the TNM transaction ID
+     */
+    public void markSeen(String transactionId) {
+        if (transactionId == null) {
+            return;
+        }
+        BloomFilter filter = seen;
+        if (filter.getInsertionCount() >= properties.getExpectedTransactions()) {
+            // Past its capacity the filter answers "maybe" for nearly everything, start over
+            resetFilter(filter);
+            filter = seen;
+        }
+        filter.put(transactionId);
+    }
+
+    /**
+     * Records that a transaction ID is known to be COMMITTED.
+     *
+     * @param transactionId
+     *            the TNM transaction ID
+     */
+    public void markCommitted(String transactionId) {
+        committed.put(transactionId, Boolean.TRUE);
+        markSeen(transactionId);
+    }
+
+    /**
+     * Records that the pay request of a transaction ID has started its workflow, any later callback for it is a
+     * duplicate.
+     *
+     * @param transactionId
+     *            the TNM transaction ID
+     */
+    public void markPaid(String transactionId) {
+        if (transactionId == null) {
+            return;
+        }
+        markCommitted(transactionId);
+        correlationStore.putPaidTransaction(transactionId, properties.getCommittedCacheTtl());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        committed.bindTo(registry, METRIC_PREFIX + ".committed");
+        committedLookups = Counter.builder(METRIC_PREFIX + ".lookups").tag("result", "committed").register(registry);
+        newLookups = Counter.builder(METRIC_PREFIX + ".lookups").tag("result", "new").register(registry);
+        unknownLookups = Counter.builder(METRIC_PREFIX + ".lookups").tag("result", "unknown").register(registry);
+    }
+
+    private Lookup lookupPaid(String transactionId) {
+        Boolean paid = correlationStore.isPaidTransaction(transactionId);
+        if (paid == null) {
+            return Lookup.UNKNOWN;
+        }
+        if (paid) {
+            committed.put(transactionId, Boolean.TRUE);
+            return Lookup.COMMITTED;
+        }
+        return Lookup.NEW;
+    }
+
+    private synchronized void resetFilter(BloomFilter full) {
+        if (seen != full) {
+            // Another thread already replaced it
+            return;
+        }
+        seen = new BloomFilter(properties.getExpectedTransactions(), properties.getFalsePositiveRate());
+        trustedFromMillis = clock.getAsLong() + properties.getWarmUp().toMillis();
+        log.info("Transaction ID filter reset, negatives trusted: {}", properties.isTrustFilterNegatives());
+    }
+
+    private void count(Lookup lookup) {
+        Counter counter = switch (lookup) {
+            case COMMITTED -> committedLookups;
+            case NEW -> newLookups;
+            case UNKNOWN -> unknownLookups;
+        };
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
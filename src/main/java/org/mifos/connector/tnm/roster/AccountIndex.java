@@ -0,0 +1,203 @@
+package org.mifos.connector.tnm.roster;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable, compact index of the account ID and MSISDN pairs known to be active in an AMS.
+ * <p>
+ * Pairs are stored in an open addressing table of primitive arrays: the MSISDN as a number and a 64-bit hash of the
+ * account ID, plus the client name when known. A million accounts without client names take about 40 MB, a fraction of
+ * what a map of strings would. Two different account IDs sharing the same MSISDN would also need the same 64-bit hash
+ * to be confused.
+ * </p>
+ */
+public final class AccountIndex {
+
+    private static final AccountIndex EMPTY = new Builder(0).build();
+
+    private final long[] accountHashes;
+    private final long[] msisdns;
+    private final String[] clientNames;
+    private final int mask;
+    private final int size;
+
+    private AccountIndex(long[] accountHashes, long[] msisdns, String[] clientNames, int size) {
+        this.accountHashes = accountHashes;
+        this.msisdns = msisdns;
+        this.clientNames = clientNames;
+        this.mask = msisdns.length - 1;
+        this.size = size;
+    }
+
+    public static AccountIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Looks up an account.
+     *
+     * @param accountId
+     *            the account ID
+     * @param msisdn
+     *            the MSISDN, digits only or with a leading {@code +}
+     * @return the account, or null if the pair is not in the index
+     */
+    public Account find(String accountId, String msisdn) {
+        long msisdnKey = msisdnKey(msisdn);
+        if (accountId == null || msisdnKey == 0) {
+            return null;
+        }
+        long accountHash = hash(accountId.trim());
+        for (int slot = slot(accountHash, msisdnKey, mask);; slot = (slot + 1) & mask) {
+            if (msisdns[slot] == 0) {
+                return null;
+            }
+            if (msisdns[slot] == msisdnKey && accountHashes[slot] == accountHash) {
+                return new Account(clientNames[slot]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Parses a MSISDN into a positive number, ignoring a leading {@code +}, spaces and dashes.
+     *
+     * @return the MSISDN as a number, or 0 if it is not a valid MSISDN
+     */
+    static long msisdnKey(String msisdn) {
+        if (msisdn == null) {
+            return 0;
+        }
+        long key = 0;
+        int digits = 0;
+        for (int i = 0; i < msisdn.length(); i++) {
+            char c = msisdn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 18) {
+                    return 0;
+                }
+                key = key * 10 + (c - '0');
+            } else if (c != '+' && c != ' ' && c != '-') {
+                return 0;
+            }
+        }
+        return key;
+    }
+
+    private static int slot(long accountHash, long msisdnKey, int mask) {
+        long mixed = accountHash ^ (msisdnKey * 0x9e3779b97f4a7c15L);
+        mixed ^= mixed >>> 32;
+        return (int) mixed & mask;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, finished with the MurmurHash3 mixer to spread the bits.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Account found in the index.
+     *
+     * @param clientName
+     *            the client name, or null if the preload file does not hold it
+     */
+    public record Account(String clientName) {}
+
+    /**
+     * Builds an index, one account at a time. Not thread safe.
+     */
+    public static final class Builder {
+
+        private long[] accountHashes;
+        private long[] msisdns;
+        private String[] clientNames;
+        private int size;
+        private int rejected;
+
+        public Builder(int expectedAccounts) {
+            int capacity = Integer.highestOneBit(Math.max(16, expectedAccounts) * 2 - 1) << 1;
+            allocate(capacity);
+        }
+
+        /**
+         * Adds an account, replacing the client name if the pair was already added.
+         *
+         * @return false if the account ID or the MSISDN is not valid
+         */
+        public boolean add(String accountId, String msisdn, String clientName) {
+            long msisdnKey = msisdnKey(msisdn);
+            if (accountId == null || accountId.isBlank() || msisdnKey == 0) {
+                rejected++;
+                return false;
+            }
+            if ((size + 1) * 2 > msisdns.length) {
+                grow();
+            }
+            insert(hash(accountId.trim()), msisdnKey, clientName);
+            return true;
+        }
+
+        public int getRejectedCount() {
+            return rejected;
+        }
+
+        public AccountIndex build() {
+            AccountIndex index = new AccountIndex(accountHashes, msisdns, clientNames, size);
+            accountHashes = null;
+            msisdns = null;
+            clientNames = null;
+            return index;
+        }
+
+        private void insert(long accountHash, long msisdnKey, String clientName) {
+            int mask = msisdns.length - 1;
+            for (int slot = slot(accountHash, msisdnKey, mask);; slot = (slot + 1) & mask) {
+                if (msisdns[slot] == 0) {
+                    accountHashes[slot] = accountHash;
+                    msisdns[slot] = msisdnKey;
+                    clientNames[slot] = clientName;
+                    size++;
+                    return;
+                }
+                if (msisdns[slot] == msisdnKey && accountHashes[slot] == accountHash) {
+                    clientNames[slot] = clientName;
+                    return;
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldHashes = accountHashes;
+            long[] oldMsisdns = msisdns;
+            String[] oldNames = clientNames;
+            allocate(oldMsisdns.length * 2);
+            size = 0;
+            for (int i = 0; i < oldMsisdns.length; i++) {
+                if (oldMsisdns[i] != 0) {
+                    insert(oldHashes[i], oldMsisdns[i], oldNames[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            accountHashes = new long[capacity];
+            msisdns = new long[capacity];
+            clientNames = new String[capacity];
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.mifos.connector.tnm.roster;
+
+import static org.mifos.connector.tnm.zeebe.ZeebeVariables.TRANSACTION_ID;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
+import org.mifos.connector.tnm.camel.config.AmsRoute;
+import org.mifos.connector.tnm.camel.config.RosterPreloadProperties;
+import org.mifos.connector.tnm.dto.ChannelValidationRequestDto;
+import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+import org.mifos.connector.tnm.exception.UnknownShortCodeException;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.mifos.connector.tnm.util.TnmUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Preloads the active accounts of an AMS, so that their PayBill validations are answered without calling the channel.
+ * <p>
+ * The file lists account ID and MSISDN pairs, with an optional client name, either as CSV with the columns
+ * {@code accountId,msisdn,clientName} or as newline delimited JSON objects with the same fields. It is read one record
+ * at a time into a new {@link AccountIndex}, which replaces the current one once complete, and polled for changes in
+ * the background. A file that cannot be read is rejected as a whole and the current index is kept. Validations of
+ * accounts missing from the index still go to the channel.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RosterAccountPreloader implements MeterBinder, DisposableBean {
+
+    private static final String METRIC_PREFIX = "tnm.roster";
+    private static final ObjectReader ACCOUNT_READER = JsonMappers.mapper().readerFor(RosterAccount.class);
+    // The validation request carries no amount, the workflow gets the paid amount from the pay request
+    private static final String VALIDATION_AMOUNT = "0";
+
+    private final RosterPreloadProperties properties;
+    private final AmsPayBillProperties amsPayBillProperties;
+    private final Path file;
+    private final ScheduledExecutorService watcher;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failedLoads = new LongAdder();
+
+    private FileTime lastModified;
+    private volatile AccountIndex index = AccountIndex.empty();
+
+    public RosterAccountPreloader(RosterPreloadProperties properties, AmsPayBillProperties amsPayBillProperties) {
+        this.properties = properties;
+        this.amsPayBillProperties = amsPayBillProperties;
+        this.file = StringUtils.hasText(properties.getFile()) ? Path.of(properties.getFile()) : null;
+        if (this.file == null) {
+            this.watcher = null;
+            return;
+        }
+        this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "roster-preloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The first load also runs in the background, the connector answers from the channel until it completes
+        long intervalMillis = properties.getPollInterval().toMillis();
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Answers a PayBill validation from the preloaded accounts.
+     *
+     * @param businessShortCode
+     *            the business short code of the request, or null for the default one
+     * @param accountId
+     *            the client account number
+     * @param msisdn
+     *            the MSISDN of the payer
+     * @param currency
+     *            the currency of the request, or null for the one of the AMS
+     * @param accountDetails
+     *            whether the client name is requested
+     * @return the validation response body, or null if the account is not preloaded
+     */
+    public String answer(String businessShortCode, String accountId, String msisdn, String currency, boolean accountDetails) {
+        AccountIndex current = index;
+        if (current.size() == 0) {
+            return null;
+        }
+        AmsRoute route;
+        try {
+            route = amsPayBillProperties
+                    .getRoute(businessShortCode != null ? businessShortCode : amsPayBillProperties.getDefaultAmsShortCode());
+        } catch (UnknownShortCodeException ex) {
+            // Rejected by the regular validation path
+            return null;
+        }
+        if (!properties.getAms().equalsIgnoreCase(route.ams())) {
+            return null;
+        }
+        AccountIndex.Account account = current.find(accountId, msisdn);
+        if (account == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        // Answer with the custom data of the request the channel would have received, as the channel echoes it
+        String responseCurrency = currency != null ? currency : route.currency();
+        ChannelValidationRequestDto request = TnmUtils.createValidationRequest(accountId, route.ams(), responseCurrency, msisdn,
+                accountDetails);
+        PayBillValidationResponseDto response = new PayBillValidationResponseDto();
+        response.setReconciled(true);
+        response.setAmsName(route.ams());
+        response.setAccountHoldingInstitutionId(amsPayBillProperties.getAccountHoldingInstitutionId());
+        request.getCustomData().stream().filter(data -> TRANSACTION_ID.equals(data.getKey())).findFirst()
+                .ifPresent(transactionId -> response.setTransactionId(String.valueOf(transactionId.getValue())));
+        response.setAmount(VALIDATION_AMOUNT);
+        response.setCurrency(responseCurrency);
+        response.setMsisdn(msisdn);
+        response.setClientName(accountDetails ? account.clientName() : null);
+        response.setCustomData(request.getCustomData());
+        try {
+            return JsonMappers.VALIDATION_RESPONSE_WRITER.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reloads the preload file, whether it changed or not.
+     *
+     * @return the number of accounts loaded
+     * @throws IllegalStateException
+     *             if no preload file is configured
+     * @throws UncheckedIOException
+     *             if the preload file cannot be read
+     */
+    public synchronized int reload() {
+        if (file == null) {
+            throw new IllegalStateException("No roster preload file is configured, set paybill.roster-preload.file");
+        }
+        try {
+            long start = System.nanoTime();
+            FileTime modified = Files.getLastModifiedTime(file);
+            AccountIndex.Builder builder = new AccountIndex.Builder(countLines(file));
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                    readCsv(reader, builder);
+                } else {
+                    readJsonLines(reader, builder);
+                }
+            }
+            int rejected = builder.getRejectedCount();
+            index = builder.build();
+            lastModified = modified;
+            log.info("Preloaded {} {} accounts from {} in {} ms, {} invalid records skipped", index.size(), properties.getAms(), file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rejected);
+            return index.size();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read roster preload file " + file, ex);
+        }
+    }
+
+    public int getAccountCount() {
+        return index.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getFailedLoadCount() {
+        return failedLoads.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".accounts", this, RosterAccountPreloader::getAccountCount).tag("ams", properties.getAms())
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".lookups", this, RosterAccountPreloader::getHitCount).tag("ams", properties.getAms())
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".lookups", this, RosterAccountPreloader::getMissCount).tag("ams", properties.getAms())
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".load.failures", this, RosterAccountPreloader::getFailedLoadCount)
+                .tag("ams", properties.getAms()).register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    synchronized void reloadIfChanged() {
+        try {
+            if (!Files.exists(file) || Files.getLastModifiedTime(file).equals(lastModified)) {
+                return;
+            }
+            reload();
+        } catch (RuntimeException | IOException ex) {
+            failedLoads.increment();
+            log.error("Keeping the current {} accounts, preloading {} failed: {}", properties.getAms(), file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Counts the lines of a file without decoding it, an upper bound of its records used to size the index.
+     */
+    private static int countLines(Path file) throws IOException {
+        int lines = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+            }
+        }
+        // The last line may not end with a newline
+        return lines + 1;
+    }
+
+    private static void readCsv(BufferedReader reader, AccountIndex.Builder builder) throws IOException {
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", 3);
+            if (first) {
+                first = false;
+                if ("accountId".equalsIgnoreCase(unquote(fields[0]))) {
+                    continue;
+                }
+            }
+            builder.add(unquote(fields[0]), fields.length > 1 ? unquote(fields[1]) : null, fields.length > 2 ? unquote(fields[2]) : null);
+        }
+    }
+
+    private static void readJsonLines(BufferedReader reader, AccountIndex.Builder builder) throws IOException {
+        try (MappingIterator<RosterAccount> accounts = ACCOUNT_READER.readValues(reader)) {
+            while (accounts.hasNextValue()) {
+                RosterAccount account = accounts.nextValue();
+                builder.add(account.accountId(), account.msisdn(), account.clientName());
+            }
+        }
+    }
+
+    private static String unquote(String field) {
+        String value = field.trim();
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            value = value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Record of the newline delimited JSON preload file.
+     */
+    record RosterAccount(@JsonAlias("ACCOUNTID") String accountId, @JsonAlias("MSISDN") String msisdn, String clientName) {}
+}
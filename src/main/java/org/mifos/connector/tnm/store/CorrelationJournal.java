@@ -0,0 +1,245 @@
+package org.mifos.connector.tnm.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only, memory-mapped journal of correlation store writes.
+ * <p>
+ * Each record is laid out as {@code [length:int][crc32:int][op:byte][expiresAt:long][keyLength:int][key]
+ * [valueLength:int][value]}. A record only becomes visible on replay once it is complete and its checksum matches, so a
+ * process killed in the middle of a write loses at most that last record. When the journal is full it is compacted by
+ * folding it into its live entries and atomically replacing the file with the result.
+ * </p>
+ */
+@Slf4j
+public class CorrelationJournal implements AutoCloseable {
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int FIXED_PAYLOAD_BYTES = 1 + Long.BYTES + Integer.BYTES * 2;
+
+    private final Path path;
+    private final int capacity;
+    private final LongSupplier clock;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long compactions;
+
+    public CorrelationJournal(Path path, int capacity) {
+        this(path, capacity, System::currentTimeMillis);
+    }
+
+    CorrelationJournal(Path path, int capacity, LongSupplier clock) {
+        this.path = path;
+        this.capacity = capacity;
+        this.clock = clock;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            map(path);
+            buffer.position(scan(buffer, null));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open correlation journal " + path, ex);
+        }
+    }
+
+    /**
+     * Replays the live entries of the journal.
+     *
+     * @param consumer
+     *            receives each entry that has not expired yet, with its expiry time in epoch milliseconds
+     */
+    public synchronized void replay(EntryConsumer consumer) {
+        long now = clock.getAsLong();
+        fold(buffer.duplicate()).forEach((key, entry) -> {
+            if (entry.expiresAt() > now) {
+                consumer.accept(key, entry.value(), entry.expiresAt());
+            }
+        });
+    }
+
+    /**
+     * Records that a key was stored.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param expiresAt
+     *            the expiry time in epoch milliseconds
+     */
+    public synchronized void appendPut(String key, String value, long expiresAt) {
+        append(OP_PUT, key, value, expiresAt);
+    }
+
+    /**
+     * Records that a key was removed.
+     *
+     * @param key
+     *            the key
+     */
+    public synchronized void appendRemove(String key) {
+        append(OP_REMOVE, key, "", 0L);
+    }
+
+    /**
+     * Rewrites the journal so that it only holds its live entries.
+     */
+    public synchronized void compact() {
+        long now = clock.getAsLong();
+        Map<String, LiveEntry> live = fold(buffer.duplicate());
+        live.values().removeIf(entry -> entry.expiresAt() <= now);
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+        try {
+            Files.deleteIfExists(compacted);
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer targetBuffer = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                for (Map.Entry<String, LiveEntry> entry : live.entrySet()) {
+                    if (!write(targetBuffer, OP_PUT, entry.getKey(), entry.getValue().value(), entry.getValue().expiresAt())) {
+                        throw new IllegalStateException("Correlation journal capacity is too small for its live entries");
+                    }
+                }
+                targetBuffer.force();
+            }
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            map(path);
+            buffer.position(scan(buffer, null));
+            compactions++;
+            log.debug("Compacted correlation journal to {} live entries", live.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to compact correlation journal " + path, ex);
+        }
+    }
+
+    public synchronized int getUsedBytes() {
+        return buffer.position();
+    }
+
+    public synchronized long getCompactionCount() {
+        return compactions;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void append(byte op, String key, String value, long expiresAt) {
+        if (!write(buffer, op, key, value, expiresAt)) {
+            try {
+                compact();
+            } catch (RuntimeException ex) {
+                log.error("Correlation journal compaction failed: {}", ex.getMessage());
+            }
+            if (!write(buffer, op, key, value, expiresAt)) {
+                log.warn("Correlation journal is full, entry {} is not journaled", key);
+            }
+        }
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static boolean write(ByteBuffer target, byte op, String key, String value, long expiresAt) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = FIXED_PAYLOAD_BYTES + keyBytes.length + valueBytes.length;
+        int start = target.position();
+        // Keep room for a zero length terminating the journal
+        if (start + HEADER_BYTES + payloadLength + Integer.BYTES > target.capacity()) {
+            return false;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        payload.put(op).putLong(expiresAt).putInt(keyBytes.length).put(keyBytes).putInt(valueBytes.length).put(valueBytes);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        // Write the payload first and the length last, so that a partially written record is never considered complete
+        target.position(start + HEADER_BYTES);
+        target.put(payload.array());
+        target.putInt(0);
+        target.putInt(start + Integer.BYTES, (int) crc.getValue());
+        target.putInt(start, payloadLength);
+        target.position(start + HEADER_BYTES + payloadLength);
+        return true;
+    }
+
+    private static Map<String, LiveEntry> fold(ByteBuffer source) {
+        Map<String, LiveEntry> live = new LinkedHashMap<>();
+        source.position(0);
+        scan(source, live);
+        return live;
+    }
+
+    /**
+     * Walks the valid records of the journal.
+     *
+     * @return the position right after the last valid record
+     */
+    private static int scan(ByteBuffer source, Map<String, LiveEntry> live) {
+        int position = 0;
+        while (position + HEADER_BYTES <= source.capacity()) {
+            int length = source.getInt(position);
+            if (length < FIXED_PAYLOAD_BYTES || position + HEADER_BYTES + length > source.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            source.get(position + HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != source.getInt(position + Integer.BYTES)) {
+                log.warn("Correlation journal record at {} is corrupt, ignoring the rest of the journal", position);
+                break;
+            }
+            if (live != null) {
+                apply(ByteBuffer.wrap(payload), live);
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private static void apply(ByteBuffer payload, Map<String, LiveEntry> live) {
+        byte op = payload.get();
+        long expiresAt = payload.getLong();
+        byte[] key = new byte[payload.getInt()];
+        payload.get(key);
+        byte[] value = new byte[payload.getInt()];
+        payload.get(value);
+        String keyString = new String(key, StandardCharsets.UTF_8);
+        live.remove(keyString);
+        if (op == OP_PUT) {
+            live.put(keyString, new LiveEntry(new String(value, StandardCharsets.UTF_8), expiresAt));
+        }
+    }
+
+    private record LiveEntry(String value, long expiresAt) {}
+
+    /**
+     * Receives the entries replayed from the journal.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(String key, String value, long expiresAt);
+    }
+}
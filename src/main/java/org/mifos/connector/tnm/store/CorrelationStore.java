@@ -0,0 +1,147 @@
+package org.mifos.connector.tnm.store;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.camel.config.CorrelationStoreProperties;
+import org.mifos.connector.tnm.camel.config.ZeebeProperties;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the state shared between the PayBill validate and pay requests.
+ * <p>
+ * Entries live for the TNM pay request wait period plus a grace period, after which the workflow waiting for the pay
+ * request has timed out anyway, and the number of entries is bounded so that a burst of validations cannot exhaust the
+ * heap.
+ * </p>
+ * <p>
+ * Workflow instance keys are kept in the configured {@link CorrelationStoreBackend}, so that a pay request can land on
+ * another replica than the validation. Reconciliation flags only live for the duration of a single validation exchange
+ * and therefore stay local.
+ * </p>
+ * <p>
+ * When the backend is shared, it also records the TNM transaction IDs whose pay request started a workflow, so that
+ * every replica can tell a retried callback from a new one, including after a restart.
+ * </p>
+ */
+@Slf4j
+@Component
+public class CorrelationStore implements MeterBinder {
+
+    static final String METRIC_PREFIX = "tnm.correlation.store";
+    private static final String PAID_TRANSACTION_PREFIX = "paid:";
+
+    private final CorrelationStoreBackend workflowInstanceKeys;
+    private final BoundedExpiringMap<String, Boolean> reconciliations;
+    private final Duration ttl;
+
+    public CorrelationStore(CorrelationStoreProperties correlationStoreProperties, ZeebeProperties zeebeProperties,
+            CorrelationStoreBackend workflowInstanceKeys) {
+        this.ttl = Duration.ofSeconds(zeebeProperties.getWaitTnmPayRequestPeriod()).plus(correlationStoreProperties.getGracePeriod());
+        int maxEntries = correlationStoreProperties.getMaxEntries();
+        log.info("Correlation store backend: {}, TTL: {}, max entries: {}", correlationStoreProperties.getBackend(), ttl, maxEntries);
+        this.workflowInstanceKeys = workflowInstanceKeys;
+        this.reconciliations = new BoundedExpiringMap<>(maxEntries, ttl);
+    }
+
+    /**
+     * Stores the workflow instance key started for a validation.
+     *
+     * @param oafTransactionReference
+     *            the reference returned to TNM in the validation response
+     * @param workflowInstanceKey
+     *            the key of the workflow waiting for the pay request
+     */
+    public void putWorkflowInstanceKey(String oafTransactionReference, String workflowInstanceKey) {
+        workflowInstanceKeys.put(oafTransactionReference, workflowInstanceKey, ttl);
+    }
+
+    /**
+     * Fetches the workflow instance key started for a validation.
+     *
+     * @param oafTransactionReference
+     *            the reference returned to TNM in the validation response
+     * @return the workflow instance key, or null if unknown or expired
+     */
+    public String getWorkflowInstanceKey(String oafTransactionReference) {
+        if (oafTransactionReference == null) {
+            return null;
+        }
+        return workflowInstanceKeys.get(oafTransactionReference);
+    }
+
+    /**
+     * Removes the workflow instance key started for a validation.
+     *
+     * @param oafTransactionReference
+     *            the reference returned to TNM in the validation response
+     */
+    public void removeWorkflowInstanceKey(String oafTransactionReference) {
+        workflowInstanceKeys.remove(oafTransactionReference);
+    }
+
+    /**
+     * Records that the pay request of a TNM transaction has started its workflow. Only kept by a shared backend, a
+     * record that other replicas cannot see or that a restart loses is of no use to them.
+     *
+     * @param tnmTransactionId
+     *            the TNM transaction ID
+     * @param paidTtl
+     *            how long the record is kept
+     */
+    public void putPaidTransaction(String tnmTransactionId, Duration paidTtl) {
+        if (!workflowInstanceKeys.isShared()) {
+            return;
+        }
+        try {
+            workflowInstanceKeys.put(PAID_TRANSACTION_PREFIX + tnmTransactionId, Boolean.TRUE.toString(), paidTtl);
+        } catch (RuntimeException ex) {
+            // The workflow has started, failing the pay request now would only make TNM retry a paid transaction
+            log.error("Failed to record paid transaction {}, other replicas may not detect a retried callback", tnmTransactionId, ex);
+        }
+    }
+
+    /**
+     * Checks whether the pay request of a TNM transaction has started its workflow, on any replica.
+     *
+     * @param tnmTransactionId
+     *            the TNM transaction ID
+     * @return whether it has, or null if the backend is not shared or could not be reached
+     */
+    public Boolean isPaidTransaction(String tnmTransactionId) {
+        if (!workflowInstanceKeys.isShared()) {
+            return null;
+        }
+        return workflowInstanceKeys.exists(PAID_TRANSACTION_PREFIX + tnmTransactionId);
+    }
+
+    /**
+     * Stores the reconciliation flag of a validation until its workflow has been started.
+     *
+     * @param clientCorrelationId
+     *            the validation transaction ID
+     * @param reconciled
+     *            the reconciled flag
+     */
+    public void putReconciled(String clientCorrelationId, boolean reconciled) {
+        reconciliations.put(clientCorrelationId, reconciled);
+    }
+
+    /**
+     * Fetches and removes the reconciliation flag of a validation.
+     *
+     * @param clientCorrelationId
+     *            the validation transaction ID
+     * @return the reconciled flag, or null if unknown or expired
+     */
+    public Boolean removeReconciled(String clientCorrelationId) {
+        return reconciliations.remove(clientCorrelationId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        reconciliations.bindTo(registry, METRIC_PREFIX, "store", "reconciliation");
+    }
+}
@@ -0,0 +1,58 @@
+package org.mifos.connector.tnm.store;
+
+import java.time.Duration;
+
+/**
+ * Storage used by {@link CorrelationStore} for the entries that must be visible to every connector replica.
+ */
+public interface CorrelationStoreBackend {
+
+    /**
+     * Stores a value, replacing any previous value for the key.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param ttl
+     *            how long the entry stays readable
+     */
+    void put(String key, String value, Duration ttl);
+
+    /**
+     * Fetches a value.
+     *
+     * @param key
+     *            the key
+     * @return the value, or null if unknown or expired
+     */
+    String get(String key);
+
+    /**
+     * Removes a value.
+     *
+     * @param key
+     *            the key
+     */
+    void remove(String key);
+
+    /**
+     * Checks whether a key is stored.
+     *
+     * @param key
+     *            the key
+     * @return whether the key is stored, or null if the backend could not be reached
+     */
+    default Boolean exists(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Tells whether the entries are visible to every replica and outlive their restarts.
+     *
+     * @return true for a shared backend
+     */
+    default boolean isShared() {
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package org.mifos.connector.tnm.store;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SocketOptions;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.file.Path;
+import org.mifos.connector.tnm.camel.config.CorrelationStoreProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class selecting the {@link CorrelationStoreBackend}.
+ */
+@Configuration
+public class CorrelationStoreConfiguration {
+
+    private static final String BACKEND_PROPERTY_PREFIX = "correlation-store";
+    private static final String BACKEND_PROPERTY = "backend";
+
+    /**
+     * Keeps the correlation entries in the heap of this replica, optionally journaled to disk so that they survive a
+     * restart.
+     *
+     * @param properties
+     *            {@link CorrelationStoreProperties}
+     * @return {@link CorrelationStoreBackend}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = BACKEND_PROPERTY_PREFIX, name = BACKEND_PROPERTY, havingValue = "memory", matchIfMissing = true)
+    public CorrelationStoreBackend inMemoryCorrelationStoreBackend(CorrelationStoreProperties properties) {
+        CorrelationStoreBackend backend = new InMemoryCorrelationStoreBackend(properties.getMaxEntries());
+        CorrelationStoreProperties.Journal journal = properties.getJournal();
+        if (journal.isEnabled()) {
+            long size = journal.getSize().toBytes();
+            // A single mapped buffer, which cannot be larger than 2GB
+            if (size <= 0 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("correlation-store.journal.size must be between 1B and 2GB, got " + journal.getSize());
+            }
+            CorrelationJournal correlationJournal = new CorrelationJournal(Path.of(journal.getPath()), Math.toIntExact(size));
+            backend = new JournaledCorrelationStoreBackend(backend, correlationJournal, journal.getCompactionInterval());
+        }
+        return backend;
+    }
+
+    /**
+     * Creates the Redis client used by the shared correlation store. Commands and connection attempts give up after the
+     * configured command timeout instead of the 60 seconds Lettuce waits by default, so that a request fails fast with a
+     * 503 while Redis is unreachable.
+     *
+     * @param properties
+     *            {@link CorrelationStoreProperties}
+     * @return {@link RedisClient}
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = BACKEND_PROPERTY_PREFIX, name = BACKEND_PROPERTY, havingValue = "redis")
+    public RedisClient correlationStoreRedisClient(CorrelationStoreProperties properties) {
+        CorrelationStoreProperties.Redis redis = properties.getRedis();
+        RedisURI redisUri = RedisURI.create(redis.getUri());
+        redisUri.setTimeout(redis.getCommandTimeout());
+        RedisClient redisClient = RedisClient.create(redisUri);
+        redisClient.setOptions(ClientOptions.builder()
+                .socketOptions(SocketOptions.builder().connectTimeout(redis.getCommandTimeout()).build()).build());
+        return redisClient;
+    }
+
+    /**
+     * Keeps the correlation entries in Redis, with a near cache in front of it.
+     *
+     * @param redisClient
+     *            {@link RedisClient}, its shutdown also closes the connection
+     * @param properties
+     *            {@link CorrelationStoreProperties}
+     * @return {@link CorrelationStoreBackend}
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = BACKEND_PROPERTY_PREFIX, name = BACKEND_PROPERTY, havingValue = "redis")
+    public CorrelationStoreBackend redisCorrelationStoreBackend(RedisClient redisClient, CorrelationStoreProperties properties) {
+        CorrelationStoreProperties.Redis redis = properties.getRedis();
+        return new NearCachedCorrelationStoreBackend(
+                new RedisCorrelationStoreBackend(() -> redisClient.connect().sync(), redis.getKeyPrefix()),
+                redis.getNearCacheMaxEntries(), redis.getNearCacheTtl());
+    }
+
+    /**
+     * Binds the meters of the selected backend, which the registry does not find by itself as the backend beans are
+     * declared as {@link CorrelationStoreBackend}.
+     *
+     * @param backend
+     *            {@link CorrelationStoreBackend}
+     * @return {@link MeterBinder}
+     */
+    @Bean
+    public MeterBinder correlationStoreBackendMetrics(CorrelationStoreBackend backend) {
+        return registry -> {
+            if (backend instanceof MeterBinder meterBinder) {
+                meterBinder.bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package org.mifos.connector.tnm.store;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+
+/**
+ * {@link CorrelationStoreBackend} keeping the entries in the heap of this replica only.
+ */
+public class InMemoryCorrelationStoreBackend implements CorrelationStoreBackend, MeterBinder {
+
+    private final BoundedExpiringMap<String, String> entries;
+
+    public InMemoryCorrelationStoreBackend(int maxEntries) {
+        // Every put carries its own TTL, so the default one is never used
+        this.entries = new BoundedExpiringMap<>(maxEntries, Duration.ZERO);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        entries.put(key, value, ttl);
+    }
+
+    @Override
+    public String get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        entries.bindTo(registry, CorrelationStore.METRIC_PREFIX, "store", "workflow-instance");
+    }
+}
@@ -0,0 +1,93 @@
+package org.mifos.connector.tnm.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CorrelationStoreBackend} recording every write in a {@link CorrelationJournal} before applying it to a local
+ * backend, so that the entries survive a restart of the connector.
+ */
+@Slf4j
+public class JournaledCorrelationStoreBackend implements CorrelationStoreBackend, MeterBinder, AutoCloseable {
+
+    private final CorrelationStoreBackend delegate;
+    private final CorrelationJournal journal;
+    private final ScheduledExecutorService compactionExecutor;
+    private final int replayedEntries;
+
+    public JournaledCorrelationStoreBackend(CorrelationStoreBackend delegate, CorrelationJournal journal, Duration compactionInterval) {
+        this.delegate = delegate;
+        this.journal = journal;
+        this.replayedEntries = replay();
+        this.compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "correlation-journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = compactionInterval.toMillis();
+        compactionExecutor.scheduleWithFixedDelay(this::compact, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        journal.appendPut(key, value, System.currentTimeMillis() + ttl.toMillis());
+        delegate.put(key, value, ttl);
+    }
+
+    @Override
+    public String get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        journal.appendRemove(key);
+        delegate.remove(key);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (delegate instanceof MeterBinder meterBinder) {
+            meterBinder.bindTo(registry);
+        }
+        Gauge.builder(CorrelationStore.METRIC_PREFIX + ".journal.used.bytes", journal, CorrelationJournal::getUsedBytes)
+                .register(registry);
+        FunctionCounter.builder(CorrelationStore.METRIC_PREFIX + ".journal.compactions", journal, CorrelationJournal::getCompactionCount)
+                .register(registry);
+        Gauge.builder(CorrelationStore.METRIC_PREFIX + ".journal.replayed.entries", this, backend -> backend.replayedEntries)
+                .register(registry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactionExecutor.shutdownNow();
+        journal.close();
+    }
+
+    private int replay() {
+        int[] count = new int[1];
+        long now = System.currentTimeMillis();
+        journal.replay((key, value, expiresAt) -> {
+            delegate.put(key, value, Duration.ofMillis(expiresAt - now));
+            count[0]++;
+        });
+        log.info("Replayed {} correlation entries from the journal", count[0]);
+        return count[0];
+    }
+
+    private void compact() {
+        try {
+            journal.compact();
+        } catch (RuntimeException ex) {
+            log.error("Correlation journal compaction failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.mifos.connector.tnm.store;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import org.mifos.connector.tnm.util.BoundedExpiringMap;
+
+/**
+ * {@link CorrelationStoreBackend} answering reads from a short-lived local cache before going to a shared backend.
+ * <p>
+ * Writes go through to the shared backend. A removal on another replica is only seen here once the local entry
+ * expires, so the near cache TTL should stay small compared to the pay request wait period.
+ * </p>
+ */
+public class NearCachedCorrelationStoreBackend implements CorrelationStoreBackend, MeterBinder {
+
+    private final CorrelationStoreBackend delegate;
+    private final BoundedExpiringMap<String, String> nearCache;
+    private final Duration nearCacheTtl;
+
+    public NearCachedCorrelationStoreBackend(CorrelationStoreBackend delegate, int maxEntries, Duration nearCacheTtl) {
+        this.delegate = delegate;
+        this.nearCache = new BoundedExpiringMap<>(maxEntries, nearCacheTtl);
+        this.nearCacheTtl = nearCacheTtl;
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        delegate.put(key, value, ttl);
+        nearCache.put(key, value, ttl.compareTo(nearCacheTtl) < 0 ? ttl : nearCacheTtl);
+    }
+
+    @Override
+    public String get(String key) {
+        String value = nearCache.get(key);
+        if (value == null) {
+            value = delegate.get(key);
+            if (value != null) {
+                nearCache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void remove(String key) {
+        nearCache.remove(key);
+        delegate.remove(key);
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        return nearCache.get(key) != null ? Boolean.TRUE : delegate.exists(key);
+    }
+
+    @Override
+    public boolean isShared() {
+        return delegate.isShared();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        nearCache.bindTo(registry, CorrelationStore.METRIC_PREFIX, "store", "workflow-instance-near-cache");
+    }
+}
@@ -0,0 +1,101 @@
+package org.mifos.connector.tnm.store;
+
+import io.lettuce.core.RedisException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.RedisCommands;
+import java.time.Duration;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CorrelationStoreBackend} keeping the entries in Redis, so that they are shared by all connector replicas.
+ * <p>
+ * A failed read or write is rethrown, and the request needing it is answered with a 503 so that TNM retries it: reading
+ * it as a miss would make the pay request start a second workflow next to the one waiting for it. Failed removals and
+ * lookups are only logged, the entry expires anyway and a failed lookup is answered as unknown. The connection is only
+ * opened by the first command, and opened again by the next one when that fails, so that the connector also starts
+ * while Redis is down.
+ * </p>
+ */
+@Slf4j
+public class RedisCorrelationStoreBackend implements CorrelationStoreBackend {
+
+    private final Supplier<RedisCommands<String, String>> connector;
+    private final String keyPrefix;
+    private volatile RedisCommands<String, String> commands;
+
+    public RedisCorrelationStoreBackend(RedisCommands<String, String> commands, String keyPrefix) {
+        this(() -> commands, keyPrefix);
+    }
+
+    /**
+     * Creates a backend connecting to Redis on its first command.
+     *
+     * @param connector
+     *            opens the connection, may throw a {@link RedisException}
+     * @param keyPrefix
+     *            prefix of the keys of the correlation entries
+     */
+    public RedisCorrelationStoreBackend(Supplier<RedisCommands<String, String>> connector, String keyPrefix) {
+        this.connector = connector;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        try {
+            commands().set(keyPrefix + key, value, SetArgs.Builder.px(ttl.toMillis()));
+        } catch (RedisException ex) {
+            log.warn("Failed to store correlation entry {} in Redis: {}", key, ex.getMessage());
+            throw ex;
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        try {
+            return commands().get(keyPrefix + key);
+        } catch (RedisException ex) {
+            log.warn("Failed to read correlation entry {} from Redis: {}", key, ex.getMessage());
+            throw ex;
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        try {
+            commands().del(keyPrefix + key);
+        } catch (RedisException ex) {
+            log.warn("Failed to remove correlation entry {} from Redis: {}", key, ex.getMessage());
+        }
+    }
+
+    @Override
+    public Boolean exists(String key) {
+        try {
+            return commands().exists(keyPrefix + key) > 0;
+        } catch (RedisException ex) {
+            log.warn("Failed to look correlation entry {} up in Redis: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    private RedisCommands<String, String> commands() {
+        RedisCommands<String, String> connected = commands;
+        if (connected == null) {
+            synchronized (this) {
+                connected = commands;
+                if (connected == null) {
+                    connected = connector.get();
+                    commands = connected;
+                }
+            }
+        }
+        return connected;
+    }
+}
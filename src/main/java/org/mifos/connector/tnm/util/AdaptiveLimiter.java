@@ -0,0 +1,119 @@
+package org.mifos.connector.tnm.util;
+
+/**
+ * Concurrency limit of the calls to a downstream system, adapted to its measured round trip time.
+ * <p>
+ * The limit follows TCP Vegas: the lowest round trip time seen is taken as the latency of the system without load, and
+ * {@code limit * (1 - minRtt / rtt)} estimates how many calls are queued in it. The limit grows while that queue stays
+ * below {@code alpha}, shrinks once it passes {@code beta}, both scaled with the logarithm of the limit, and is cut
+ * down on dropped calls. It only grows while at least half of it is in use, so that an idle system does not inflate
+ * it. The lowest round trip time is measured again every {@code probeInterval} samples, so that it follows lasting
+ * changes of the system latency.
+ * </p>
+ */
+public class AdaptiveLimiter {
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final String name;
+    private final Config config;
+
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesUntilProbe;
+    private long rejected;
+
+    public AdaptiveLimiter(String name, Config config) {
+        if (config.minLimit() < 1 || config.minLimit() > config.initialLimit() || config.initialLimit() > config.maxLimit()) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.name = name;
+        this.config = config;
+        this.limit = config.initialLimit();
+        this.samplesUntilProbe = config.probeInterval();
+    }
+
+    /**
+     * Asks for the permission to call the downstream system. Every permitted call must report its outcome with
+     * {@link #onResult(long, boolean)} or {@link #release()}.
+     *
+     * @return true if the call may proceed, false if the limit is reached
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Records the outcome of a permitted call and adapts the limit.
+     *
+     * @param rttNanos
+     *            how long the call took
+     * @param dropped
+     *            whether the call failed in a way showing that the system is overloaded
+     */
+    public synchronized void onResult(long rttNanos, boolean dropped) {
+        int inFlightAtStart = inFlight;
+        inFlight--;
+        if (dropped) {
+            limit = Math.max(config.minLimit(), limit * DROP_BACKOFF);
+            return;
+        }
+        if (--samplesUntilProbe <= 0) {
+            samplesUntilProbe = config.probeInterval();
+            minRttNanos = rttNanos;
+        }
+        minRttNanos = Math.min(minRttNanos, Math.max(1, rttNanos));
+        double queued = Math.ceil(limit * (1 - (double) minRttNanos / Math.max(1, rttNanos)));
+        double logLimit = Math.max(1, Math.log10(limit));
+        if (queued < 3 * logLimit) {
+            if (inFlightAtStart * 2 >= limit) {
+                limit = Math.min(config.maxLimit(), limit + logLimit);
+            }
+        } else if (queued > 6 * logLimit) {
+            limit = Math.max(config.minLimit(), limit - logLimit);
+        }
+    }
+
+    /**
+     * Releases a permitted call without using it as a sample, for calls that never reached the downstream system.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Settings of an adaptive limiter.
+     *
+     * @param initialLimit
+     *            the limit before any call is measured
+     * @param minLimit
+     *            the lowest limit
+     * @param maxLimit
+     *            the highest limit
+     * @param probeInterval
+     *            the number of samples after which the lowest round trip time is measured again
+     */
+    public record Config(int initialLimit, int minLimit, int maxLimit, int probeInterval) {}
+}
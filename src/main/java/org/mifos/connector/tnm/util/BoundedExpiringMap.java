@@ -0,0 +1,269 @@
+package org.mifos.connector.tnm.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent, size-bounded map whose entries expire after a time to live.
+ * <p>
+ * Keys are spread over a fixed number of segments, each one a {@link LinkedHashMap} guarded by its own lock, so that
+ * writers on different keys rarely contend. When a segment is full its eldest entry is evicted, in insertion order or,
+ * for an LRU map, in access order. Expired entries are dropped lazily on read and, on write, in expiry order from a
+ * queue kept by each segment, so that expired entries with a short time to live never make the segment evict live
+ * entries with a longer one.
+ * </p>
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+public class BoundedExpiringMap<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final long defaultTtlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedExpiringMap(int maxEntries, Duration defaultTtl) {
+        this(maxEntries, defaultTtl, false, System::nanoTime);
+    }
+
+    public BoundedExpiringMap(int maxEntries, Duration defaultTtl, boolean leastRecentlyUsedEviction) {
+        this(maxEntries, defaultTtl, leastRecentlyUsedEviction, System::nanoTime);
+    }
+
+    BoundedExpiringMap(int maxEntries, Duration defaultTtl, LongSupplier nanoClock) {
+        this(maxEntries, defaultTtl, false, nanoClock);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    BoundedExpiringMap(int maxEntries, Duration defaultTtl, boolean leastRecentlyUsedEviction, LongSupplier nanoClock) {
+        if (maxEntries < SEGMENT_COUNT) {
+            throw new IllegalArgumentException("maxEntries must be at least " + SEGMENT_COUNT);
+        }
+        this.defaultTtlNanos = defaultTtl.toNanos();
+        this.nanoClock = nanoClock;
+        this.segments = new BoundedExpiringMap.Segment[SEGMENT_COUNT];
+        int segmentCapacity = maxEntries / SEGMENT_COUNT;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity, leastRecentlyUsedEviction);
+        }
+    }
+
+    /**
+     * Stores a value with the default time to live, replacing any previous value for the key.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     */
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Stores a value with the given time to live, replacing any previous value for the key.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param ttl
+     *            how long the entry stays readable
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        long now = nanoClock.getAsLong();
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.purgeExpired(now);
+            segment.remove(key);
+            segment.put(key, new ExpiringValue<>(value, now + ttlNanos));
+        }
+    }
+
+    /**
+     * Returns the live value for the key, if any.
+     *
+     * @param key
+     *            the key
+     * @return the value, or null if absent or expired
+     */
+    public V get(K key) {
+        long now = nanoClock.getAsLong();
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            ExpiringValue<V> entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                segment.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    /**
+     * Removes the entry for the key.
+     *
+     * @param key
+     *            the key
+     * @return the removed live value, or null if absent or expired
+     */
+    public V remove(K key) {
+        long now = nanoClock.getAsLong();
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            ExpiringValue<V> entry = segment.remove(key);
+            if (entry == null || entry.isExpired(now)) {
+                return null;
+            }
+            return entry.value();
+        }
+    }
+
+    /**
+     * Returns the number of entries currently held, including expired entries not yet purged.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    /**
+     * Registers size, hit, miss and eviction meters for this map.
+     *
+     * @param registry
+     *            the meter registry
+     * @param metricPrefix
+     *            the prefix of the meter names
+     * @param tags
+     *            tag key/value pairs added to every meter
+     */
+    public void bindTo(MeterRegistry registry, String metricPrefix, String... tags) {
+        Gauge.builder(metricPrefix + ".size", this, BoundedExpiringMap::size).tags(tags).register(registry);
+        FunctionCounter.builder(metricPrefix + ".hits", this, BoundedExpiringMap::getHitCount).tags(tags).register(registry);
+        FunctionCounter.builder(metricPrefix + ".misses", this, BoundedExpiringMap::getMissCount).tags(tags).register(registry);
+        FunctionCounter.builder(metricPrefix + ".evictions", this, BoundedExpiringMap::getEvictionCount).tags(tags)
+                .tag("cause", "size").register(registry);
+        FunctionCounter.builder(metricPrefix + ".evictions", this, BoundedExpiringMap::getExpirationCount).tags(tags)
+                .tag("cause", "expired").register(registry);
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENT_COUNT - 1)];
+    }
+
+    private record ExpiringValue<V>(V value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private record Expiry<K, V>(K key, ExpiringValue<V> value) {
+    }
+
+    private final class Segment extends LinkedHashMap<K, ExpiringValue<V>> {
+
+        private final int capacity;
+        // One element per stored value, including the ones since replaced or removed, soonest expiry first
+        private final PriorityQueue<Expiry<K, V>> expiries = new PriorityQueue<>(
+                (a, b) -> Long.signum(a.value().expiresAtNanos() - b.value().expiresAtNanos()));
+
+        Segment(int capacity, boolean accessOrder) {
+            super(Math.max(16, capacity / 4), 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        void purgeExpired(long now) {
+            Expiry<K, V> head = expiries.peek();
+            while (head != null && head.value().isExpired(now)) {
+                expiries.poll();
+                // Only drops the entry if it still holds this value, leaving the access order untouched
+                if (super.remove(head.key(), head.value())) {
+                    expirations.increment();
+                }
+                head = expiries.peek();
+            }
+        }
+
+        @Override
+        public ExpiringValue<V> put(K key, ExpiringValue<V> value) {
+            ExpiringValue<V> previous = super.put(key, value);
+            expiries.add(new Expiry<>(key, value));
+            if (expiries.size() > 2 * capacity + SEGMENT_COUNT) {
+                compactExpiries();
+            }
+            return previous;
+        }
+
+        /**
+         * Drops the queued expiries of values that were replaced, removed or evicted before expiring.
+         */
+        private void compactExpiries() {
+            expiries.clear();
+            for (Map.Entry<K, ExpiringValue<V>> entry : entrySet()) {
+                expiries.add(new Expiry<>(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, ExpiringValue<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.mifos.connector.tnm.util;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor starting a new thread for each task, with the limits of a thread pool.
+ * <p>
+ * Meant for virtual threads, which are cheap to start but must not run an unbounded amount of blocking work at once:
+ * at most {@code maxConcurrency} tasks run at once, the others wait on a semaphore, and once {@code maxQueued} tasks
+ * are waiting new tasks are either run by the caller or rejected with a {@link RejectedExecutionException}, like the
+ * caller runs and abort policies of a thread pool.
+ * </p>
+ */
+public class BoundedThreadPerTaskExecutor extends AbstractExecutorService {
+
+    private final String name;
+    private final ThreadFactory threadFactory;
+    private final Semaphore running;
+    private final int maxTasks;
+    private final boolean callerRunsWhenFull;
+    private final AtomicInteger tasks = new AtomicInteger();
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final Object termination = new Object();
+    private volatile boolean shutdown;
+
+    /**
+     * Creates the executor.
+     *
+     * @param name
+     *            the name of the executor, used in rejection messages
+     * @param threadFactory
+     *            creates the thread of each task
+     * @param maxConcurrency
+     *            the number of tasks running at once
+     * @param maxQueued
+     *            the number of tasks waiting for one of the running ones to complete, {@link Integer#MAX_VALUE} for no
+     *            limit
+     * @param callerRunsWhenFull
+     *            whether a task above the limits is run by the caller rather than rejected
+     */
+    public BoundedThreadPerTaskExecutor(String name, ThreadFactory threadFactory, int maxConcurrency, int maxQueued,
+            boolean callerRunsWhenFull) {
+        if (maxConcurrency < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1 and maxQueued positive");
+        }
+        this.name = name;
+        this.threadFactory = threadFactory;
+        this.running = new Semaphore(maxConcurrency);
+        this.maxTasks = (int) Math.min(Integer.MAX_VALUE, (long) maxConcurrency + maxQueued);
+        this.callerRunsWhenFull = callerRunsWhenFull;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor " + name + " is shut down");
+        }
+        if (tasks.incrementAndGet() > maxTasks) {
+            finished();
+            if (callerRunsWhenFull) {
+                task.run();
+                return;
+            }
+            throw new RejectedExecutionException("Executor " + name + " is full, " + maxTasks + " tasks running or waiting");
+        }
+        Thread thread;
+        try {
+            thread = threadFactory.newThread(() -> run(task));
+        } catch (RuntimeException ex) {
+            finished();
+            throw ex;
+        }
+        if (thread == null) {
+            finished();
+            throw new RejectedExecutionException("Executor " + name + " could not create a thread");
+        }
+        thread.start();
+    }
+
+    public int getTaskCount() {
+        return tasks.get();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        signalIfTerminated();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        threads.forEach(Thread::interrupt);
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && tasks.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (termination) {
+            while (!isTerminated()) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                termination.wait(remainingMillis);
+            }
+            return true;
+        }
+    }
+
+    private void run(Runnable task) {
+        Thread thread = Thread.currentThread();
+        threads.add(thread);
+        try {
+            running.acquire();
+        } catch (InterruptedException ex) {
+            // Interrupted by shutdownNow while waiting, the task never runs
+            threads.remove(thread);
+            finished();
+            return;
+        }
+        try {
+            task.run();
+        } finally {
+            running.release();
+            threads.remove(thread);
+            finished();
+        }
+    }
+
+    private void finished() {
+        if (tasks.decrementAndGet() == 0) {
+            signalIfTerminated();
+        }
+    }
+
+    private void signalIfTerminated() {
+        if (isTerminated()) {
+            synchronized (termination) {
+                termination.notifyAll();
+            }
+        }
+    }
+}
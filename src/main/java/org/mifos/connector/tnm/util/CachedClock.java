@@ -0,0 +1,77 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Clock caching the encodings of the current time used in requests and workflow variables.
+ * <p>
+ * The ISO date time is encoded again only when the millisecond changes, and the compact {@code yyyyMMddHHmmss} number
+ * only when the second changes, so that concurrent requests within the same tick share one encoding. Each cache is a
+ * single immutable entry published through a volatile field, readers never lock.
+ * </p>
+ */
+public final class CachedClock {
+
+    private static final DateTimeFormatter ISO_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static final CachedClock SYSTEM = new CachedClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Encoded isoDateTime = new Encoded(Long.MIN_VALUE, null, 0L);
+    private volatile Encoded compactDateTime = new Encoded(Long.MIN_VALUE, null, 0L);
+
+    CachedClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the clock of the system default time zone.
+     *
+     * @return {@link CachedClock}
+     */
+    public static CachedClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * Returns the current time formatted as {@code yyyy-MM-dd'T'HH:mm:ss.SSSXXX}.
+     *
+     * @return the ISO date time
+     */
+    public String isoDateTime() {
+        long millis = clock.millis();
+        Encoded cached = isoDateTime;
+        if (cached.tick() != millis) {
+            cached = new Encoded(millis, ISO_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone())), 0L);
+            isoDateTime = cached;
+        }
+        return cached.text();
+    }
+
+    /**
+     * Returns the current local time as the number {@code yyyyMMddHHmmss}.
+     *
+     * @return the compact date time
+     */
+    public long compactDateTime() {
+        long second = Math.floorDiv(clock.millis(), 1000L);
+        Encoded cached = compactDateTime;
+        if (cached.tick() != second) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), clock.getZone());
+            long value = ((((now.getYear() * 100L + now.getMonthValue()) * 100L + now.getDayOfMonth()) * 100L + now.getHour()) * 100L
+                    + now.getMinute()) * 100L + now.getSecond();
+            cached = new Encoded(second, null, value);
+            compactDateTime = cached;
+        }
+        return cached.number();
+    }
+
+    public long millis() {
+        return clock.millis();
+    }
+
+    private record Encoded(long tick, String text, long number) {}
+}
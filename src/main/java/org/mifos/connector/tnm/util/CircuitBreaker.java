@@ -0,0 +1,173 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count based circuit breaker guarding the calls to a downstream system.
+ * <p>
+ * The outcome of the last calls is kept in a fixed size window. Once it holds enough calls, the breaker opens when the
+ * share of failed calls or the share of slow calls reaches its threshold, and rejects every call while open. After the
+ * open duration a few trial calls are let through: the breaker closes if they are healthy and opens again otherwise.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final Config config;
+    private final LongSupplier nanoClock;
+    private final TransitionListener listener;
+    private final byte[] outcomes;
+
+    private State state = State.CLOSED;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAtNanos;
+    private int trialPermits;
+    private long rejected;
+
+    public CircuitBreaker(String name, Config config, TransitionListener listener) {
+        this(name, config, listener, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, Config config, TransitionListener listener, LongSupplier nanoClock) {
+        if (config.windowSize() < config.minimumCalls() || config.windowSize() < config.trialCalls()) {
+            throw new IllegalArgumentException("windowSize must hold at least minimumCalls and trialCalls outcomes");
+        }
+        this.name = name;
+        this.config = config;
+        this.listener = listener;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[config.windowSize()];
+    }
+
+    /**
+     * Asks for the permission to call the downstream system. Every permitted call must report its outcome with
+     * {@link #onResult(long, boolean)}.
+     *
+     * @return true if the call may proceed, false if the breaker rejects it
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= config.openDuration().toNanos()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && trialPermits > 0) {
+            trialPermits--;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param durationNanos
+     *            how long the call took
+     * @param failed
+     *            whether the call failed
+     */
+    public synchronized void onResult(long durationNanos, boolean failed) {
+        if (state == State.OPEN) {
+            // Started before the breaker opened
+            return;
+        }
+        byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= config.slowCallDuration().toNanos() ? SLOW : 0));
+        if (recorded == outcomes.length) {
+            forget(outcomes[next]);
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (state == State.CLOSED && recorded >= config.minimumCalls() && isUnhealthy()) {
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN && recorded >= config.trialCalls()) {
+            transitionTo(isUnhealthy() ? State.OPEN : State.CLOSED);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    private boolean isUnhealthy() {
+        return failures >= config.failureRateThreshold() * recorded || slowCalls >= config.slowCallRateThreshold() * recorded;
+    }
+
+    private void forget(byte outcome) {
+        failures -= outcome & FAILED;
+        slowCalls -= (outcome & SLOW) >> 1;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        if (target == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        } else if (target == State.HALF_OPEN) {
+            trialPermits = config.trialCalls();
+        }
+        listener.onTransition(this, previous, target);
+    }
+
+    /**
+     * State of a circuit breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Settings of a circuit breaker.
+     *
+     * @param windowSize
+     *            number of call outcomes kept
+     * @param minimumCalls
+     *            number of outcomes needed before the breaker may open
+     * @param failureRateThreshold
+     *            share of failed calls, between 0 and 1, opening the breaker
+     * @param slowCallDuration
+     *            duration from which a call is slow
+     * @param slowCallRateThreshold
+     *            share of slow calls, between 0 and 1, opening the breaker
+     * @param openDuration
+     *            how long the breaker rejects calls before trying again
+     * @param trialCalls
+     *            number of calls let through to decide whether to close the breaker
+     */
+    public record Config(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallDuration,
+            double slowCallRateThreshold, Duration openDuration, int trialCalls) {}
+
+    /**
+     * Notified of the state changes of a circuit breaker, while holding its lock.
+     */
+    @FunctionalInterface
+    public interface TransitionListener {
+
+        void onTransition(CircuitBreaker breaker, State from, State to);
+    }
+}
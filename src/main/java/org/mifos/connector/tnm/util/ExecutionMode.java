@@ -0,0 +1,118 @@
+package org.mifos.connector.tnm.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether blocking work runs on platform thread pools or on virtual threads.
+ * <p>
+ * Virtual threads are opt-in and only used when the JDK running the connector provides them. They are looked up
+ * reflectively, so the connector still builds and runs on a JDK without them, in which case it falls back to platform
+ * threads. Executors on virtual threads are bounded like the pools they replace, see
+ * {@link BoundedThreadPerTaskExecutor}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ExecutionMode {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method BUILDER_NAME = findMethod(findClass("java.lang.Thread$Builder"), "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+
+    private final boolean virtualThreads;
+    private final int maxVirtualConcurrency;
+
+    public ExecutionMode(@Value("${execution.virtual-threads:false}") boolean virtualThreadsRequested,
+            @Value("${execution.max-virtual-concurrency:1000}") int maxVirtualConcurrency) {
+        this.virtualThreads = virtualThreadsRequested && isVirtualThreadAvailable();
+        this.maxVirtualConcurrency = maxVirtualConcurrency;
+        if (virtualThreadsRequested && !virtualThreads) {
+            log.warn("Virtual threads were requested but are not available on Java {}, using platform threads",
+                    Runtime.version().feature());
+        } else if (virtualThreads) {
+            log.info("Running blocking work on virtual threads, at most {} tasks at once per executor", maxVirtualConcurrency);
+        }
+    }
+
+    /**
+     * Checks whether the running JDK provides virtual threads.
+     *
+     * @return true if virtual threads can be created
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getMaxVirtualConcurrency() {
+        return maxVirtualConcurrency;
+    }
+
+    /**
+     * Creates an executor for blocking work, queueing the tasks above its limit.
+     *
+     * @param threadNamePrefix
+     *            the prefix of the thread names
+     * @param platformThreads
+     *            the size of the pool used when running on platform threads
+     * @return a bounded virtual thread per task executor, or a fixed platform thread pool
+     */
+    public ExecutorService newExecutor(String threadNamePrefix, int platformThreads) {
+        if (virtualThreads) {
+            return new BoundedThreadPerTaskExecutor(threadNamePrefix, newVirtualThreadFactory(threadNamePrefix), maxVirtualConcurrency,
+                    Integer.MAX_VALUE, false);
+        }
+        return Executors.newFixedThreadPool(platformThreads, new CustomizableThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * Creates a factory of virtual threads.
+     *
+     * @param threadNamePrefix
+     *            the prefix of the thread names, followed by a counter
+     * @return {@link ThreadFactory}
+     * @throws IllegalStateException
+     *             if the running JDK does not provide virtual threads
+     */
+    public static ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        if (!isVirtualThreadAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available on Java " + Runtime.version().feature());
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), threadNamePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException ex) {
+            throw new IllegalStateException("Unable to create a virtual thread factory", ex);
+        }
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.mifos.connector.tnm.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
+import org.mifos.connector.common.gsma.dto.GsmaTransfer;
+import org.mifos.connector.tnm.dto.ChannelValidationRequestDto;
+import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
+import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
+
+/**
+ * Holds the Jackson configurations of the connector, and readers and writers bound to the DTOs on the request path.
+ * <p>
+ * Readers and writers are immutable and thread-safe. Binding them once to their type skips the root type resolution
+ * done by every {@link ObjectMapper#readValue} and {@link ObjectMapper#writeValueAsString} call.
+ * </p>
+ * <p>
+ * Two configurations are kept apart, as they shape different payloads: the shared mapper serializes the channel
+ * payloads built by hand, null fields included, while {@link #newBeanMapper()} configures the Spring bean used by the
+ * Camel Jackson data format, which omits them. The readers of the PayBill routes follow the bean configuration, as the
+ * routes used to unmarshal with it.
+ * </p>
+ */
+public final class JsonMappers {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false).configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    private static final ObjectMapper ROUTE_MAPPER = newBeanMapper();
+
+    public static final ObjectReader PAY_REQUEST_READER = ROUTE_MAPPER.readerFor(TnmPayBillPayRequestDto.class);
+    public static final ObjectReader VALIDATION_RESPONSE_READER = ROUTE_MAPPER.readerFor(PayBillValidationResponseDto.class);
+    public static final ObjectWriter VALIDATION_RESPONSE_WRITER = MAPPER.writerFor(PayBillValidationResponseDto.class);
+    public static final ObjectReader TRANSACTION_STATUS_READER = ROUTE_MAPPER.readerFor(TransactionStatusResponseDTO.class);
+    public static final ObjectWriter GSMA_TRANSFER_WRITER = MAPPER.writerFor(GsmaTransfer.class);
+    public static final ObjectWriter CHANNEL_VALIDATION_REQUEST_WRITER = MAPPER.writerFor(ChannelValidationRequestDto.class);
+
+    private JsonMappers() {
+        // Hide the constructor
+    }
+
+    /**
+     * Returns the shared object mapper. It must not be reconfigured, as the readers and writers above are derived from
+     * it.
+     *
+     * @return {@link ObjectMapper}
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Creates a mapper configured like the object mapper bean: null fields are omitted and single values are accepted
+     * for arrays.
+     *
+     * @return a new {@link ObjectMapper}
+     */
+    public static ObjectMapper newBeanMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        return objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -0,0 +1,108 @@
+package org.mifos.connector.tnm.util;
+
+import static org.mifos.connector.tnm.util.TnmConstant.ACCOUNT_EXISTS_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.ACCOUNT_NOT_FOUND_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.PAYMENT_SUCCESSFUL_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.TOO_MANY_REQUESTS_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.TRANSACTION_NOT_FOUND_MESSAGE;
+
+import java.nio.charset.StandardCharsets;
+import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
+import org.mifos.connector.common.mojaloop.type.TransferState;
+
+/**
+ * Pre-encoded bodies of the fixed-shape PayBill responses.
+ * <p>
+ * Each method produces the same JSON as the matching builder in {@link TnmUtils}, field order included. Shapes without
+ * a template, such as a missing client name, fall back to those builders.
+ * </p>
+ */
+public final class PayBillResponseTemplates {
+
+    private static final byte[] VALIDATION_FAILED = ResponseTemplate
+            .compile("{\"status\":404,\"message\":\"" + ACCOUNT_NOT_FOUND_MESSAGE + "\"}").render();
+    private static final ResponseTemplate VALIDATION_FAILED_WITH_REFERENCE = ResponseTemplate.compile("{\"status\":404,\"message\":\""
+            + ACCOUNT_NOT_FOUND_MESSAGE + "\",\"oafTransactionReference\":\"{{oafTransactionReference}}\"}");
+    private static final ResponseTemplate VALIDATION_SUCCESS = ResponseTemplate.compile("{\"status\":200,\"message\":\""
+            + ACCOUNT_EXISTS_MESSAGE + "\",\"oafTransactionReference\":\"{{oafTransactionReference}}\",\"clientName\":\"{{clientName}}\"}");
+    private static final byte[] TRANSACTION_NOT_FOUND_BODY = ResponseTemplate
+            .compile("{\"status\":404,\"message\":\"" + TRANSACTION_NOT_FOUND_MESSAGE + "\"}").render();
+    private static final ResponseTemplate TRANSACTION_PENDING = ResponseTemplate.compile(
+            "{\"receipt_number\":\"{{receipt_number}}\",\"trans_id\":\"{{trans_id}}\",\"status\":404,\"message\":\""
+                    + TRANSACTION_NOT_FOUND_MESSAGE + "\"}");
+    private static final ResponseTemplate TRANSACTION_PAID = ResponseTemplate.compile(
+            "{\"receipt_number\":\"{{receipt_number}}\",\"trans_id\":\"{{trans_id}}\",\"status\":200,\"message\":\""
+                    + PAYMENT_SUCCESSFUL_MESSAGE + "\"}");
+    private static final byte[] TOO_MANY_REQUESTS = ResponseTemplate
+            .compile("{\"status\":429,\"message\":\"" + TOO_MANY_REQUESTS_MESSAGE + "\"}").render();
+    private static final ResponseTemplate PAY_SUCCESS = ResponseTemplate
+            .compile("{\"status\":200,\"message\":\"" + PAYMENT_SUCCESSFUL_MESSAGE + "\",\"receipt_number\":\"{{receipt_number}}\"}");
+
+    private PayBillResponseTemplates() {
+        // Hide the constructor
+    }
+
+    /**
+     * Renders the PayBill validation response.
+     *
+     * @param reconciled
+     *            the reconciled flag
+     * @param transactionId
+     *            the transaction id
+     * @param clientName
+     *            the client name
+     * @return the response body
+     * @see TnmUtils#buildPayBillValidationResponse(Boolean, String, String)
+     */
+    public static byte[] validationResponse(Boolean reconciled, String transactionId, String clientName) {
+        if (!Boolean.TRUE.equals(reconciled)) {
+            return transactionId == null ? VALIDATION_FAILED.clone() : VALIDATION_FAILED_WITH_REFERENCE.render(transactionId);
+        }
+        if (transactionId != null && clientName != null) {
+            return VALIDATION_SUCCESS.render(transactionId, clientName);
+        }
+        return TnmUtils.buildPayBillValidationResponse(reconciled, transactionId, clientName).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders the PayBill transaction status response.
+     *
+     * @param successful
+     *            the success flag
+     * @param response
+     *            the channel response
+     * @return the response body
+     * @see TnmUtils#buildPayBillTransactionResponseResponse(boolean, Object)
+     */
+    public static byte[] transactionResponse(boolean successful, Object response) {
+        if (!successful || !(response instanceof TransactionStatusResponseDTO responseDto)) {
+            return TRANSACTION_NOT_FOUND_BODY.clone();
+        }
+        if (responseDto.getTransferId() != null && responseDto.getTransactionId() != null) {
+            ResponseTemplate template = TransferState.COMMITTED.equals(responseDto.getTransferState()) ? TRANSACTION_PAID
+                    : TRANSACTION_PENDING;
+            return template.render(responseDto.getTransferId(), responseDto.getTransactionId());
+        }
+        return TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Renders the successful PayBill pay response.
+     *
+     * @param receiptNumber
+     *            the OAF transaction reference returned as receipt number
+     * @return the response body
+     */
+    public static byte[] payResponse(String receiptNumber) {
+        return PAY_SUCCESS.render(receiptNumber);
+    }
+
+    /**
+     * Renders the response to a request rejected by the rate limits.
+     *
+     * @return the response body
+     */
+    public static byte[] tooManyRequestsResponse() {
+        return TOO_MANY_REQUESTS.clone();
+    }
+}
@@ -0,0 +1,259 @@
+package org.mifos.connector.tnm.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded ingestion stage running tasks of several priority lanes on a shared executor.
+ * <p>
+ * Each lane queues its tasks, and at most {@code maxConcurrency} tasks run on the shared executor at once, always taken
+ * from the highest priority lane holding one. A lane sheds new tasks with a {@link RejectedExecutionException} once the
+ * tasks queued in all lanes reach its high-water mark, so giving lower priority lanes lower marks sheds their work
+ * first as the backlog grows, while the higher priority lanes keep being admitted.
+ * </p>
+ * <p>
+ * A queued task only reaches the shared executor later, so a rejection by the shared executor cannot be thrown back to
+ * the caller. Tasks submitted through {@link #supplyAsync(Supplier, Executor)} or {@link #runAsync(Runnable, Executor)}
+ * then fail their future with the {@link RejectedExecutionException}, other tasks are dropped.
+ * </p>
+ */
+@Slf4j
+public class PriorityLaneExecutor implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.ingestion";
+
+    private final String name;
+    private final Executor workers;
+    private final int maxConcurrency;
+    private final Lane[] lanes;
+
+    private int queued;
+    private int running;
+
+    /**
+     * Creates the ingestion stage.
+     *
+     * @param name
+     *            the name of the stage, used as meter tag
+     * @param workers
+     *            the executor running the tasks
+     * @param maxConcurrency
+     *            the number of tasks running at once, at most the number of worker threads
+     * @param lanes
+     *            the lanes, highest priority first
+     */
+    public PriorityLaneExecutor(String name, Executor workers, int maxConcurrency, List<LaneSpec> lanes) {
+        if (maxConcurrency < 1 || lanes.isEmpty()) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1 and at least one lane is needed");
+        }
+        this.name = name;
+        this.workers = workers;
+        this.maxConcurrency = maxConcurrency;
+        this.lanes = lanes.stream().map(Lane::new).toArray(Lane[]::new);
+    }
+
+    /**
+     * Returns the executor queueing tasks in a lane.
+     *
+     * @param laneName
+     *            the lane name
+     * @return {@link Executor}
+     * @throws IllegalArgumentException
+     *             if there is no such lane
+     */
+    public Executor lane(String laneName) {
+        for (Lane lane : lanes) {
+            if (lane.spec.name().equals(laneName)) {
+                return lane;
+            }
+        }
+        throw new IllegalArgumentException("No ingestion lane named " + laneName);
+    }
+
+    /**
+     * Runs a supplier in a lane, like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, except that the returned
+     * future also fails when the shared executor rejects the queued task.
+     *
+     * @param supplier
+     *            the supplier
+     * @param lane
+     *            the lane, see {@link #lane(String)}
+     * @param <T>
+     *            the type of the result
+     * @return the result
+     * @throws RejectedExecutionException
+     *             if the lane sheds the task
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor lane) {
+        LaneTask<T> task = new LaneTask<>(supplier);
+        lane.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Runs a task in a lane, like {@link CompletableFuture#runAsync(Runnable, Executor)}, except that the returned future
+     * also fails when the shared executor rejects the queued task.
+     *
+     * @param runnable
+     *            the task
+     * @param lane
+     *            the lane, see {@link #lane(String)}
+     * @return completes once the task ran
+     * @throws RejectedExecutionException
+     *             if the lane sheds the task
+     */
+    public static CompletableFuture<Void> runAsync(Runnable runnable, Executor lane) {
+        return supplyAsync(() -> {
+            runnable.run();
+            return null;
+        }, lane);
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".running", this, PriorityLaneExecutor::getRunningCount).tag("ingestion", name)
+                .description("Tasks running on the shared executor").register(registry);
+        for (Lane lane : lanes) {
+            Gauge.builder(METRIC_PREFIX + ".queued", lane, Lane::getQueuedCount).tag("ingestion", name).tag("lane", lane.spec.name())
+                    .description("Tasks waiting in the lane").register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".shed", lane, Lane::getShedCount).tag("ingestion", name)
+                    .tag("lane", lane.spec.name()).description("Tasks rejected because the backlog passed the lane high-water mark")
+                    .register(registry);
+        }
+    }
+
+    private void submit(Lane lane, Runnable task) {
+        synchronized (this) {
+            if (queued >= lane.spec.highWaterMark()) {
+                lane.shed.increment();
+                throw new RejectedExecutionException(
+                        "Ingestion lane " + name + "/" + lane.spec.name() + " is shedding load, " + queued + " tasks queued");
+            }
+            lane.tasks.add(task);
+            queued++;
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (true) {
+            Runnable next = null;
+            synchronized (this) {
+                if (running >= maxConcurrency) {
+                    return;
+                }
+                for (Lane lane : lanes) {
+                    next = lane.tasks.poll();
+                    if (next != null) {
+                        break;
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+                queued--;
+                running++;
+            }
+            Runnable task = next;
+            try {
+                workers.execute(() -> run(task));
+            } catch (RejectedExecutionException ex) {
+                synchronized (this) {
+                    running--;
+                }
+                if (task instanceof LaneTask<?> laneTask) {
+                    log.warn("Failing a task of ingestion {}, its executor rejected it: {}", name, ex.getMessage());
+                    laneTask.future.completeExceptionally(ex);
+                } else {
+                    log.warn("Dropping a task of ingestion {}, its executor rejected it: {}", name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            synchronized (this) {
+                running--;
+            }
+            dispatch();
+        }
+    }
+
+    /**
+     * Lane of the ingestion stage.
+     *
+     * @param name
+     *            the lane name
+     * @param highWaterMark
+     *            the number of tasks queued in all lanes from which the lane sheds new tasks
+     */
+    public record LaneSpec(String name, int highWaterMark) {}
+
+    private static final class LaneTask<T> implements Runnable {
+
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        LaneTask(Supplier<T> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable ex) {
+                // Same failure as CompletableFuture.supplyAsync
+                future.completeExceptionally(ex instanceof CompletionException ? ex : new CompletionException(ex));
+            }
+        }
+    }
+
+    private final class Lane implements Executor {
+
+        private final LaneSpec spec;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final LongAdder shed = new LongAdder();
+
+        Lane(LaneSpec spec) {
+            this.spec = spec;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            submit(this, task);
+        }
+
+        int getQueuedCount() {
+            synchronized (PriorityLaneExecutor.this) {
+                return tasks.size();
+            }
+        }
+
+        long getShedCount() {
+            return shed.sum();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.mifos.connector.tnm.util;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON response body pre-encoded as UTF-8 bytes, with slots for the string values that vary between responses.
+ * <p>
+ * Slots are written as {@code {{name}}} inside a JSON string of the template. Rendering copies the encoded literals and
+ * the escaped slot values into a single array of the exact size, so that no object mapping or intermediate string is
+ * involved.
+ * </p>
+ */
+public final class ResponseTemplate {
+
+    private static final String SLOT_START = "{{";
+    private static final String SLOT_END = "}}";
+
+    private final byte[][] literals;
+    private final List<String> slots;
+
+    private ResponseTemplate(byte[][] literals, List<String> slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param template
+     *            the JSON body, with {@code {{name}}} slots
+     * @return {@link ResponseTemplate}
+     */
+    public static ResponseTemplate compile(String template) {
+        List<byte[]> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = template.indexOf(SLOT_START, position)) >= 0) {
+            int end = template.indexOf(SLOT_END, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated slot in template " + template);
+            }
+            literals.add(template.substring(position, start).getBytes(StandardCharsets.UTF_8));
+            slots.add(template.substring(start + SLOT_START.length(), end));
+            position = end + SLOT_END.length();
+        }
+        literals.add(template.substring(position).getBytes(StandardCharsets.UTF_8));
+        return new ResponseTemplate(literals.toArray(byte[][]::new), List.copyOf(slots));
+    }
+
+    /**
+     * Renders the template.
+     *
+     * @param values
+     *            the slot values, in the order the slots appear in the template
+     * @return the response body
+     */
+    public byte[] render(String... values) {
+        if (values.length != slots.size()) {
+            throw new IllegalArgumentException("Expected values for " + slots + " but got " + values.length);
+        }
+        byte[][] encoded = new byte[values.length][];
+        int length = literals[0].length;
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = encode(values[i]);
+            length += encoded[i].length + literals[i + 1].length;
+        }
+        byte[] body = new byte[length];
+        int offset = copy(literals[0], body, 0);
+        for (int i = 0; i < encoded.length; i++) {
+            offset = copy(encoded[i], body, offset);
+            offset = copy(literals[i + 1], body, offset);
+        }
+        return body;
+    }
+
+    public List<String> getSlots() {
+        return slots;
+    }
+
+    private static int copy(byte[] source, byte[] target, int offset) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+
+    private static byte[] encode(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return JsonStringEncoder.getInstance().quoteAsUTF8(value);
+            }
+        }
+        // Printable ASCII needs no escaping and is its own UTF-8 encoding
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
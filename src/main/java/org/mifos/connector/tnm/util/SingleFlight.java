@@ -0,0 +1,88 @@
+package org.mifos.connector.tnm.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls sharing the same key into a single execution.
+ * <p>
+ * The first caller for a key becomes the leader and runs the call; callers arriving while it is in flight become
+ * followers and receive the leader's result, or its failure. Once the call completes the key is released, so the next
+ * caller starts a new execution.
+ * </p>
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the result type
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private static final String METRIC_PREFIX = "tnm.single.flight";
+
+    private final String name;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the call for the key, unless one is already in flight.
+     *
+     * @param key
+     *            the key identifying identical calls
+     * @param call
+     *            starts the call, only invoked by the leader
+     * @return the result of the call shared by the leader and its followers
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            followers.increment();
+            return existing;
+        }
+        leaders.increment();
+        try {
+            call.get().whenComplete((result, failure) -> {
+                inFlight.remove(key, promise);
+                if (failure != null) {
+                    promise.completeExceptionally(failure);
+                } else {
+                    promise.complete(result);
+                }
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(ex);
+        }
+        return promise;
+    }
+
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    public long getFollowerCount() {
+        return followers.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".calls", this, SingleFlight::getLeaderCount).tag("flight", name).tag("role", "leader")
+                .description("Calls executed").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".calls", this, SingleFlight::getFollowerCount).tag("flight", name)
+                .tag("role", "follower").description("Duplicate calls absorbed by an execution already in flight").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".in.flight", inFlight, Map::size).tag("flight", name).register(registry);
+    }
+}
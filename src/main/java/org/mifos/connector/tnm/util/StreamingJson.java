@@ -0,0 +1,145 @@
+package org.mifos.connector.tnm.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.mifos.connector.tnm.dto.ChannelRequestDto;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+
+/**
+ * Writes and reads the small JSON documents of the request path with the Jackson streaming API.
+ * <p>
+ * Documents are generated in a single pass into a per-thread buffer that is reused across calls, and fields are read
+ * without building a tree of the whole document. Null values are omitted.
+ * </p>
+ */
+public final class StreamingJson {
+
+    private static final JsonFactory FACTORY = JsonMappers.mapper().getFactory();
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 4096;
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER_SIZE));
+
+    private StreamingJson() {
+        // Hide the constructor
+    }
+
+    /**
+     * Writes a JSON document.
+     *
+     * @param content
+     *            writes the content of the document
+     * @return the document
+     */
+    public static String write(Content content) {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try (JsonGenerator generator = FACTORY.createGenerator(buffer)) {
+            content.writeTo(generator);
+        } catch (IOException ex) {
+            throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+        }
+        String json = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+        return json;
+    }
+
+    /**
+     * Writes the request sent to the channel connector.
+     *
+     * @param request
+     *            {@link ChannelRequestDto}
+     * @return the request as JSON
+     */
+    public static String writeChannelRequest(ChannelRequestDto request) {
+        return write(generator -> {
+            generator.writeStartObject();
+            writeParty(generator, "payer", request.getPayer());
+            writeParty(generator, "payee", request.getPayee());
+            ChannelRequestDto.Amount amount = request.getAmount();
+            if (amount != null) {
+                generator.writeObjectFieldStart("amount");
+                writeStringField(generator, "amount", amount.getAmount());
+                writeStringField(generator, "currency", amount.getCurrency());
+                generator.writeEndObject();
+            }
+            if (request.getUseWorkflowIdAsTransactionId() != null) {
+                generator.writeBooleanField("useWorkflowIdAsTransactionId", request.getUseWorkflowIdAsTransactionId());
+            }
+            writeStringField(generator, "workflowId", request.getWorkflowId());
+            generator.writeEndObject();
+        });
+    }
+
+    /**
+     * Writes a string field, unless its value is null.
+     *
+     * @param generator
+     *            {@link JsonGenerator}
+     * @param name
+     *            the field name
+     * @param value
+     *            the field value
+     * @throws IOException
+     *             if the field cannot be written
+     */
+    public static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    /**
+     * Reads a top level field of a JSON object as text, without reading the rest of the document.
+     *
+     * @param json
+     *            the JSON object
+     * @param name
+     *            the field name
+     * @return the field value as text, or null if the field is absent, null or not a scalar
+     */
+    public static String readTextField(String json, String name) {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (name.equals(field)) {
+                    return value != null && value.isScalarValue() && value != JsonToken.VALUE_NULL ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException ex) {
+            throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+        }
+    }
+
+    private static void writeParty(JsonGenerator generator, String name, ChannelRequestDto.PartyIdInfo party) throws IOException {
+        if (party == null) {
+            return;
+        }
+        generator.writeObjectFieldStart(name);
+        generator.writeObjectFieldStart("partyIdInfo");
+        writeStringField(generator, "partyIdType", party.getPartyIdType());
+        writeStringField(generator, "partyIdentifier", party.getPartyIdentifier());
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the content of a JSON document.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        void writeTo(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,61 @@
+package org.mifos.connector.tnm.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered identifiers laid out as version 7 UUIDs.
+ * <p>
+ * The 48 most significant bits hold the Unix time in milliseconds, followed by the version, 12 random bits, the IETF
+ * variant and 62 random bits. The identifiers are handed out to TNM as transaction references, so the random bits come
+ * from a {@link SecureRandom} like those of {@link UUID#randomUUID()}. Each thread has its own DRBG instance: the
+ * default NativePRNG of Linux serializes every call of every instance on one global lock, which a per-thread DRBG
+ * only takes for its seed.
+ * </p>
+ */
+public final class TimeOrderedIds {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_IETF = 0x8000000000000000L;
+    private static final long RANDOM_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final int RANDOM_BYTES = 10;
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(TimeOrderedIds::newRandom);
+
+    private TimeOrderedIds() {
+        // Hide the constructor
+    }
+
+    /**
+     * Generates an identifier for the current time.
+     *
+     * @return the identifier, in the canonical UUID form
+     */
+    public static String next() {
+        return next(System::currentTimeMillis).toString();
+    }
+
+    static UUID next(LongSupplier millisClock) {
+        // One call for all the random bits, each call of a DRBG pays for a full generation round
+        byte[] random = new byte[RANDOM_BYTES];
+        RANDOM.get().nextBytes(random);
+        long randomA = ((random[0] & 0xFFL) << 8 | (random[1] & 0xFFL)) & 0x0FFFL;
+        long randomB = 0;
+        for (int i = 2; i < RANDOM_BYTES; i++) {
+            randomB = randomB << 8 | (random[i] & 0xFFL);
+        }
+        long mostSigBits = (millisClock.getAsLong() << 16) | VERSION_7 | randomA;
+        long leastSigBits = VARIANT_IETF | (randomB & RANDOM_B_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every JDK since 9 provides DRBG
+            throw new IllegalStateException("No DRBG SecureRandom available", ex);
+        }
+    }
+}
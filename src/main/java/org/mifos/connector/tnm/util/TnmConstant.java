@@ -17,4 +17,8 @@ public class TnmConstant {
     public static final String JSON_PARSE_EXCEPTION_CLIENT_MESSAGE = "Internal error while processing the request. Please try again later.";
     public static final String THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE = "Internal systems are not available. Please try again later.";
     public static final String PAYMENT_SUCCESSFUL_MESSAGE = "Payment successful";
+    public static final String ACCOUNT_EXISTS_MESSAGE = "Account exists";
+    public static final String ACCOUNT_NOT_FOUND_MESSAGE = "Account does not exists or payment not allowed";
+    public static final String TRANSACTION_NOT_FOUND_MESSAGE = "Transaction not found";
+    public static final String TOO_MANY_REQUESTS_MESSAGE = "Too many requests. Please try again later.";
 }
@@ -8,22 +8,19 @@ import static org.mifos.connector.tnm.camel.config.CamelProperties.SECONDARY_IDE
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_PAY_REQUEST_PAY_WAIT_PERIOD;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_TRX_ID;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_VALIDATION_REQUEST_PAYLOAD;
+import static org.mifos.connector.tnm.util.TnmConstant.ACCOUNT_EXISTS_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.ACCOUNT_NOT_FOUND_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.PAYMENT_SUCCESSFUL_MESSAGE;
+import static org.mifos.connector.tnm.util.TnmConstant.TRANSACTION_NOT_FOUND_MESSAGE;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.CURRENCY;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.PARTY_LOOKUP_FAILED;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.TRANSACTION_ID;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
 import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
 import org.mifos.connector.common.gsma.dto.CustomData;
 import org.mifos.connector.common.gsma.dto.GsmaTransfer;
@@ -49,15 +46,11 @@ public class TnmUtils {
     /**
      * Get the object mapper.
      *
-     * @return {@link ObjectMapper}
+     * @return the shared {@link ObjectMapper}
      */
     // TODO: Move to ph-ee-connector-common
     public static ObjectMapper getObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        return mapper;
+        return JsonMappers.mapper();
     }
 
     /**
@@ -131,9 +124,7 @@ public class TnmUtils {
 
         GsmaTransfer gsmaTransfer = new GsmaTransfer();
         List<CustomData> customData = setCustomData(paybillValidationResponseDto, clientCorrelationId, tnmpayRequestWaitPeriod);
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
-
-        String currentDateTime = formatter.format(new Date());
+        String currentDateTime = CachedClock.system().isoDateTime();
 
         gsmaTransfer.setCustomData(customData);
         gsmaTransfer.setRequestDate(currentDateTime);
@@ -191,7 +182,7 @@ public class TnmUtils {
 
         CustomData validationPayload = new CustomData();
         validationPayload.setKey(TNM_VALIDATION_REQUEST_PAYLOAD);
-        validationPayload.setValue(getObjectMapper().writeValueAsString(payBillValidationResponseDto));
+        validationPayload.setValue(JsonMappers.VALIDATION_RESPONSE_WRITER.writeValueAsString(payBillValidationResponseDto));
 
         CustomData transferCode = new CustomData();
         transferCode.setKey(PAYBILL_TRANSFER_CODE);
@@ -224,25 +215,11 @@ public class TnmUtils {
      */
     public static ChannelRequestDto convertPayBillToChannelPayload(TnmPayBillPayRequestDto payBillConfirmationRequestDto, String amsName,
             String currency) {
-        JSONObject payer = new JSONObject();
-
-        JSONObject partyIdInfoPayer = new JSONObject();
-        partyIdInfoPayer.put("partyIdType", SECONDARY_IDENTIFIER_NAME);
-        partyIdInfoPayer.put("partyIdentifier", payBillConfirmationRequestDto.getMsisdn());
-
-        payer.put("partyIdInfo", partyIdInfoPayer);
-
-        JSONObject payee = new JSONObject();
-        JSONObject partyIdInfoPayee = new JSONObject();
-
-        partyIdInfoPayee.put("partyIdType", getPrimaryIdentifierName(amsName));
-        partyIdInfoPayee.put("partyIdentifier", payBillConfirmationRequestDto.getAccountNumber());
-
-        payee.put("partyIdInfo", partyIdInfoPayee);
-
-        JSONObject amount = new JSONObject();
-        amount.put("amount", payBillConfirmationRequestDto.getTransactionAmount());
-        amount.put("currency", currency);
+        ChannelRequestDto.PartyIdInfo payer = new ChannelRequestDto.PartyIdInfo(SECONDARY_IDENTIFIER_NAME,
+                payBillConfirmationRequestDto.getMsisdn());
+        ChannelRequestDto.PartyIdInfo payee = new ChannelRequestDto.PartyIdInfo(getPrimaryIdentifierName(amsName),
+                payBillConfirmationRequestDto.getAccountNumber());
+        ChannelRequestDto.Amount amount = new ChannelRequestDto.Amount(payBillConfirmationRequestDto.getTransactionAmount(), currency);
 
         return new ChannelRequestDto(payer, payee, amount, null, null);
     }
@@ -269,10 +246,10 @@ public class TnmUtils {
     /**
      * Generate the transaction identifier.
      *
-     * @return the transaction id
+     * @return the transaction id, a time-ordered UUID
      */
     public static String generateWorkflowId() {
-        return UUID.randomUUID().toString();
+        return TimeOrderedIds.next();
     }
 
     /**
@@ -284,18 +261,20 @@ public class TnmUtils {
      *            the transaction id
      * @param clientName
      *            the client name
-     * @return the PayBill validation response
+     * @return the PayBill validation response as JSON
      */
-    public static JSONObject buildPayBillValidationResponse(Boolean reconciled, String transactionId, String clientName) {
-        JSONObject responseObject = new JSONObject();
+    public static String buildPayBillValidationResponse(Boolean reconciled, String transactionId, String clientName) {
         boolean isReconciled = Boolean.TRUE.equals(reconciled);
-        responseObject.put("status", isReconciled ? 200 : 404);
-        responseObject.put("message", isReconciled ? "Account exists" : "Account does not exists or payment not allowed");
-        responseObject.put("oafTransactionReference", transactionId);
-        if (isReconciled) {
-            responseObject.put("clientName", clientName);
-        }
-        return responseObject;
+        return StreamingJson.write(generator -> {
+            generator.writeStartObject();
+            generator.writeNumberField("status", isReconciled ? 200 : 404);
+            generator.writeStringField("message", isReconciled ? ACCOUNT_EXISTS_MESSAGE : ACCOUNT_NOT_FOUND_MESSAGE);
+            StreamingJson.writeStringField(generator, "oafTransactionReference", transactionId);
+            if (isReconciled) {
+                StreamingJson.writeStringField(generator, "clientName", clientName);
+            }
+            generator.writeEndObject();
+        });
     }
 
     /**
@@ -305,27 +284,23 @@ public class TnmUtils {
      *            the success flag
      * @param response
      *            the response
-     * @return the transaction response as {@link JSONObject}
+     * @return the transaction response as JSON
      */
-    public static JSONObject buildPayBillTransactionResponseResponse(boolean successful, Object response) {
-        JSONObject responseObject = new JSONObject();
-        int status = 404;
-        String message = "Transaction not found";
-        if (successful && response != null && response instanceof TransactionStatusResponseDTO responseDto) {
-            TransferState transferState = responseDto.getTransferState();
-            log.debug("Transfer state: {}", transferState);
-            if (TransferState.COMMITTED.equals(transferState)) {
-                status = 200;
-                message = "Payment successful";
+    public static String buildPayBillTransactionResponseResponse(boolean successful, Object response) {
+        TransactionStatusResponseDTO responseDto = successful && response instanceof TransactionStatusResponseDTO dto ? dto : null;
+        TransferState transferState = responseDto != null ? responseDto.getTransferState() : null;
+        log.debug("Transfer state: {}", transferState);
+        boolean paid = TransferState.COMMITTED.equals(transferState);
+        return StreamingJson.write(generator -> {
+            generator.writeStartObject();
+            if (responseDto != null) {
+                StreamingJson.writeStringField(generator, "receipt_number", responseDto.getTransferId());
+                StreamingJson.writeStringField(generator, "trans_id", responseDto.getTransactionId());
             }
-            responseObject.put("receipt_number", responseDto.getTransferId());
-            responseObject.put("trans_id", responseDto.getTransactionId());
-        }
-
-        responseObject.put("status", status);
-        responseObject.put("message", message);
-
-        return responseObject;
+            generator.writeNumberField("status", paid ? 200 : 404);
+            generator.writeStringField("message", paid ? PAYMENT_SUCCESSFUL_MESSAGE : TRANSACTION_NOT_FOUND_MESSAGE);
+            generator.writeEndObject();
+        });
     }
 
     /**
@@ -0,0 +1,69 @@
+package org.mifos.connector.tnm.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * The bucket is kept as the single time at which it will be full again, so that taking a token is one compare and set
+ * on that time: each token pushes it forward by the refill interval, and a token is refused when it would be pushed
+ * further than the burst size ahead of now.
+ * </p>
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong fullAtNanos;
+
+    /**
+     * Creates a full bucket.
+     *
+     * @param permitsPerSecond
+     *            the refill rate
+     * @param burst
+     *            the number of tokens the bucket holds
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst at least 1");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.fullAtNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return true if a token was taken
+     */
+    public boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire()} for a call that did not go through after all. A bucket that
+     * refilled since is left full.
+     */
+    public void release() {
+        fullAtNanos.addAndGet(-intervalNanos);
+    }
+}
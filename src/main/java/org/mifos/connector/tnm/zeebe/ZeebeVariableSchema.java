@@ -0,0 +1,202 @@
+package org.mifos.connector.tnm.zeebe;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.common.gsma.dto.CustomData;
+import org.mifos.connector.tnm.camel.config.ZeebeProperties;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shapes the variables the connector hands over to Zeebe, directly or through the channel connector.
+ * <p>
+ * Variables are serialized to JSON once, and that payload is reused by every command sending them. Their size is
+ * recorded per process, and so is the length of the custom data that the channel connector turns into variables. When
+ * slimming is enabled, only the variables read by the expressions of the BPMNs on the classpath, plus the ones listed
+ * in {@code zeebe.variables.required} for the job workers, are kept.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ZeebeVariableSchema implements MeterBinder {
+
+    private static final String BPMN_LOCATION = "classpath*:*.bpmn";
+    private static final Pattern EXPRESSION = Pattern.compile("=\"=([^\"]*)\"|>=([^<]*)<");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"[^\"]*\"");
+    private static final Pattern IDENTIFIER = Pattern.compile("(?<![.\\w])[A-Za-z_]\\w*");
+    private static final Set<String> FEEL_KEYWORDS = Set.of("true", "false", "null", "and", "or", "not", "if", "then", "else",
+            "for", "in", "return", "some", "every", "satisfies", "between", "instance", "of", "function");
+
+    private final boolean slim;
+    private final Set<String> readVariables;
+    private final Map<String, ProcessMeters> processMeters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public ZeebeVariableSchema(ZeebeProperties zeebeProperties) {
+        this(zeebeProperties.getVariables().isSlim(), zeebeProperties.getVariables().getRequired(), loadBpmns());
+    }
+
+    ZeebeVariableSchema(boolean slim, Collection<String> required, Collection<String> bpmns) {
+        this.slim = slim;
+        Set<String> variables = new HashSet<>(required);
+        bpmns.forEach(bpmn -> variables.addAll(readVariables(bpmn)));
+        this.readVariables = Set.copyOf(variables);
+        if (slim) {
+            log.info("Sending only the Zeebe variables {}", readVariables.stream().sorted().collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Serializes the variables of a process once.
+     *
+     * @param process
+     *            the BPMN process id
+     * @param variables
+     *            the variables
+     * @return the variables as JSON
+     */
+    public String serialize(String process, Map<String, Object> variables) {
+        Map<String, Object> kept = variables;
+        if (slim) {
+            kept = new LinkedHashMap<>(variables);
+            kept.keySet().retainAll(readVariables);
+            recordDropped(process, variables.size() - kept.size());
+        }
+        try {
+            String json = JsonMappers.mapper().writeValueAsString(kept);
+            ProcessMeters meters = meters(process);
+            if (meters != null) {
+                meters.variablesSize().record(json.length());
+            }
+            return json;
+        } catch (JsonProcessingException ex) {
+            throw new TnmConnectorJsonProcessingException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Shapes the custom data that the channel connector turns into the variables of a process.
+     *
+     * @param process
+     *            the BPMN process id
+     * @param customData
+     *            the custom data
+     * @return the custom data to send
+     */
+    public List<CustomData> customData(String process, List<CustomData> customData) {
+        List<CustomData> kept = customData;
+        if (slim) {
+            kept = customData.stream().filter(data -> readVariables.contains(data.getKey())).collect(Collectors.toList());
+            recordDropped(process, customData.size() - kept.size());
+        }
+        ProcessMeters meters = meters(process);
+        if (meters != null) {
+            // The channel connector serializes these, count their text instead of serializing them a second time
+            meters.customDataSize()
+                    .record(kept.stream().mapToInt(data -> data.getKey().length() + String.valueOf(data.getValue()).length()).sum());
+        }
+        return kept;
+    }
+
+    public boolean isSlim() {
+        return slim;
+    }
+
+    public Set<String> getReadVariables() {
+        return readVariables;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        processMeters.clear();
+    }
+
+    /**
+     * Collects the names of the variables read by the FEEL expressions of a BPMN.
+     *
+     * @param bpmn
+     *            the BPMN XML
+     * @return the variable names
+     */
+    static Set<String> readVariables(String bpmn) {
+        Set<String> variables = new HashSet<>();
+        Matcher expressions = EXPRESSION.matcher(bpmn);
+        while (expressions.find()) {
+            String expression = expressions.group(1) != null ? expressions.group(1) : expressions.group(2);
+            expression = STRING_LITERAL.matcher(expression.replace("&quot;", "\"")).replaceAll("");
+            Matcher identifiers = IDENTIFIER.matcher(expression);
+            while (identifiers.find()) {
+                if (!FEEL_KEYWORDS.contains(identifiers.group())) {
+                    variables.add(identifiers.group());
+                }
+            }
+        }
+        return variables;
+    }
+
+    private static List<String> loadBpmns() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(BPMN_LOCATION);
+            List<String> bpmns = new ArrayList<>(resources.length);
+            for (Resource resource : resources) {
+                try (InputStream stream = resource.getInputStream()) {
+                    bpmns.add(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            return bpmns;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read the BPMNs", ex);
+        }
+    }
+
+    private void recordDropped(String process, int count) {
+        ProcessMeters meters = meters(process);
+        if (meters != null && count > 0) {
+            meters.dropped().increment(count);
+        }
+    }
+
+    /**
+     * Returns the meters of a process, registered on its first use.
+     */
+    private ProcessMeters meters(String process) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null || process == null) {
+            return null;
+        }
+        return processMeters.computeIfAbsent(process, id -> new ProcessMeters(
+                DistributionSummary.builder("tnm.zeebe.variables.size").description("Size of the variables sent to Zeebe").baseUnit("bytes")
+                        .tag("process", id).register(meterRegistry),
+                DistributionSummary.builder("tnm.zeebe.custom.data.size")
+                        .description("Characters of the custom data keys and values the channel connector turns into Zeebe variables")
+                        .baseUnit("characters").tag("process", id).register(meterRegistry),
+                Counter.builder("tnm.zeebe.variables.dropped").description("Variables not sent to Zeebe because no BPMN reads them")
+                        .tag("process", id).register(meterRegistry)));
+    }
+
+    private record ProcessMeters(DistributionSummary variablesSize, DistributionSummary customDataSize, Counter dropped) {
+    }
+}
@@ -1,14 +1,21 @@
 package org.mifos.connector.tnm.zeebe;
 
 import static org.mifos.connector.tnm.camel.config.CamelProperties.TNM_TRX_ID;
-import static org.mifos.connector.tnm.camel.routes.PayBillRouteProcessor.workflowInstanceStore;
 
 import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import io.camunda.zeebe.client.api.worker.JobClient;
+import io.camunda.zeebe.client.api.worker.JobHandler;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.mifos.connector.tnm.store.CorrelationStore;
+import org.mifos.connector.tnm.util.BoundedThreadPerTaskExecutor;
+import org.mifos.connector.tnm.util.ExecutionMode;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -22,14 +29,23 @@ import org.springframework.util.CollectionUtils;
 public class ZeebeWorkers {
 
     private final ZeebeClient zeebeClient;
+    private final CorrelationStore correlationStore;
+    private final ExecutionMode executionMode;
 
     @Value("${zeebe.client.evenly-allocated-max-jobs}")
     private int workerMaxJobs;
 
+    private ExecutorService jobExecutor;
+
     @PostConstruct
     void setupWorkers() {
+        if (executionMode.isVirtualThreads()) {
+            // Jobs above the limit run on the job worker thread, which holds back the activation of more jobs
+            jobExecutor = new BoundedThreadPerTaskExecutor("zeebe-job", ExecutionMode.newVirtualThreadFactory("zeebe-job-"),
+                    executionMode.getMaxVirtualConcurrency(), 0, true);
+        }
 
-        zeebeClient.newWorker().jobType("delete-tnm-workflow-instancekey").handler(((client, job) -> {
+        zeebeClient.newWorker().jobType("delete-tnm-workflow-instancekey").handler(onJobThread((client, job) -> {
             log.info("Removing Workflow Instance key and Tnm Txn Id from store");
             Map<String, Object> variables = job.getVariablesAsMap();
             if (!CollectionUtils.isEmpty(variables)) {
@@ -37,7 +53,7 @@ public class ZeebeWorkers {
                 if (Objects.nonNull(tnmTxnIdObj)) {
                     String tnmTxnId = tnmTxnIdObj.toString();
                     log.debug("Txn Id Removed :{}", tnmTxnId);
-                    workflowInstanceStore.remove(tnmTxnId);
+                    correlationStore.removeWorkflowInstanceKey(tnmTxnId);
                 }
 
             }
@@ -45,4 +61,31 @@ public class ZeebeWorkers {
         })).name("Cleanup").maxJobsActive(workerMaxJobs).open();
     }
 
+    @PreDestroy
+    void shutdown() {
+        if (jobExecutor != null) {
+            jobExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Hands the job over to a virtual thread when running in virtual thread mode, so that the Zeebe job worker threads
+     * are not held while the handler blocks.
+     */
+    private JobHandler onJobThread(JobHandler handler) {
+        if (jobExecutor == null) {
+            return handler;
+        }
+        return (client, job) -> jobExecutor.execute(() -> handleOrFail(handler, client, job));
+    }
+
+    private void handleOrFail(JobHandler handler, JobClient client, ActivatedJob job) {
+        try {
+            handler.handle(client, job);
+        } catch (Exception ex) {
+            // The job worker only fails jobs whose handler throws on its own thread, do the same here
+            log.error("Job {} of type {} failed: {}", job.getKey(), job.getType(), ex.getMessage());
+            client.newFailCommand(job.getKey()).retries(job.getRetries() - 1).errorMessage(ex.getMessage()).send();
+        }
+    }
 }
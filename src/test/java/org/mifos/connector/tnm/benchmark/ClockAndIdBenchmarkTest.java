@@ -0,0 +1,77 @@
+package org.mifos.connector.tnm.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mifos.connector.tnm.util.CachedClock;
+import org.mifos.connector.tnm.util.TimeOrderedIds;
+
+/**
+ * Compares the previous per-request timestamp formatting and random UUIDs with the cached clock and the time-ordered
+ * ids, with many threads calling them at once. Run with {@code ./gradlew test -Dbenchmark=true}, the timings are only
+ * logged.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ClockAndIdBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 50_000;
+
+    @DisplayName("Cached timestamps and time-ordered ids against the previous generation under many threads")
+    @Test
+    void test_cached_clock_and_ids_against_previous_generation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Supplier<Object> previousIso = () -> new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(new Date());
+            Supplier<Object> previousCompact = () -> Long
+                    .parseLong(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")));
+            Supplier<Object> previousId = () -> UUID.randomUUID().toString();
+
+            compare(executor, "ISO date time", previousIso, () -> CachedClock.system().isoDateTime());
+            compare(executor, "compact date time", previousCompact, () -> CachedClock.system().compactDateTime());
+            compare(executor, "workflow id", previousId, TimeOrderedIds::next);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void compare(ExecutorService executor, String name, Supplier<Object> previous, Supplier<Object> current)
+            throws Exception {
+        run(executor, previous);
+        run(executor, current);
+        Duration previousTime = run(executor, previous);
+        Duration currentTime = run(executor, current);
+        log.info("{} x {} calls of {}: previous {} ms, current {} ms", THREADS, CALLS_PER_THREAD, name, previousTime.toMillis(),
+                currentTime.toMillis());
+    }
+
+    private static Duration run(ExecutorService executor, Supplier<Object> generator) throws Exception {
+        long start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            futures[i] = executor.submit(() -> {
+                int hash = 0;
+                for (int call = 0; call < CALLS_PER_THREAD; call++) {
+                    hash += generator.get().hashCode();
+                }
+                return hash;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,71 @@
+package org.mifos.connector.tnm.benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mifos.connector.tnm.util.BoundedThreadPerTaskExecutor;
+import org.mifos.connector.tnm.util.ExecutionMode;
+
+/**
+ * Compares platform thread pools sized like the connector's defaults with bounded virtual threads, on requests that
+ * spend their time blocked on I/O the way channel and Zeebe calls do. Only reports the timings, run with
+ * {@code ./gradlew test -Dbenchmark=true} on a JDK that has virtual threads.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExecutionModeBenchmarkTest {
+
+    private static final int CONCURRENT_REQUESTS = 2_000;
+    private static final int PLATFORM_THREADS = 100;
+    private static final int VIRTUAL_CONCURRENCY = 1_000;
+    private static final Duration BLOCKING_CALL = Duration.ofMillis(50);
+    private static final int ROUNDS = 3;
+
+    @DisplayName("Concurrent blocking requests on platform threads and on bounded virtual threads")
+    @Test
+    void test_virtual_threads_against_platform_pool() {
+        Assumptions.assumeTrue(ExecutionMode.isVirtualThreadAvailable(), "Virtual threads are not available on this JDK");
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Duration platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS));
+            Duration virtual = run(new BoundedThreadPerTaskExecutor("benchmark", ExecutionMode.newVirtualThreadFactory("benchmark-"),
+                    VIRTUAL_CONCURRENCY, Integer.MAX_VALUE, false));
+            log.info("Round {}: {} concurrent requests blocked {} ms each: platform pool of {} threads {} ms ({} req/s), "
+                    + "virtual threads limited to {} {} ms ({} req/s)", round, CONCURRENT_REQUESTS, BLOCKING_CALL.toMillis(),
+                    PLATFORM_THREADS, platform.toMillis(), throughput(platform), VIRTUAL_CONCURRENCY, virtual.toMillis(),
+                    throughput(virtual));
+        }
+    }
+
+    private static Duration run(ExecutorService executor) {
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> requests = new ArrayList<>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            requests.add(CompletableFuture.runAsync(ExecutionModeBenchmarkTest::blockingCall, executor));
+        }
+        CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private static void blockingCall() {
+        try {
+            Thread.sleep(BLOCKING_CALL.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long throughput(Duration elapsed) {
+        return CONCURRENT_REQUESTS * 1000L / Math.max(1, elapsed.toMillis());
+    }
+}
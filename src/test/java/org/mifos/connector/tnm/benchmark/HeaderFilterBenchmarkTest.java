@@ -0,0 +1,118 @@
+package org.mifos.connector.tnm.benchmark;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.spi.HeaderFilterStrategy;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.support.DefaultHeaderFilterStrategy;
+import org.apache.camel.util.CaseInsensitiveMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mifos.connector.tnm.camel.config.AllowListHeaderFilterStrategy;
+
+/**
+ * Compares preparing the headers of a channel request by removing every header by pattern, setting them one by one and
+ * filtering them with prefix checks, as the connector used to do, against setting them in one step and filtering them
+ * with the precompiled allow-list. Run with {@code ./gradlew test -Dbenchmark=true}, the timings are only logged.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HeaderFilterBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 200_000;
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+
+    @DisplayName("Headers set in one step and filtered by allow-list against removing all headers")
+    @Test
+    void test_allow_list_against_remove_all_headers() {
+        HeaderFilterStrategy defaultStrategy = newDefaultStrategy();
+        HeaderFilterStrategy allowListStrategy = new AllowListHeaderFilterStrategy();
+
+        measure(message -> removeAllAndSet(message, defaultStrategy), WARMUP);
+        Duration removeAll = measure(message -> removeAllAndSet(message, defaultStrategy), ITERATIONS);
+        measure(message -> setInOneStep(message, allowListStrategy), WARMUP);
+        Duration allowList = measure(message -> setInOneStep(message, allowListStrategy), ITERATIONS);
+        log.info("{} channel requests: remove all headers {} ms, allow-list {} ms", ITERATIONS, removeAll.toMillis(),
+                allowList.toMillis());
+    }
+
+    private static int removeAllAndSet(Message message, HeaderFilterStrategy strategy) {
+        message.removeHeaders("*");
+        message.setHeader("accountHoldingInstitutionId", "oaf");
+        message.setHeader("amsName", "roster");
+        message.setHeader("Platform-TenantId", "oaf");
+        message.setHeader("X-CorrelationID", "correlation-id");
+        message.setHeader("Content-Type", "application/json");
+        message.setHeader("clientName", "John Doe");
+        return countSent(message, strategy);
+    }
+
+    private static int setInOneStep(Message message, HeaderFilterStrategy strategy) {
+        Map<String, Object> headers = new CaseInsensitiveMap();
+        headers.put("accountHoldingInstitutionId", "oaf");
+        headers.put("amsName", "roster");
+        headers.put("Platform-TenantId", "oaf");
+        headers.put("X-CorrelationID", "correlation-id");
+        headers.put("Content-Type", "application/json");
+        headers.put("clientName", "John Doe");
+        message.setHeaders(headers);
+        return countSent(message, strategy);
+    }
+
+    private static int countSent(Message message, HeaderFilterStrategy strategy) {
+        int sent = 0;
+        for (Map.Entry<String, Object> header : message.getHeaders().entrySet()) {
+            if (!strategy.applyFilterToCamelHeaders(header.getKey(), header.getValue(), message.getExchange())) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    private Duration measure(ToIntFunction<Message> preparation, int iterations) {
+        long start = System.nanoTime();
+        int sent = 0;
+        for (int i = 0; i < iterations; i++) {
+            sent += preparation.applyAsInt(newIncomingMessage());
+        }
+        Assertions.assertEquals(6L * iterations, sent);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    private Message newIncomingMessage() {
+        Exchange exchange = new DefaultExchange(camelContext);
+        Message message = exchange.getIn();
+        message.setHeader("Host", "localhost:5000");
+        message.setHeader("User-Agent", "tnm-gateway");
+        message.setHeader("Accept-Encoding", "gzip");
+        message.setHeader("Connection", "keep-alive");
+        message.setHeader("Content-Length", "128");
+        message.setHeader(Exchange.HTTP_METHOD, "POST");
+        message.setHeader(Exchange.HTTP_URI, "/paybill/validation");
+        message.setHeader(Exchange.HTTP_PATH, "");
+        message.setHeader("primaryIdentifier", "accountid");
+        message.setHeader("primaryIdentifierValue", "24450523");
+        return message;
+    }
+
+    private static HeaderFilterStrategy newDefaultStrategy() {
+        DefaultHeaderFilterStrategy strategy = new DefaultHeaderFilterStrategy();
+        strategy.getOutFilter().add("content-length");
+        strategy.getOutFilter().add("host");
+        strategy.getOutFilter().add("connection");
+        strategy.setLowerCase(true);
+        strategy.setOutFilterStartsWith(DefaultHeaderFilterStrategy.CAMEL_FILTER_STARTS_WITH);
+        strategy.setInFilterStartsWith(DefaultHeaderFilterStrategy.CAMEL_FILTER_STARTS_WITH);
+        return strategy;
+    }
+}
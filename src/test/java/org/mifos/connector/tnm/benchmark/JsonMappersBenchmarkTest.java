@@ -0,0 +1,87 @@
+package org.mifos.connector.tnm.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
+import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
+import org.mifos.connector.tnm.util.JsonMappers;
+
+/**
+ * Compares serializing a validation response and reading a pay request with a mapper built per call, as the connector
+ * used to do, against the shared cached writer and reader. Run with {@code ./gradlew test -Dbenchmark=true}, the
+ * timings are only logged.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JsonMappersBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+    private static final String PAY_REQUEST = "{\"trans_id\":\"RKTQDM7W6S\",\"amount\":\"100\",\"msisdn\":\"265999000000\","
+            + "\"account_number\":\"ACC123\",\"oafTransactionReference\":\"OAF-REF-123\"}";
+
+    @DisplayName("Cached writer against a mapper built per call")
+    @Test
+    void test_cached_writer_against_mapper_per_call() throws JsonProcessingException {
+        PayBillValidationResponseDto dto = new PayBillValidationResponseDto();
+        dto.setReconciled(true);
+        dto.setAmsName("roster");
+        dto.setAccountHoldingInstitutionId("oaf");
+        dto.setTransactionId("transaction-id");
+        dto.setAmount("100");
+        dto.setCurrency("MWK");
+        dto.setMsisdn("265999000000");
+        dto.setClientName("John Doe");
+
+        compare("serializations", () -> newMapper().writeValueAsString(dto).length(),
+                () -> JsonMappers.VALIDATION_RESPONSE_WRITER.writeValueAsString(dto).length());
+    }
+
+    @DisplayName("Cached reader against a mapper built per call")
+    @Test
+    void test_cached_reader_against_mapper_per_call() throws JsonProcessingException {
+        compare("deserializations", () -> newMapper().readValue(PAY_REQUEST, TnmPayBillPayRequestDto.class).hashCode(),
+                () -> JsonMappers.PAY_REQUEST_READER.<TnmPayBillPayRequestDto>readValue(PAY_REQUEST).hashCode());
+    }
+
+    private static void compare(String name, JsonCall perCall, JsonCall cached) throws JsonProcessingException {
+        measure(perCall, WARMUP);
+        Duration perCallTime = measure(perCall, ITERATIONS);
+        measure(cached, WARMUP);
+        Duration cachedTime = measure(cached, ITERATIONS);
+        log.info("{} {}: mapper per call {} ms, cached {} ms", ITERATIONS, name, perCallTime.toMillis(), cachedTime.toMillis());
+    }
+
+    private static ObjectMapper newMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        return mapper;
+    }
+
+    private static Duration measure(JsonCall call, int iterations) throws JsonProcessingException {
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += call.run();
+        }
+        Assertions.assertNotEquals(0, sink);
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    @FunctionalInterface
+    private interface JsonCall {
+
+        int run() throws JsonProcessingException;
+    }
+}
@@ -0,0 +1,150 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_VALIDATE;
+
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeoutException;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
+
+class AdaptiveConcurrencyLimitsTest {
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ConcurrencyLimitProperties properties;
+    private AdaptiveConcurrencyLimits limits;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(true);
+        properties.getChannel().setInitialLimit(2);
+        properties.getChannel().setMinLimit(1);
+        properties.getZeebe().setInitialLimit(1);
+        properties.getZeebe().setMinLimit(1);
+        limits = new AdaptiveConcurrencyLimits(properties);
+        limits.bindTo(registry);
+    }
+
+    @DisplayName("Channel calls above the limit fail fast and are counted")
+    @Test
+    void test_channel_limit() throws Exception {
+        Exchange first = exchange();
+        Exchange second = exchange();
+        limits.acquire(CHANNEL_VALIDATE).process(first);
+        limits.acquire(CHANNEL_VALIDATE).process(second);
+
+        Exchange third = exchange();
+        Assertions.assertThrows(DownstreamUnavailableException.class, () -> limits.acquire(CHANNEL_VALIDATE).process(third));
+        Assertions.assertEquals(2, registry.get("tnm.concurrency.in.flight").tag("limiter", CHANNEL_VALIDATE).gauge().value());
+        Assertions.assertEquals(1, registry.get("tnm.concurrency.rejected").tag("limiter", CHANNEL_VALIDATE).functionCounter().count());
+
+        first.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        limits.release().process(first);
+        Assertions.assertEquals(1, limits.getLimiter(CHANNEL_VALIDATE).getInFlight());
+    }
+
+    @DisplayName("The error route releases the slot of a failed channel call")
+    @Test
+    void test_release_on_failure() throws Exception {
+        Exchange failed = exchange();
+        Exchange rejectedByBreaker = exchange();
+        limits.acquire(CHANNEL_VALIDATE).process(failed);
+        limits.acquire(CHANNEL_VALIDATE).process(rejectedByBreaker);
+        failed.setProperty(Exchange.EXCEPTION_CAUGHT, new IllegalStateException("Connection reset"));
+        rejectedByBreaker.setProperty(Exchange.EXCEPTION_CAUGHT, DownstreamUnavailableException.INSTANCE);
+
+        limits.releaseOnFailure(failed);
+        limits.releaseOnFailure(rejectedByBreaker);
+        limits.releaseOnFailure(exchange());
+
+        Assertions.assertEquals(0, limits.getLimiter(CHANNEL_VALIDATE).getInFlight());
+        Assertions.assertEquals(1, registry.get("tnm.concurrency.limit").tag("limiter", CHANNEL_VALIDATE).gauge().value());
+    }
+
+    @DisplayName("Zeebe commands above the limit fail with a 503 without being sent")
+    @Test
+    void test_zeebe_limit() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletionStage<String> first = limits.zeebe(() -> pending);
+
+        CompletionStage<String> second = limits.zeebe(() -> Assertions.fail("Command sent above the limit"));
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, () -> second.toCompletableFuture().join());
+        Assertions.assertInstanceOf(DownstreamUnavailableException.class, failure.getCause());
+
+        pending.complete("instance");
+        Assertions.assertEquals("instance", first.toCompletableFuture().join());
+        Assertions.assertEquals(0, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getInFlight());
+    }
+
+    @DisplayName("A command following another one keeps its slot, even when the limit is reached in between")
+    @Test
+    void test_zeebe_follow_up_shares_the_slot() {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletionStage<String> published = limits.zeebe(() -> created, instance -> {
+            CompletionStage<String> other = limits.zeebe(() -> Assertions.fail("Command sent above the limit"));
+            Assertions.assertTrue(other.toCompletableFuture().isCompletedExceptionally());
+            return CompletableFuture.completedFuture(instance + " resumed");
+        });
+
+        created.complete("instance");
+        Assertions.assertEquals("instance resumed", published.toCompletableFuture().join());
+        Assertions.assertEquals(0, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getInFlight());
+        Assertions.assertEquals(1, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getRejectedCount());
+    }
+
+    @DisplayName("Only Zeebe failures showing an overloaded or unreachable broker lower the limit")
+    @Test
+    void test_zeebe_dropped_failures() {
+        properties.getZeebe().setInitialLimit(10);
+        // Measures the round trip time without load on every sample, so that only drops change the limit
+        properties.getZeebe().setProbeInterval(1);
+        limits = new AdaptiveConcurrencyLimits(properties);
+
+        failZeebeCommand(new StatusRuntimeException(Status.NOT_FOUND));
+        failZeebeCommand(new ClientStatusException(Status.INVALID_ARGUMENT, null));
+        Assertions.assertEquals(10, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getLimit());
+
+        failZeebeCommand(new StatusRuntimeException(Status.UNAVAILABLE));
+        Assertions.assertEquals(9, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getLimit());
+        Assertions.assertTrue(AdaptiveConcurrencyLimits.isZeebeDropped(new ClientStatusException(Status.DEADLINE_EXCEEDED, null)));
+        Assertions.assertTrue(AdaptiveConcurrencyLimits.isZeebeDropped(new CompletionException(
+                new StatusRuntimeException(Status.RESOURCE_EXHAUSTED))));
+        Assertions.assertTrue(AdaptiveConcurrencyLimits.isZeebeDropped(new TimeoutException()));
+        Assertions.assertFalse(AdaptiveConcurrencyLimits.isZeebeDropped(new IllegalStateException("Unknown process")));
+    }
+
+    @DisplayName("Nothing is limited when the limits are disabled, the default")
+    @Test
+    void test_disabled() throws Exception {
+        Assertions.assertFalse(new ConcurrencyLimitProperties().isEnabled());
+        properties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            limits.acquire(CHANNEL_VALIDATE).process(exchange());
+        }
+        Assertions.assertEquals(0, limits.getLimiter(CHANNEL_VALIDATE).getInFlight());
+    }
+
+    private void failZeebeCommand(Throwable failure) {
+        CompletionStage<String> response = limits.zeebe(() -> CompletableFuture.failedFuture(failure));
+        Assertions.assertTrue(response.toCompletableFuture().isCompletedExceptionally());
+    }
+
+    private Exchange exchange() {
+        return new DefaultExchange(camelContext);
+    }
+}
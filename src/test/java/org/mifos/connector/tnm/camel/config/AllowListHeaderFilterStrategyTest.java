@@ -0,0 +1,87 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.apache.camel.util.CaseInsensitiveMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AllowListHeaderFilterStrategyTest {
+
+    private final AllowListHeaderFilterStrategy strategy = new AllowListHeaderFilterStrategy();
+
+    @DisplayName("Only allowed headers are sent to the channel, whatever their case")
+    @Test
+    void test_outbound_headers_are_filtered_by_allow_list() {
+        Assertions.assertFalse(strategy.applyFilterToCamelHeaders("Content-Type", "application/json", null));
+        Assertions.assertFalse(strategy.applyFilterToCamelHeaders("content-type", "application/json", null));
+        Assertions.assertFalse(strategy.applyFilterToCamelHeaders("X-CorrelationID", "correlation-id", null));
+        Assertions.assertFalse(strategy.applyFilterToCamelHeaders("amsName", "roster", null));
+
+        Assertions.assertTrue(strategy.applyFilterToCamelHeaders("Host", "localhost", null));
+        Assertions.assertTrue(strategy.applyFilterToCamelHeaders("CamelHttpUri", "http://localhost", null));
+        Assertions.assertTrue(strategy.applyFilterToCamelHeaders("Authorization", "Bearer token", null));
+    }
+
+    @DisplayName("Repeated decisions for a header name stay the same")
+    @Test
+    void test_cached_decisions_are_stable() {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertFalse(strategy.applyFilterToCamelHeaders("Platform-TenantId", "oaf", null));
+            Assertions.assertTrue(strategy.applyFilterToCamelHeaders("Connection", "keep-alive", null));
+        }
+    }
+
+    @DisplayName("Only Camel headers are filtered from the channel responses")
+    @Test
+    void test_inbound_headers_filter_camel_prefix() {
+        Assertions.assertTrue(strategy.applyFilterToExternalHeaders("CamelHttpResponseCode", 200, null));
+        Assertions.assertTrue(strategy.applyFilterToExternalHeaders("camelFileName", "file", null));
+        Assertions.assertFalse(strategy.applyFilterToExternalHeaders("Content-Type", "application/json", null));
+        Assertions.assertFalse(strategy.applyFilterToExternalHeaders("X-Custom", "value", null));
+    }
+
+    @DisplayName("A custom allow-list replaces the channel headers")
+    @Test
+    void test_custom_allow_list() {
+        AllowListHeaderFilterStrategy custom = new AllowListHeaderFilterStrategy(List.of("X-Request-Id"));
+
+        Assertions.assertFalse(custom.applyFilterToCamelHeaders("x-request-id", "id", null));
+        Assertions.assertTrue(custom.applyFilterToCamelHeaders("Content-Type", "application/json", null));
+    }
+
+    @DisplayName("A channel request replacing the incoming headers only sends the channel headers")
+    @Test
+    void test_channel_request_sends_only_channel_headers() {
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        Message message = exchange.getIn();
+        message.setHeader("Host", "localhost:5000");
+        message.setHeader("Content-Length", "128");
+        message.setHeader(Exchange.HTTP_URI, "/paybill/validation");
+        message.setHeader("primaryIdentifierValue", "24450523");
+        Map<String, Object> headers = new CaseInsensitiveMap();
+        headers.put("accountHoldingInstitutionId", "oaf");
+        headers.put("amsName", "roster");
+        headers.put("Platform-TenantId", "oaf");
+        headers.put("X-CorrelationID", "correlation-id");
+        headers.put("Content-Type", "application/json");
+        message.setHeaders(headers);
+
+        Set<String> sent = new TreeSet<>();
+        message.getHeaders().forEach((name, value) -> {
+            if (!strategy.applyFilterToCamelHeaders(name, value, exchange)) {
+                sent.add(name);
+            }
+        });
+
+        Assertions.assertEquals(Set.of("accountHoldingInstitutionId", "amsName", "Content-Type", "Platform-TenantId", "X-CorrelationID"),
+                sent);
+    }
+}
@@ -0,0 +1,63 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.exception.UnknownShortCodeException;
+import org.springframework.http.HttpStatus;
+
+class AmsPayBillPropertiesTest {
+
+    private AmsPayBillProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AmsPayBillProperties();
+        properties.setAccountHoldingInstitutionId("oaf");
+        properties.setGroups(List.of(new AmsProperties("24322607", "fineract", "MWK", "http://fineract"),
+                new AmsProperties("12345678", "roster", "MWK", "http://roster")));
+    }
+
+    @DisplayName("Routes are found by short code ignoring case and surrounding whitespace")
+    @Test
+    void test_route_lookup_is_normalized() {
+        AmsRoute route = properties.getRoute(" 24322607 ");
+
+        Assertions.assertEquals("fineract", route.ams());
+        Assertions.assertEquals("http://fineract", route.baseUrl());
+        Assertions.assertEquals("MWK", route.currency());
+    }
+
+    @DisplayName("Routes carry the values derived from their AMS")
+    @Test
+    void test_route_derived_values() {
+        AmsRoute route = properties.getRoute("12345678");
+
+        Assertions.assertEquals("ACCOUNTID", route.primaryIdentifierName());
+        Assertions.assertEquals("inbound_tnm_roster-oaf", route.bpmnProcessId());
+    }
+
+    @DisplayName("Unknown short codes fail with the shared 400 exception")
+    @Test
+    void test_unknown_short_code() {
+        UnknownShortCodeException exception = Assertions.assertThrows(UnknownShortCodeException.class,
+                () -> properties.getRoute("99999999"));
+
+        Assertions.assertSame(UnknownShortCodeException.INSTANCE, exception);
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getHttpStatus());
+        Assertions.assertEquals(0, exception.getStackTrace().length);
+        Assertions.assertThrows(UnknownShortCodeException.class, () -> properties.getRoute(null));
+    }
+
+    @DisplayName("Rebinding the groups rebuilds the routing table")
+    @Test
+    void test_routing_table_is_rebuilt_on_rebind() {
+        properties.getRoute("24322607");
+        properties.setGroups(List.of(new AmsProperties("55555555", "fineract", "MWK", "http://fineract-2")));
+
+        Assertions.assertEquals("http://fineract-2", properties.getRoute("55555555").baseUrl());
+        Assertions.assertThrows(UnknownShortCodeException.class, () -> properties.getRoute("24322607"));
+    }
+}
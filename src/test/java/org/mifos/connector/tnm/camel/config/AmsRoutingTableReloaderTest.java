@@ -0,0 +1,78 @@
+package org.mifos.connector.tnm.camel.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mifos.connector.tnm.exception.UnknownShortCodeException;
+
+class AmsRoutingTableReloaderTest {
+
+    @TempDir
+    Path directory;
+
+    private Path routingFile;
+    private AmsPayBillProperties properties;
+    private AmsRoutingTableReloader reloader;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        routingFile = directory.resolve("routes.json");
+        properties = new AmsPayBillProperties();
+        properties.setAccountHoldingInstitutionId("oaf");
+        properties.setGroups(List.of(new AmsProperties("24322607", "fineract", "MWK", "http://fineract")));
+        write("""
+                [{"businessShortCode": "24322607", "ams": "fineract", "currency": "MWK", "baseUrl": "http://fineract-2"},
+                 {"businessShortCode": "87654321", "ams": "roster", "currency": "MWK", "baseUrl": "http://roster"}]
+                """);
+        reloader = new AmsRoutingTableReloader(properties, routingFile.toString(), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reloader.destroy();
+    }
+
+    @DisplayName("The routing file replaces the configured groups on start")
+    @Test
+    void test_routing_file_is_loaded_on_start() {
+        Assertions.assertEquals("http://fineract-2", properties.getRoute("24322607").baseUrl());
+        Assertions.assertEquals("roster", properties.getRoute("87654321").ams());
+        Assertions.assertEquals(2, reloader.getLastReload().routes());
+    }
+
+    @DisplayName("A reload picks up added and removed short codes")
+    @Test
+    void test_reload_swaps_routing_table() throws IOException {
+        write("""
+                [{"businessShortCode": "11111111", "ams": "roster", "currency": "MWK", "baseUrl": "http://roster-2"}]
+                """);
+
+        reloader.reload();
+
+        Assertions.assertEquals("http://roster-2", properties.getRoute("11111111").baseUrl());
+        Assertions.assertThrows(UnknownShortCodeException.class, () -> properties.getRoute("24322607"));
+    }
+
+    @DisplayName("An invalid routing file keeps the current routing table")
+    @Test
+    void test_invalid_routing_file_is_rejected() throws IOException {
+        write("""
+                [{"businessShortCode": "11111111", "currency": "MWK"}]
+                """);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> reloader.reload());
+        Assertions.assertEquals("http://fineract-2", properties.getRoute("24322607").baseUrl());
+    }
+
+    private void write(String content) throws IOException {
+        Files.writeString(routingFile, content);
+    }
+}
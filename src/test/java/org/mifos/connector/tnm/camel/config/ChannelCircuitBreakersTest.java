@@ -0,0 +1,101 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.AMS_NAME;
+import static org.mifos.connector.tnm.camel.config.ChannelCircuitBreakers.CHANNEL_VALIDATE;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
+import org.mifos.connector.tnm.util.CircuitBreaker;
+
+class ChannelCircuitBreakersTest {
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ChannelCircuitBreakers breakers;
+
+    @BeforeEach
+    void setUp() {
+        ChannelProperties properties = new ChannelProperties();
+        properties.getCircuitBreaker().setEnabled(true);
+        properties.getCircuitBreaker().setWindowSize(10);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setTrialCalls(1);
+        breakers = new ChannelCircuitBreakers(properties);
+        breakers.bindTo(registry);
+    }
+
+    @DisplayName("Server errors open the breaker of the AMS and later calls fail fast")
+    @Test
+    void test_server_errors_open_the_breaker() throws Exception {
+        call("roster", 503);
+        call("roster", 500);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breakers.getState(CHANNEL_VALIDATE, "roster"));
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breakers.getState(CHANNEL_VALIDATE, "fineract"));
+        Exchange exchange = exchange("roster");
+        Assertions.assertThrows(DownstreamUnavailableException.class, () -> breakers.guard(CHANNEL_VALIDATE).process(exchange));
+        Assertions.assertEquals(1,
+                registry.get("tnm.circuit.breaker.state").tag("call", CHANNEL_VALIDATE).tag("ams", "roster").gauge().value());
+        Assertions.assertEquals(1, registry.get("tnm.circuit.breaker.transitions").tag("to", "OPEN").counter().count());
+        Assertions.assertEquals(1, registry.get("tnm.circuit.breaker.rejected").tag("ams", "roster").functionCounter().count());
+    }
+
+    @DisplayName("Successful calls keep the breaker closed")
+    @Test
+    void test_successful_calls() throws Exception {
+        call("roster", 200);
+        call("roster", 404);
+        call("roster", 200);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breakers.getState(CHANNEL_VALIDATE, "roster"));
+    }
+
+    @DisplayName("Calls ending in an exception are recorded as failures by the error route")
+    @Test
+    void test_exceptions_are_failures() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Exchange exchange = exchange(null);
+            breakers.guard(CHANNEL_VALIDATE).process(exchange);
+            breakers.recordFailure(exchange);
+            // A second record of the same call is ignored
+            breakers.recordFailure(exchange);
+        }
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breakers.getState(CHANNEL_VALIDATE, null));
+    }
+
+    @DisplayName("Breakers are off by default and let every call through")
+    @Test
+    void test_disabled_by_default() throws Exception {
+        breakers = new ChannelCircuitBreakers(new ChannelProperties());
+        for (int i = 0; i < 30; i++) {
+            call("roster", 503);
+        }
+
+        Exchange exchange = exchange("roster");
+        Assertions.assertDoesNotThrow(() -> breakers.guard(CHANNEL_VALIDATE).process(exchange));
+    }
+
+    private void call(String ams, int responseCode) throws Exception {
+        Exchange exchange = exchange(ams);
+        breakers.guard(CHANNEL_VALIDATE).process(exchange);
+        exchange.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, responseCode);
+        breakers.record().process(exchange);
+    }
+
+    private Exchange exchange(String ams) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        if (ams != null) {
+            exchange.getIn().setHeader(AMS_NAME, ams);
+        }
+        return exchange;
+    }
+}
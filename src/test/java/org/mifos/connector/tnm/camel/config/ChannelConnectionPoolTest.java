@@ -0,0 +1,68 @@
+package org.mifos.connector.tnm.camel.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ChannelConnectionPoolTest {
+
+    private ChannelConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        ChannelProperties properties = new ChannelProperties();
+        properties.getPool().setMaxTotal(50);
+        properties.getPool().setMaxPerRoute(20);
+        pool = new ChannelConnectionPool(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.destroy();
+    }
+
+    @DisplayName("The connection manager is sized from the pool properties")
+    @Test
+    void test_pool_limits() {
+        Assertions.assertEquals(50, pool.getConnectionManager().getMaxTotal());
+        Assertions.assertEquals(20, pool.getConnectionManager().getDefaultMaxPerRoute());
+    }
+
+    @DisplayName("Pool usage is exposed as meters")
+    @Test
+    void test_pool_meters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+
+        Assertions.assertEquals(50, registry.get("tnm.channel.pool.connections").tag("state", "max").gauge().value());
+        Assertions.assertEquals(0, registry.get("tnm.channel.pool.connections").tag("state", "leased").gauge().value());
+        Assertions.assertEquals(0, registry.get("tnm.channel.pool.utilization").gauge().value());
+        Assertions.assertNotNull(registry.get("tnm.channel.pool.lease.wait").timer());
+    }
+
+    @DisplayName("Keep-alive announced by the channel is capped by the configured one")
+    @Test
+    void test_keep_alive_is_capped() {
+        ConnectionKeepAliveStrategy strategy = ChannelConnectionPool.keepAliveStrategy(30_000);
+
+        Assertions.assertEquals(30_000, strategy.getKeepAliveDuration(response(null), new BasicHttpContext()));
+        Assertions.assertEquals(5_000, strategy.getKeepAliveDuration(response("timeout=5"), new BasicHttpContext()));
+        Assertions.assertEquals(30_000, strategy.getKeepAliveDuration(response("timeout=300"), new BasicHttpContext()));
+    }
+
+    private static HttpResponse response(String keepAlive) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        if (keepAlive != null) {
+            response.addHeader("Keep-Alive", keepAlive);
+        }
+        return response;
+    }
+}
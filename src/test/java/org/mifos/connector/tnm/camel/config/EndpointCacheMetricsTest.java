@@ -0,0 +1,40 @@
+package org.mifos.connector.tnm.camel.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.camel.CamelContext;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EndpointCacheMetricsTest {
+
+    @DisplayName("Endpoints created by the camel context are counted as cache misses")
+    @Test
+    void test_created_endpoints_are_counted() {
+        CamelContext camelContext = new DefaultCamelContext();
+        EndpointCacheMetrics metrics = new EndpointCacheMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        metrics.monitor(camelContext);
+
+        camelContext.getEndpoint("mock:channel");
+        camelContext.getEndpoint("mock:channel");
+        camelContext.getEndpoint("mock:other");
+
+        Assertions.assertEquals(2, metrics.getCreatedCount());
+        Assertions.assertEquals(2, registry.get("tnm.camel.endpoints.cache.misses").functionCounter().count());
+        double size = registry.get("tnm.camel.endpoints.cache.size").tag("type", "static").gauge().value()
+                + registry.get("tnm.camel.endpoints.cache.size").tag("type", "dynamic").gauge().value();
+        Assertions.assertEquals(2, size);
+    }
+
+    @DisplayName("Cache size reads zero before the camel context is monitored")
+    @Test
+    void test_size_before_monitoring() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new EndpointCacheMetrics().bindTo(registry);
+
+        Assertions.assertEquals(0, registry.get("tnm.camel.endpoints.cache.size").tag("type", "dynamic").gauge().value());
+    }
+}
@@ -0,0 +1,109 @@
+package org.mifos.connector.tnm.camel.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExtendedExchange;
+import org.apache.camel.Route;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.dto.PayBillErrorResponse;
+
+class JsonOutputPolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Route route = mock(Route.class);
+    private JsonOutputPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        when(route.getRouteId()).thenReturn("paybill-validation-route");
+        policy = new JsonOutputPolicy(false);
+        policy.bindTo(registry);
+    }
+
+    @DisplayName("Responses are compact by default and their size is recorded")
+    @Test
+    void test_compact_by_default() {
+        Exchange exchange = newExchange();
+        policy.onExchangeBegin(route, exchange);
+        exchange.getMessage().setBody("{\"status\":404}");
+
+        policy.onExchangeDone(route, exchange);
+
+        Assertions.assertEquals("{\"status\":404}", exchange.getMessage().getBody(String.class));
+        Assertions.assertEquals(14, registry.get("tnm.response.size").tag("mode", "compact").summary().totalAmount());
+    }
+
+    @DisplayName("Responses are indented when the request asks for it")
+    @Test
+    void test_pretty_on_request() {
+        Exchange exchange = newExchange();
+        exchange.getIn().setHeader(CamelProperties.PRETTY_PRINT_QUERY_PARAM, "true");
+        policy.onExchangeBegin(route, exchange);
+        exchange.getIn().removeHeaders("*");
+        exchange.getMessage().setBody("{\"status\":404}".getBytes(StandardCharsets.UTF_8));
+
+        policy.onExchangeDone(route, exchange);
+
+        Assertions.assertTrue(exchange.getMessage().getBody(String.class).contains("\n"));
+        Assertions.assertEquals(1, registry.get("tnm.response.marshal").tag("mode", "pretty").timer().count());
+    }
+
+    @DisplayName("Marshalled bodies follow the output mode and are not indented twice")
+    @Test
+    void test_marshal_follows_mode() throws Exception {
+        Exchange exchange = newExchange();
+        exchange.getIn().setHeader(CamelProperties.PRETTY_PRINT_HEADER, "true");
+        policy.onExchangeBegin(route, exchange);
+        PayBillErrorResponse errorResponse = new PayBillErrorResponse();
+        errorResponse.setStatus(400);
+        exchange.getMessage().setBody(policy.marshal(exchange, errorResponse));
+
+        policy.onExchangeDone(route, exchange);
+
+        Assertions.assertTrue(exchange.getMessage().getBody(String.class).contains("\n"));
+        Assertions.assertEquals(1, registry.get("tnm.response.marshal").tag("mode", "pretty").timer().count());
+    }
+
+    @DisplayName("An empty pretty print parameter keeps the response compact")
+    @Test
+    void test_empty_parameter_is_compact() {
+        Exchange exchange = newExchange();
+        exchange.getIn().setHeader(CamelProperties.PRETTY_PRINT_QUERY_PARAM, "");
+        policy.onExchangeBegin(route, exchange);
+        exchange.getMessage().setBody("{\"status\":404}");
+
+        policy.onExchangeDone(route, exchange);
+
+        Assertions.assertEquals("{\"status\":404}", exchange.getMessage().getBody(String.class));
+        Assertions.assertFalse(policy.isPretty(exchange));
+    }
+
+    @DisplayName("The meters of a route are registered once")
+    @Test
+    void test_meters_registered_once() {
+        for (int i = 0; i < 3; i++) {
+            Exchange exchange = newExchange();
+            policy.onExchangeBegin(route, exchange);
+            exchange.getMessage().setBody("{\"status\":404}");
+            policy.onExchangeDone(route, exchange);
+        }
+
+        Assertions.assertEquals(4, registry.getMeters().size());
+        Assertions.assertEquals(3, registry.get("tnm.response.size").tag("mode", "compact").summary().count());
+    }
+
+    private static Exchange newExchange() {
+        Exchange exchange = new DefaultExchange(new DefaultCamelContext());
+        exchange.adapt(ExtendedExchange.class).setFromRouteId("paybill-validation-route");
+        return exchange;
+    }
+}
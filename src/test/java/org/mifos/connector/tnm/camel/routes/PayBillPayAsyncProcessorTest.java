@@ -0,0 +1,119 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.util.TnmConstant.THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.exception.TnmConnectorException;
+import org.mifos.connector.tnm.exception.TnmConnectorExistingTransactionIdException;
+import org.springframework.http.HttpStatus;
+
+class PayBillPayAsyncProcessorTest {
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private final AtomicInteger callbacks = new AtomicInteger();
+    private final AsyncCallback callback = doneSync -> callbacks.incrementAndGet();
+    private final Queue<Runnable> callbackTasks = new ArrayDeque<>();
+
+    private PayBillRouteProcessor payBillRouteProcessor;
+    private PayBillPayAsyncProcessor asyncProcessor;
+
+    @BeforeEach
+    void setUp() {
+        payBillRouteProcessor = mock(PayBillRouteProcessor.class);
+        asyncProcessor = new PayBillPayAsyncProcessor(payBillRouteProcessor, callbackTasks::add, 1);
+        when(payBillRouteProcessor.awaitPayRequest(any(), any()))
+                .thenAnswer(invocation -> invocation.<CompletableFuture<String>>getArgument(1).thenApply(reference -> null));
+    }
+
+    private void runCallbacks() {
+        while (!callbackTasks.isEmpty()) {
+            callbackTasks.poll().run();
+        }
+    }
+
+    @DisplayName("The exchange continues once the pay request completes")
+    @Test
+    void test_exchange_completes_asynchronously() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(payBillRouteProcessor.startPayRequest(any())).thenReturn(pending);
+        Exchange exchange = new DefaultExchange(camelContext);
+
+        Assertions.assertFalse(asyncProcessor.process(exchange, callback));
+        Assertions.assertEquals(0, callbacks.get());
+        Assertions.assertEquals(1, asyncProcessor.getInFlightCount());
+
+        pending.complete("OAF-REF-123");
+        // The thread completing the pay request only hands the exchange over to the callback executor
+        Assertions.assertEquals(0, callbacks.get());
+        runCallbacks();
+
+        Assertions.assertEquals(1, callbacks.get());
+        Assertions.assertEquals(0, asyncProcessor.getInFlightCount());
+        Assertions.assertNull(exchange.getException());
+    }
+
+    @DisplayName("Failures of the pay request are set on the exchange")
+    @Test
+    void test_failure_is_set_on_exchange() {
+        RuntimeException failure = new TnmConnectorExistingTransactionIdException("Transaction ID already exists");
+        when(payBillRouteProcessor.startPayRequest(any())).thenReturn(CompletableFuture.failedFuture(failure));
+        Exchange exchange = new DefaultExchange(camelContext);
+
+        asyncProcessor.process(exchange, callback);
+        runCallbacks();
+
+        Assertions.assertEquals(1, callbacks.get());
+        Assertions.assertInstanceOf(TnmConnectorExistingTransactionIdException.class, exchange.getException());
+    }
+
+    @DisplayName("Pay requests above the in flight limit are rejected with a 503")
+    @Test
+    void test_requests_above_limit_are_rejected() {
+        when(payBillRouteProcessor.startPayRequest(any())).thenReturn(new CompletableFuture<>());
+        asyncProcessor.process(new DefaultExchange(camelContext), callback);
+        Exchange rejected = new DefaultExchange(camelContext);
+
+        Assertions.assertTrue(asyncProcessor.process(rejected, callback));
+
+        TnmConnectorException exception = Assertions.assertInstanceOf(TnmConnectorException.class, rejected.getException());
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+        Assertions.assertEquals(1, asyncProcessor.getRejectedCount());
+    }
+
+    @DisplayName("A pay request keeps its slot until its work is over, even once its caller stopped waiting")
+    @Test
+    void test_slot_held_until_work_completes() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        when(payBillRouteProcessor.startPayRequest(any())).thenReturn(pending);
+        Exchange exchange = new DefaultExchange(camelContext);
+        when(payBillRouteProcessor.awaitPayRequest(eq(exchange), any())).thenReturn(CompletableFuture
+                .failedFuture(new TnmConnectorException(THIRD_PARTY_SYSTEM_UNACCESSIBLE_MESSAGE, HttpStatus.SERVICE_UNAVAILABLE)));
+
+        asyncProcessor.process(exchange, callback);
+        runCallbacks();
+
+        Assertions.assertEquals(1, callbacks.get());
+        Assertions.assertInstanceOf(TnmConnectorException.class, exchange.getException());
+        Assertions.assertEquals(1, asyncProcessor.getInFlightCount());
+
+        pending.complete("OAF-REF-123");
+
+        Assertions.assertEquals(0, asyncProcessor.getInFlightCount());
+    }
+}
@@ -0,0 +1,153 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.BUSINESS_SHORT_CODE;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
+import org.mifos.connector.tnm.camel.config.AmsProperties;
+import org.mifos.connector.tnm.camel.config.RateLimitProperties;
+
+class PayBillRateLimiterTest {
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private RateLimitProperties properties;
+    private AmsPayBillProperties amsPayBillProperties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setEnabled(true);
+        properties.setGlobal(new RateLimitProperties.Limit(0.001, 100));
+        properties.setPerShortCode(new RateLimitProperties.Limit(0.001, 2));
+        properties.setShortCodes(Map.of("24322607", new RateLimitProperties.Limit(0.001, 5)));
+        amsPayBillProperties = new AmsPayBillProperties();
+        amsPayBillProperties.setDefaultAmsShortCode("12345678");
+        amsPayBillProperties.setGroups(List.of(new AmsProperties("24322607", "fineract", "MWK", "http://fineract"),
+                new AmsProperties("12345678", "roster", "MWK", "http://roster")));
+    }
+
+    @DisplayName("Requests above the limit of their short code get a 429 and stop their route")
+    @Test
+    void test_short_code_limit() {
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+
+        Assertions.assertFalse(isRejected(rateLimiter, "12345678"));
+        Assertions.assertFalse(isRejected(rateLimiter, null));
+        Exchange rejected = request(rateLimiter, "12345678");
+
+        Assertions.assertTrue(rejected.isRouteStop());
+        Assertions.assertEquals(429, rejected.getMessage().getHeader(Exchange.HTTP_RESPONSE_CODE));
+        Assertions.assertEquals("{\"status\":429,\"message\":\"Too many requests. Please try again later.\"}",
+                new String(rejected.getMessage().getBody(byte[].class), StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, rateLimiter.getAcceptedCount("12345678"));
+        Assertions.assertEquals(1, rateLimiter.getRejectedCount("12345678"));
+    }
+
+    @DisplayName("A flooding short code does not use up the limit of the others")
+    @Test
+    void test_short_codes_are_isolated() {
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+        for (int i = 0; i < 10; i++) {
+            request(rateLimiter, "12345678");
+        }
+
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertFalse(isRejected(rateLimiter, "24322607"));
+        }
+        Assertions.assertTrue(isRejected(rateLimiter, "24322607"));
+        Assertions.assertEquals(8, rateLimiter.getRejectedCount("12345678"));
+    }
+
+    @DisplayName("Short codes missing from the routing table share one bucket")
+    @Test
+    void test_unknown_short_codes_share_a_bucket() {
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+
+        Assertions.assertFalse(isRejected(rateLimiter, "11111111"));
+        Assertions.assertFalse(isRejected(rateLimiter, "22222222"));
+        Assertions.assertTrue(isRejected(rateLimiter, "33333333"));
+        Assertions.assertEquals(1, rateLimiter.getRejectedCount(PayBillRateLimiter.UNKNOWN_SHORT_CODE));
+        Assertions.assertEquals(0, rateLimiter.getAcceptedCount("11111111"));
+    }
+
+    @DisplayName("The global limit applies across short codes")
+    @Test
+    void test_global_limit() {
+        properties.setGlobal(new RateLimitProperties.Limit(0.001, 3));
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+
+        Assertions.assertFalse(isRejected(rateLimiter, "12345678"));
+        Assertions.assertFalse(isRejected(rateLimiter, "24322607"));
+        Assertions.assertFalse(isRejected(rateLimiter, "24322607"));
+        Assertions.assertTrue(isRejected(rateLimiter, "24322607"));
+        Assertions.assertEquals(1, rateLimiter.getGlobalRejectedCount());
+    }
+
+    @DisplayName("Requests rejected by the global limit do not use up the limit of their short code")
+    @Test
+    void test_global_rejection_keeps_short_code_tokens() {
+        properties.setGlobal(new RateLimitProperties.Limit(0.001, 1));
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+        Assertions.assertFalse(isRejected(rateLimiter, "24322607"));
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(isRejected(rateLimiter, "12345678"));
+        }
+
+        // Without giving the tokens back, the short code limit would have rejected the last 8 requests itself
+        Assertions.assertEquals(10, rateLimiter.getGlobalRejectedCount());
+        Assertions.assertEquals(10, rateLimiter.getRejectedCount("12345678"));
+    }
+
+    @DisplayName("Accepted and rejected requests are counted per short code")
+    @Test
+    void test_meters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+        request(rateLimiter, "12345678");
+        rateLimiter.bindTo(registry);
+        request(rateLimiter, "24322607");
+        request(rateLimiter, "12345678");
+        request(rateLimiter, "12345678");
+
+        Assertions.assertEquals(2.0, registry.get("tnm.paybill.rate.limit.requests").tags("shortCode", "12345678", "result", "accepted")
+                .functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("tnm.paybill.rate.limit.requests").tags("shortCode", "12345678", "result", "rejected")
+                .functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("tnm.paybill.rate.limit.requests").tags("shortCode", "24322607", "result", "accepted")
+                .functionCounter().count());
+    }
+
+    @DisplayName("Nothing is rejected when rate limiting is disabled, the default")
+    @Test
+    void test_disabled() {
+        Assertions.assertFalse(new RateLimitProperties().isEnabled());
+        properties.setEnabled(false);
+        PayBillRateLimiter rateLimiter = new PayBillRateLimiter(properties, amsPayBillProperties);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(isRejected(rateLimiter, "12345678"));
+        }
+    }
+
+    private boolean isRejected(PayBillRateLimiter rateLimiter, String shortCode) {
+        return request(rateLimiter, shortCode).isRouteStop();
+    }
+
+    private Exchange request(PayBillRateLimiter rateLimiter, String shortCode) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeader(BUSINESS_SHORT_CODE, shortCode);
+        rateLimiter.process(exchange);
+        return exchange;
+    }
+}
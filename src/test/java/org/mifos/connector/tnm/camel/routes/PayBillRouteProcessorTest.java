@@ -13,10 +13,10 @@ import static org.mifos.connector.tnm.camel.config.CamelProperties.TENANT_ID;
 import static org.mifos.connector.tnm.camel.config.CamelProperties.X_CORRELATION_ID;
 import static org.mifos.connector.tnm.zeebe.ZeebeVariables.CURRENCY;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,8 +26,12 @@ import io.camunda.zeebe.client.ZeebeClient;
 import io.camunda.zeebe.client.api.ZeebeFuture;
 import io.camunda.zeebe.client.api.command.CreateProcessInstanceCommandStep1;
 import io.camunda.zeebe.client.api.command.PublishMessageCommandStep1;
+import io.camunda.zeebe.client.api.response.ProcessInstanceEvent;
 import io.camunda.zeebe.client.api.response.PublishMessageResponse;
+import io.camunda.zeebe.client.impl.ZeebeClientFutureImpl;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
@@ -39,17 +43,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mifos.connector.tnm.ConnectorTemplateApplicationTests;
+import org.mifos.connector.tnm.camel.config.AdaptiveConcurrencyLimits;
 import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
 import org.mifos.connector.tnm.camel.config.AmsProperties;
+import org.mifos.connector.tnm.camel.config.AmsRoute;
+import org.mifos.connector.tnm.camel.config.ConcurrencyLimitProperties;
+import org.mifos.connector.tnm.camel.config.CorrelationStoreProperties;
+import org.mifos.connector.tnm.camel.config.IdempotencyProperties;
 import org.mifos.connector.tnm.camel.config.ZeebeProperties;
 import org.mifos.connector.tnm.dto.ChannelValidationRequestDto;
 import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
 import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
 import org.mifos.connector.tnm.exception.MissingFieldException;
+import org.mifos.connector.tnm.exception.TnmConnectorException;
 import org.mifos.connector.tnm.exception.TnmConnectorExistingTransactionIdException;
+import org.mifos.connector.tnm.idempotency.TransactionIdIndex;
+import org.mifos.connector.tnm.store.CorrelationStore;
+import org.mifos.connector.tnm.store.InMemoryCorrelationStoreBackend;
+import org.mifos.connector.tnm.util.SingleFlight;
+import org.mifos.connector.tnm.zeebe.ZeebeVariableSchema;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 
 class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
 
@@ -64,13 +81,25 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
     @Mock
     private ZeebeProperties zeebeProperties;
 
+    private CorrelationStore correlationStore;
+
     @Autowired
     private CamelContext camelContext;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        processor = new PayBillRouteProcessor(producerTemplate, zeebeClient, amsPayBillProps, zeebeProperties);
+        correlationStore = new CorrelationStore(new CorrelationStoreProperties(), zeebeProperties,
+                new InMemoryCorrelationStoreBackend(1000));
+        processor = new PayBillRouteProcessor(producerTemplate, zeebeClient, amsPayBillProps, zeebeProperties, correlationStore,
+                new TransactionIdIndex(new IdempotencyProperties(), correlationStore), new SingleFlight<>("paybill-pay"), Runnable::run,
+                new ZeebeVariableSchema(new ZeebeProperties()), new AdaptiveConcurrencyLimits(new ConcurrencyLimitProperties()));
+    }
+
+    private static <T> ZeebeFuture<T> completedZeebeFuture(T value) {
+        ZeebeClientFutureImpl<T, Object> future = new ZeebeClientFutureImpl<>();
+        future.complete(value);
+        return future;
     }
 
     @DisplayName("Successfully builds account status request body with all required headers present")
@@ -90,7 +119,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         amsProperties.setBaseUrl("http://test.com");
         amsProperties.setBusinessShortCode("24322607");
 
-        when(amsPayBillProps.getAmsPropertiesFromShortCode(anyString())).thenReturn(amsProperties);
+        when(amsPayBillProps.getRoute(anyString())).thenReturn(AmsRoute.of(amsProperties, "TEST_ID"));
         when(amsPayBillProps.getDefaultAmsShortCode()).thenReturn("BSC001");
         when(amsPayBillProps.getDefaultAmsShortCode()).thenReturn("BSC001");
         when(amsPayBillProps.getAccountHoldingInstitutionId()).thenReturn("TEST_ID");
@@ -113,6 +142,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         Assertions.assertEquals(false, requestDto.getCustomData().get(2).value);
         Assertions.assertEquals("application/json", exchange.getIn().getHeader(CONTENT_TYPE));
         Assertions.assertEquals("fineract", exchange.getIn().getHeader("amsName"));
+        Assertions.assertEquals("fineractAccountID/12345", exchange.getIn().getHeader(Exchange.HTTP_PATH));
     }
 
     @DisplayName("Successfully builds account status request body with all required headers present but "
@@ -129,7 +159,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         amsProperties.setBaseUrl("http://test.com");
         amsProperties.setBusinessShortCode("24322607");
 
-        when(amsPayBillProps.getAmsPropertiesFromShortCode(anyString())).thenReturn(amsProperties);
+        when(amsPayBillProps.getRoute(anyString())).thenReturn(AmsRoute.of(amsProperties, "TEST_ID"));
         when(amsPayBillProps.getDefaultAmsShortCode()).thenReturn("BSC001");
         when(amsPayBillProps.getDefaultAmsShortCode()).thenReturn("BSC001");
         when(amsPayBillProps.getAccountHoldingInstitutionId()).thenReturn("TEST_ID");
@@ -168,7 +198,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         amsProperties.setCurrency("USD");
         amsProperties.setBaseUrl("http://test.com");
 
-        when(amsPayBillProps.getAmsPropertiesFromShortCode(anyString())).thenReturn(amsProperties);
+        when(amsPayBillProps.getRoute(anyString())).thenReturn(AmsRoute.of(amsProperties, "TEST_ID"));
 
         MissingFieldException exception = Assertions.assertThrows(MissingFieldException.class, () -> {
             processor.buildBodyForAccountStatus(exchange);
@@ -226,7 +256,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         amsProps.setAms("TEST-AMS");
         amsProps.setCurrency("USD");
         amsProps.setBaseUrl("http://test-url");
-        when(amsPayBillProps.getAmsPropertiesFromShortCode(any())).thenReturn(amsProps);
+        when(amsPayBillProps.getRoute(any())).thenReturn(AmsRoute.of(amsProps, "TEST_ID"));
         when(zeebeClient.newPublishMessageCommand()).thenReturn(mock(PublishMessageCommandStep1.class));
         Exchange exchange = mock(Exchange.class);
         when(producerTemplate.send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class))).thenAnswer(invocation -> {
@@ -246,8 +276,8 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         when(zeebeClient.newCreateInstanceCommand()).thenReturn(createProcessInstanceCommand);
         when(createProcessInstanceCommand.bpmnProcessId(anyString())).thenReturn(createProcessInstanceCommandStep2);
         when(createProcessInstanceCommandStep2.latestVersion()).thenReturn(createProcessInstanceCommandStep3);
-        when(createProcessInstanceCommandStep3.variables(anyMap())).thenReturn(createProcessInstanceCommandStep3);
-        when(createProcessInstanceCommandStep3.send()).thenReturn(mock(ZeebeFuture.class));
+        when(createProcessInstanceCommandStep3.variables(anyString())).thenReturn(createProcessInstanceCommandStep3);
+        when(createProcessInstanceCommandStep3.send()).thenReturn(completedZeebeFuture(mock(ProcessInstanceEvent.class)));
 
         PublishMessageCommandStep1.PublishMessageCommandStep2 publishMessageCommandStep2 = mock(
                 PublishMessageCommandStep1.PublishMessageCommandStep2.class);
@@ -255,18 +285,18 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         PublishMessageCommandStep1.PublishMessageCommandStep3 publishMessageCommandStep3 = mock(
                 PublishMessageCommandStep1.PublishMessageCommandStep3.class);
 
-        ZeebeFuture<PublishMessageResponse> zeebeFutureMock = mock(ZeebeFuture.class);
+        ZeebeFuture<PublishMessageResponse> zeebeFutureMock = completedZeebeFuture(mock(PublishMessageResponse.class));
         PublishMessageCommandStep1 publishMessageCommand = mock(PublishMessageCommandStep1.class);
 
         when(zeebeClient.newPublishMessageCommand()).thenReturn(publishMessageCommand);
         when(publishMessageCommand.messageName(anyString())).thenReturn(publishMessageCommandStep2);
         when(publishMessageCommandStep2.correlationKey(anyString())).thenReturn(publishMessageCommandStep3);
         when(publishMessageCommandStep3.timeToLive(any())).thenReturn(publishMessageCommandStep3);
-        when(publishMessageCommandStep3.variables(anyMap())).thenReturn(publishMessageCommandStep3);
+        when(publishMessageCommandStep3.variables(anyString())).thenReturn(publishMessageCommandStep3);
         when(publishMessageCommandStep3.send()).thenReturn(zeebeFutureMock);
 
         // Act
-        processor.processRequestForPayBillPayRoute(exchange);
+        processor.processRequestForPayBillPayRouteAsync(exchange).join();
 
         // Assert
         verify(zeebeClient).newPublishMessageCommand();
@@ -290,7 +320,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         amsProps.setCurrency("USD");
         amsProps.setBaseUrl("http://test-url");
         Exchange exchange = mock(Exchange.class);
-        when(amsPayBillProps.getAmsPropertiesFromShortCode(any())).thenReturn(amsProps);
+        when(amsPayBillProps.getRoute(any())).thenReturn(AmsRoute.of(amsProps, "TEST_ID"));
         when(zeebeClient.newPublishMessageCommand()).thenReturn(mock(PublishMessageCommandStep1.class));
         when(producerTemplate.send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class))).thenAnswer(invocation -> {
             Processor processor1 = invocation.getArgument(1, Processor.class);
@@ -308,22 +338,88 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         PublishMessageCommandStep1.PublishMessageCommandStep3 publishMessageCommandStep3 = mock(
                 PublishMessageCommandStep1.PublishMessageCommandStep3.class);
 
-        ZeebeFuture<PublishMessageResponse> zeebeFutureMock = mock(ZeebeFuture.class);
+        ZeebeFuture<PublishMessageResponse> zeebeFutureMock = completedZeebeFuture(mock(PublishMessageResponse.class));
         PublishMessageCommandStep1 publishMessageCommand = mock(PublishMessageCommandStep1.class);
 
         when(zeebeClient.newPublishMessageCommand()).thenReturn(publishMessageCommand);
         when(publishMessageCommand.messageName(anyString())).thenReturn(publishMessageCommandStep2);
         when(publishMessageCommandStep2.correlationKey(anyString())).thenReturn(publishMessageCommandStep3);
         when(publishMessageCommandStep3.timeToLive(any())).thenReturn(publishMessageCommandStep3);
-        when(publishMessageCommandStep3.variables(anyMap())).thenReturn(publishMessageCommandStep3);
+        when(publishMessageCommandStep3.variables(anyString())).thenReturn(publishMessageCommandStep3);
         when(publishMessageCommandStep3.send()).thenReturn(zeebeFutureMock);
 
-        PayBillRouteProcessor.workflowInstanceStore.put(requestDto.getOafValidationRef(), "TEST-INSTANCE-123");
+        correlationStore.putWorkflowInstanceKey(requestDto.getOafValidationRef(), "TEST-INSTANCE-123");
         // Act
-        processor.processRequestForPayBillPayRoute(exchange);
+        processor.processRequestForPayBillPayRouteAsync(exchange).join();
 
         // Assert
         verify(zeebeClient).newPublishMessageCommand();
+        Assertions.assertThrows(TnmConnectorExistingTransactionIdException.class,
+                () -> processor.validateUniqueTransactionId(requestDto.getTransactionId()));
+    }
+
+    @DisplayName("A created workflow gets its pay request even when the Zeebe limit is reached after the create command")
+    @Test
+    void test_pay_request_published_within_the_create_slot() {
+        ConcurrencyLimitProperties limitProperties = new ConcurrencyLimitProperties();
+        limitProperties.setEnabled(true);
+        limitProperties.getZeebe().setInitialLimit(1);
+        limitProperties.getZeebe().setMinLimit(1);
+        AdaptiveConcurrencyLimits limits = new AdaptiveConcurrencyLimits(limitProperties);
+        processor = new PayBillRouteProcessor(producerTemplate, zeebeClient, amsPayBillProps, zeebeProperties, correlationStore,
+                new TransactionIdIndex(new IdempotencyProperties(), correlationStore), new SingleFlight<>("paybill-pay"), Runnable::run,
+                new ZeebeVariableSchema(new ZeebeProperties()), limits);
+
+        TnmPayBillPayRequestDto requestDto = new TnmPayBillPayRequestDto();
+        requestDto.setTransactionId("TEST-TXN-123");
+        requestDto.setOafValidationRef("OAF-REF-123");
+        requestDto.setMsisdn("123456789");
+        requestDto.setTransactionAmount("100");
+        requestDto.setAccountNumber("ACC123");
+        AmsProperties amsProps = new AmsProperties();
+        amsProps.setAms("TEST-AMS");
+        amsProps.setCurrency("USD");
+        amsProps.setBaseUrl("http://test-url");
+        when(amsPayBillProps.getRoute(any())).thenReturn(AmsRoute.of(amsProps, "TEST_ID"));
+        Exchange exchange = mock(Exchange.class);
+        when(producerTemplate.send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class))).thenReturn(exchange);
+        Message message = mock(Message.class);
+        when(exchange.getIn()).thenReturn(message);
+        when(message.getBody(TnmPayBillPayRequestDto.class)).thenReturn(requestDto);
+
+        ZeebeClientFutureImpl<ProcessInstanceEvent, Object> created = new ZeebeClientFutureImpl<>();
+        CreateProcessInstanceCommandStep1 createProcessInstanceCommand = mock(CreateProcessInstanceCommandStep1.class);
+        CreateProcessInstanceCommandStep1.CreateProcessInstanceCommandStep2 createProcessInstanceCommandStep2 = mock(
+                CreateProcessInstanceCommandStep1.CreateProcessInstanceCommandStep2.class);
+        CreateProcessInstanceCommandStep1.CreateProcessInstanceCommandStep3 createProcessInstanceCommandStep3 = mock(
+                CreateProcessInstanceCommandStep1.CreateProcessInstanceCommandStep3.class);
+        when(zeebeClient.newCreateInstanceCommand()).thenReturn(createProcessInstanceCommand);
+        when(createProcessInstanceCommand.bpmnProcessId(anyString())).thenReturn(createProcessInstanceCommandStep2);
+        when(createProcessInstanceCommandStep2.latestVersion()).thenReturn(createProcessInstanceCommandStep3);
+        when(createProcessInstanceCommandStep3.variables(anyString())).thenReturn(createProcessInstanceCommandStep3);
+        when(createProcessInstanceCommandStep3.send()).thenReturn(created);
+
+        PublishMessageCommandStep1 publishMessageCommand = mock(PublishMessageCommandStep1.class);
+        PublishMessageCommandStep1.PublishMessageCommandStep2 publishMessageCommandStep2 = mock(
+                PublishMessageCommandStep1.PublishMessageCommandStep2.class);
+        PublishMessageCommandStep1.PublishMessageCommandStep3 publishMessageCommandStep3 = mock(
+                PublishMessageCommandStep1.PublishMessageCommandStep3.class);
+        when(zeebeClient.newPublishMessageCommand()).thenReturn(publishMessageCommand);
+        when(publishMessageCommand.messageName(anyString())).thenReturn(publishMessageCommandStep2);
+        when(publishMessageCommandStep2.correlationKey(anyString())).thenReturn(publishMessageCommandStep3);
+        when(publishMessageCommandStep3.timeToLive(any())).thenReturn(publishMessageCommandStep3);
+        when(publishMessageCommandStep3.variables(anyString())).thenReturn(publishMessageCommandStep3);
+        when(publishMessageCommandStep3.send()).thenReturn(completedZeebeFuture(mock(PublishMessageResponse.class)));
+
+        CompletableFuture<Void> result = processor.processRequestForPayBillPayRouteAsync(exchange);
+        // Another Zeebe command takes the limit while the instance is being created
+        CompletionStage<String> other = limits.zeebe(() -> completedZeebeFuture("other"));
+        created.complete(mock(ProcessInstanceEvent.class));
+
+        result.join();
+        Assertions.assertTrue(other.toCompletableFuture().isCompletedExceptionally());
+        verify(zeebeClient).newPublishMessageCommand();
+        Assertions.assertEquals(0, limits.getLimiter(AdaptiveConcurrencyLimits.ZEEBE).getInFlight());
     }
 
     @DisplayName("Validate transaction ID that does not exist in the system")
@@ -342,6 +438,19 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         Assertions.assertDoesNotThrow(() -> processor.validateUniqueTransactionId(transactionId));
     }
 
+    @DisplayName("Transaction ID validation fails fast while the channel circuit breaker is open")
+    @Test
+    void test_validate_transaction_id_with_open_circuit_breaker() {
+        Exchange mockExchange = mock(Exchange.class);
+
+        when(producerTemplate.send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class))).thenReturn(mockExchange);
+        when(mockExchange.getProperty(Exchange.EXCEPTION_CAUGHT)).thenReturn(DownstreamUnavailableException.INSTANCE);
+
+        TnmConnectorException exception = Assertions.assertThrows(TnmConnectorException.class,
+                () -> processor.validateUniqueTransactionId("test-123"));
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+    }
+
     @DisplayName("Handle JsonProcessingException during response deserialization")
     @Test
     void test_handle_json_processing_exception() {
@@ -376,6 +485,25 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
                 () -> processor.validateUniqueTransactionId(transactionId));
     }
 
+    @DisplayName("A transaction ID already reported as COMMITTED is rejected without asking the channel again")
+    @Test
+    void test_committed_transfer_state_is_remembered() {
+        String validJson = "{\"transferState\":\"COMMITTED\"}";
+        Exchange mockExchange = mock(Exchange.class);
+        Message mockMessage = mock(Message.class);
+
+        when(producerTemplate.send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class))).thenReturn(mockExchange);
+        when(mockExchange.getIn()).thenReturn(mockMessage);
+        when(mockMessage.getBody(String.class)).thenReturn(validJson);
+        String transactionId = "test-123";
+
+        Assertions.assertThrows(TnmConnectorExistingTransactionIdException.class,
+                () -> processor.validateUniqueTransactionId(transactionId));
+        Assertions.assertThrows(TnmConnectorExistingTransactionIdException.class,
+                () -> processor.validateUniqueTransactionId(transactionId));
+        verify(producerTemplate, times(1)).send(eq("direct:paybill-transaction-status-check-base"), any(Processor.class));
+    }
+
     @DisplayName("Process response with non-COMMITTED transfer state")
     @Test
     void test_non_committed_transfer_state() {
@@ -407,6 +535,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         Assertions.assertEquals("transfers", exchange.getIn().getHeader("requestType"));
         Assertions.assertEquals("oaf", exchange.getIn().getHeader(TENANT_ID));
         Assertions.assertEquals("valid-transaction-id", exchange.getProperty(PAYBILL_TRANSACTION_ID_URL_PARAM));
+        Assertions.assertEquals("valid-transaction-id", exchange.getIn().getHeader(Exchange.HTTP_PATH));
     }
 
     @DisplayName("Null transaction ID in header throws MissingFieldException")
@@ -445,7 +574,7 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         exchange.getIn().setHeader(X_CORRELATION_ID, "corr-123");
         exchange.getIn().setHeader(CLIENT_NAME, "John Doe");
 
-        PayBillRouteProcessor.reconciledStore.put("corr-123", true);
+        correlationStore.putReconciled("corr-123", true);
 
         processor.processResponseForPayBillValidationResponseSuccess(exchange);
 
@@ -456,8 +585,8 @@ class PayBillRouteProcessorTest extends ConnectorTemplateApplicationTests {
         Assertions.assertEquals("Account exists", response.getString("message"));
         Assertions.assertEquals("corr-123", response.getString("oafTransactionReference"));
         Assertions.assertEquals("John Doe", response.getString("clientName"));
-        Assertions.assertEquals("123", PayBillRouteProcessor.workflowInstanceStore.get("corr-123"));
-        Assertions.assertFalse(PayBillRouteProcessor.reconciledStore.containsKey("corr-123"));
+        Assertions.assertEquals("123", correlationStore.getWorkflowInstanceKey("corr-123"));
+        Assertions.assertNull(correlationStore.removeReconciled("corr-123"));
     }
 
     @DisplayName("Processes error response")
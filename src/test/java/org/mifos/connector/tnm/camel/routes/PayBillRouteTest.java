@@ -2,9 +2,12 @@ package org.mifos.connector.tnm.camel.routes;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import io.camunda.zeebe.client.api.command.ClientException;
+import io.lettuce.core.RedisCommandTimeoutException;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.FluentProducerTemplate;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -81,4 +84,46 @@ class PayBillRouteTest extends ConnectorTemplateApplicationTests {
         Assertions.assertEquals("Internal systems are not available. Please try again later.", receivedBody.getMessage());
     }
 
+    @DisplayName("Test error response route with a request shed by the ingestion lanes")
+    @Test
+    void testErrorResponseRoute_withRejectedExecutionException() {
+
+        Exchange exchange = camelContext.getEndpoint("direct:error-response").createExchange();
+        exchange.setProperty(Exchange.EXCEPTION_CAUGHT, new RejectedExecutionException("Ingestion lane is shedding load"));
+
+        Exchange result = fluentProducerTemplate.to("direct:error-response").withExchange(exchange).send();
+        PayBillErrorResponse receivedBody = result.getIn().getBody(PayBillErrorResponse.class);
+
+        Assertions.assertEquals(503, receivedBody.getStatus());
+        Assertions.assertEquals("Internal systems are not available. Please try again later.", receivedBody.getMessage());
+    }
+
+    @DisplayName("Test error response route with a Redis command timeout")
+    @Test
+    void testErrorResponseRoute_withRedisCommandTimeout() {
+
+        Exchange exchange = camelContext.getEndpoint("direct:error-response").createExchange();
+        exchange.setProperty(Exchange.EXCEPTION_CAUGHT, new RedisCommandTimeoutException("Command timed out after 500 millisecond(s)"));
+
+        Exchange result = fluentProducerTemplate.to("direct:error-response").withExchange(exchange).send();
+        PayBillErrorResponse receivedBody = result.getIn().getBody(PayBillErrorResponse.class);
+
+        Assertions.assertEquals(503, receivedBody.getStatus());
+        Assertions.assertEquals("Internal systems are not available. Please try again later.", receivedBody.getMessage());
+    }
+
+    @DisplayName("Test error response route with a channel connection pool timeout")
+    @Test
+    void testErrorResponseRoute_withConnectionPoolTimeout() {
+
+        Exchange exchange = camelContext.getEndpoint("direct:error-response").createExchange();
+        exchange.setProperty(Exchange.EXCEPTION_CAUGHT, new ConnectionPoolTimeoutException("Timeout waiting for connection from pool"));
+
+        Exchange result = fluentProducerTemplate.to("direct:error-response").withExchange(exchange).send();
+        PayBillErrorResponse receivedBody = result.getIn().getBody(PayBillErrorResponse.class);
+
+        Assertions.assertEquals(503, receivedBody.getStatus());
+        Assertions.assertEquals("Internal systems are not available. Please try again later.", receivedBody.getMessage());
+    }
+
 }
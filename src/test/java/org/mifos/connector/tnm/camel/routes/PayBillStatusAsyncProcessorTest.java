@@ -0,0 +1,143 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.PAYBILL_TRANSACTION_ID_URL_PARAM;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.camel.config.StatusCacheProperties;
+import org.mifos.connector.tnm.exception.DownstreamUnavailableException;
+import org.mifos.connector.tnm.exception.MissingFieldException;
+
+class PayBillStatusAsyncProcessorTest {
+
+    private static final String STATUS_ROUTE = "direct:paybill-transaction-status-check-base";
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private final AtomicInteger callbacks = new AtomicInteger();
+    private final AsyncCallback callback = doneSync -> callbacks.incrementAndGet();
+    private final List<Runnable> channelTasks = new ArrayList<>();
+    private final Executor channelExecutor = channelTasks::add;
+
+    private ProducerTemplate producerTemplate;
+    private StatusCacheProperties properties;
+    private PayBillStatusAsyncProcessor asyncProcessor;
+
+    @BeforeEach
+    void setUp() {
+        producerTemplate = mock(ProducerTemplate.class);
+        properties = new StatusCacheProperties();
+        properties.setEnabled(true);
+        properties.setPendingTtl(Duration.ZERO);
+        asyncProcessor = new PayBillStatusAsyncProcessor(producerTemplate, channelExecutor, properties);
+    }
+
+    @DisplayName("Terminal transfer states are served from the cache")
+    @Test
+    void test_terminal_state_is_cached() {
+        when(producerTemplate.send(eq(STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(200, "COMMITTED"));
+
+        Exchange first = lookup("trx-1");
+        runChannelTasks();
+        Exchange second = lookup("trx-1");
+
+        Assertions.assertTrue(asyncProcessor.process(second, callback));
+        verify(producerTemplate, times(1)).send(eq(STATUS_ROUTE), any(Processor.class));
+        Assertions.assertEquals(first.getIn().getBody(String.class), second.getIn().getBody(String.class));
+        Assertions.assertEquals(200, second.getIn().getHeader(Exchange.HTTP_RESPONSE_CODE));
+    }
+
+    @DisplayName("Transfers in progress are only cached for the pending time to live")
+    @Test
+    void test_pending_state_expires() {
+        when(producerTemplate.send(eq(STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(200, "RECEIVED"));
+
+        lookup("trx-1");
+        runChannelTasks();
+        lookup("trx-1");
+        runChannelTasks();
+
+        verify(producerTemplate, times(2)).send(eq(STATUS_ROUTE), any(Processor.class));
+    }
+
+    @DisplayName("Concurrent lookups for the same transaction share one channel call")
+    @Test
+    void test_concurrent_lookups_are_coalesced() {
+        when(producerTemplate.send(eq(STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(200, "RECEIVED"));
+
+        Exchange first = lookup("trx-1");
+        Exchange second = lookup("trx-1");
+        Assertions.assertEquals(1, channelTasks.size());
+        runChannelTasks();
+
+        verify(producerTemplate, times(1)).send(eq(STATUS_ROUTE), any(Processor.class));
+        Assertions.assertEquals(2, callbacks.get());
+        Assertions.assertNotNull(first.getIn().getBody(String.class));
+        Assertions.assertEquals(first.getIn().getBody(String.class), second.getIn().getBody(String.class));
+    }
+
+    @DisplayName("Failed lookups are set on the exchange and not cached")
+    @Test
+    void test_failures_are_not_cached() {
+        Exchange failed = new DefaultExchange(camelContext);
+        failed.setProperty(Exchange.EXCEPTION_CAUGHT, DownstreamUnavailableException.INSTANCE);
+        when(producerTemplate.send(eq(STATUS_ROUTE), any(Processor.class))).thenReturn(failed);
+
+        Exchange first = lookup("trx-1");
+        runChannelTasks();
+        lookup("trx-1");
+        runChannelTasks();
+
+        Assertions.assertSame(DownstreamUnavailableException.INSTANCE, first.getException());
+        verify(producerTemplate, times(2)).send(eq(STATUS_ROUTE), any(Processor.class));
+    }
+
+    @DisplayName("A lookup without transaction ID fails at once")
+    @Test
+    void test_missing_transaction_id() {
+        Exchange exchange = new DefaultExchange(camelContext);
+
+        Assertions.assertTrue(asyncProcessor.process(exchange, callback));
+        Assertions.assertInstanceOf(MissingFieldException.class, exchange.getException());
+        Assertions.assertTrue(channelTasks.isEmpty());
+    }
+
+    private Exchange lookup(String transactionId) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeader(PAYBILL_TRANSACTION_ID_URL_PARAM, transactionId);
+        asyncProcessor.process(exchange, callback);
+        return exchange;
+    }
+
+    private void runChannelTasks() {
+        List<Runnable> tasks = new ArrayList<>(channelTasks);
+        channelTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private Exchange channelAnswer(int responseCode, String transferState) {
+        Exchange answer = new DefaultExchange(camelContext);
+        answer.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, responseCode);
+        answer.getIn().setBody("{\"transactionId\":\"trx-1\",\"transferState\":\"" + transferState + "\"}");
+        return answer;
+    }
+}
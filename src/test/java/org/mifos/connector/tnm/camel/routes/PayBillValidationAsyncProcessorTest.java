@@ -0,0 +1,157 @@
+package org.mifos.connector.tnm.camel.routes;
+
+import static org.mifos.connector.tnm.camel.config.CamelProperties.BUSINESS_SHORT_CODE;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.CLIENT_ACCOUNT_NUMBER;
+import static org.mifos.connector.tnm.camel.config.CamelProperties.SECONDARY_IDENTIFIER_NAME;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
+import org.mifos.connector.tnm.camel.config.RosterPreloadProperties;
+import org.mifos.connector.tnm.camel.config.ValidationCacheProperties;
+import org.mifos.connector.tnm.exception.MissingFieldException;
+import org.mifos.connector.tnm.roster.RosterAccountPreloader;
+import org.mifos.connector.tnm.util.StreamingJson;
+
+class PayBillValidationAsyncProcessorTest {
+
+    private static final String ACCOUNT_STATUS_ROUTE = "direct:account-status";
+
+    private final CamelContext camelContext = new DefaultCamelContext();
+    private final List<Runnable> channelTasks = new ArrayList<>();
+    private final Executor channelExecutor = channelTasks::add;
+
+    private ProducerTemplate producerTemplate;
+    private PayBillValidationAsyncProcessor asyncProcessor;
+
+    @BeforeEach
+    void setUp() {
+        producerTemplate = mock(ProducerTemplate.class);
+        ValidationCacheProperties properties = new ValidationCacheProperties();
+        properties.setEnabled(true);
+        properties.setNegativeTtl(Duration.ZERO);
+        RosterAccountPreloader rosterAccountPreloader = new RosterAccountPreloader(new RosterPreloadProperties(),
+                mock(AmsPayBillProperties.class));
+        asyncProcessor = new PayBillValidationAsyncProcessor(producerTemplate, channelExecutor, properties, rosterAccountPreloader);
+    }
+
+    @DisplayName("Repeated validations of a reconciled account are served from the cache with a new transaction ID")
+    @Test
+    void test_reconciled_validation_is_cached() {
+        when(producerTemplate.send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(true));
+
+        Exchange first = validate("24450523", "265999000000");
+        runChannelTasks();
+        Exchange second = validate("24450523", "265999000000");
+
+        verify(producerTemplate, times(1)).send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class));
+        Assertions.assertEquals("trx-1", transactionId(first));
+        Assertions.assertNotNull(transactionId(second));
+        Assertions.assertNotEquals("trx-1", transactionId(second));
+        Assertions.assertEquals("true", StreamingJson.readTextField(second.getIn().getBody(String.class), "reconciled"));
+    }
+
+    @DisplayName("Validations of another account or MSISDN are not served from the cache")
+    @Test
+    void test_cache_key() {
+        when(producerTemplate.send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(true));
+
+        validate("24450523", "265999000000");
+        runChannelTasks();
+        validate("24450524", "265999000000");
+        runChannelTasks();
+        validate("24450523", "265999000001");
+        runChannelTasks();
+
+        verify(producerTemplate, times(3)).send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class));
+    }
+
+    @DisplayName("Accounts that could not be reconciled are cached for the negative time to live")
+    @Test
+    void test_unreconciled_validation_expires() {
+        when(producerTemplate.send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(false));
+
+        validate("24450523", "265999000000");
+        runChannelTasks();
+        validate("24450523", "265999000000");
+        runChannelTasks();
+
+        verify(producerTemplate, times(2)).send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class));
+    }
+
+    @DisplayName("Concurrent identical validations share one channel call but get their own transaction ID")
+    @Test
+    void test_concurrent_validations_are_coalesced() {
+        when(producerTemplate.send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class))).thenReturn(channelAnswer(true));
+
+        Exchange first = validate("24450523", "265999000000");
+        Exchange second = validate("24450523", "265999000000");
+        Assertions.assertEquals(1, channelTasks.size());
+        runChannelTasks();
+
+        verify(producerTemplate, times(1)).send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class));
+        Assertions.assertEquals("trx-1", transactionId(first));
+        Assertions.assertNotEquals("trx-1", transactionId(second));
+    }
+
+    @DisplayName("Failed validations are set on the exchange and not cached")
+    @Test
+    void test_failures_are_not_cached() {
+        Exchange failed = new DefaultExchange(camelContext);
+        MissingFieldException failure = new MissingFieldException("MSISDN is required for PayBill validation");
+        failed.setProperty(Exchange.EXCEPTION_CAUGHT, failure);
+        when(producerTemplate.send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class))).thenReturn(failed);
+
+        Exchange first = validate("24450523", null);
+        runChannelTasks();
+        validate("24450523", null);
+        runChannelTasks();
+
+        Assertions.assertSame(failure, first.getException());
+        verify(producerTemplate, times(2)).send(eq(ACCOUNT_STATUS_ROUTE), any(Processor.class));
+    }
+
+    private Exchange validate(String accountNumber, String msisdn) {
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setHeader(BUSINESS_SHORT_CODE, "12345678");
+        exchange.getIn().setHeader(CLIENT_ACCOUNT_NUMBER, accountNumber);
+        exchange.getIn().setHeader(SECONDARY_IDENTIFIER_NAME, msisdn);
+        asyncProcessor.process(exchange, doneSync -> {});
+        return exchange;
+    }
+
+    private void runChannelTasks() {
+        List<Runnable> tasks = new ArrayList<>(channelTasks);
+        channelTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static String transactionId(Exchange exchange) {
+        return StreamingJson.readTextField(exchange.getIn().getBody(String.class), "transactionId");
+    }
+
+    private Exchange channelAnswer(boolean reconciled) {
+        Exchange answer = new DefaultExchange(camelContext);
+        answer.getIn().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
+        answer.getIn().setBody("{\"reconciled\":" + reconciled + ",\"amsName\":\"roster\",\"transactionId\":\"trx-1\"}");
+        return answer;
+    }
+}
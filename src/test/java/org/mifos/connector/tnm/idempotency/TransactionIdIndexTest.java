@@ -0,0 +1,129 @@
+package org.mifos.connector.tnm.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.camel.config.CorrelationStoreProperties;
+import org.mifos.connector.tnm.camel.config.IdempotencyProperties;
+import org.mifos.connector.tnm.camel.config.ZeebeProperties;
+import org.mifos.connector.tnm.store.CorrelationStore;
+import org.mifos.connector.tnm.store.CorrelationStoreBackend;
+import org.mifos.connector.tnm.store.InMemoryCorrelationStoreBackend;
+
+class TransactionIdIndexTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean sharedBackendUp = new AtomicBoolean(true);
+    private IdempotencyProperties properties;
+    private CorrelationStore sharedStore;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setExpectedTransactions(1000);
+        properties.setCommittedCacheSize(100);
+        properties.setWarmUp(Duration.ofMinutes(10));
+        sharedStore = newStore(new SharedBackend());
+    }
+
+    @DisplayName("COMMITTED transaction IDs are answered locally")
+    @Test
+    void test_committed_ids_are_known() {
+        TransactionIdIndex index = new TransactionIdIndex(properties, sharedStore, clock::get);
+
+        index.markCommitted("RKTQDM7W6S");
+
+        Assertions.assertEquals(TransactionIdIndex.Lookup.COMMITTED, index.lookup("RKTQDM7W6S"));
+    }
+
+    @DisplayName("Unseen transaction IDs need the channel unless filter negatives are trusted")
+    @Test
+    void test_unseen_ids_are_unknown_by_default() {
+        TransactionIdIndex index = new TransactionIdIndex(properties, sharedStore, clock::get);
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, index.lookup("RKTQDM7W6S"));
+    }
+
+    @DisplayName("Unseen transaction IDs are new once the filter has warmed up")
+    @Test
+    void test_unseen_ids_are_new_after_warm_up() {
+        properties.setTrustFilterNegatives(true);
+        TransactionIdIndex index = new TransactionIdIndex(properties, sharedStore, clock::get);
+
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, index.lookup("RKTQDM7W6S"));
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+        Assertions.assertEquals(TransactionIdIndex.Lookup.NEW, index.lookup("RKTQDM7W6S"));
+
+        index.markSeen("RKTQDM7W6S");
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, index.lookup("RKTQDM7W6S"));
+    }
+
+    @DisplayName("Transaction IDs paid through another replica, or before a restart, are not new")
+    @Test
+    void test_paid_ids_are_known_to_every_replica() {
+        properties.setTrustFilterNegatives(true);
+        TransactionIdIndex replica = new TransactionIdIndex(properties, sharedStore, clock::get);
+        TransactionIdIndex otherReplica = new TransactionIdIndex(properties, sharedStore, clock::get);
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        replica.markPaid("RKTQDM7W6S");
+
+        Assertions.assertEquals(TransactionIdIndex.Lookup.COMMITTED, replica.lookup("RKTQDM7W6S"));
+        Assertions.assertEquals(TransactionIdIndex.Lookup.COMMITTED, otherReplica.lookup("RKTQDM7W6S"));
+    }
+
+    @DisplayName("Filter negatives are left to the channel when no shared store can confirm them")
+    @Test
+    void test_unseen_ids_are_unknown_without_shared_store() {
+        properties.setTrustFilterNegatives(true);
+        TransactionIdIndex localIndex = new TransactionIdIndex(properties, newStore(new InMemoryCorrelationStoreBackend(100)),
+                clock::get);
+        TransactionIdIndex sharedIndex = new TransactionIdIndex(properties, sharedStore, clock::get);
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+        sharedBackendUp.set(false);
+
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, localIndex.lookup("RKTQDM7W6S"));
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, sharedIndex.lookup("RKTQDM7W6S"));
+    }
+
+    @DisplayName("Null transaction IDs are left to the channel status check")
+    @Test
+    void test_null_id_is_unknown() {
+        properties.setTrustFilterNegatives(true);
+        TransactionIdIndex index = new TransactionIdIndex(properties, sharedStore, clock::get);
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        index.markSeen(null);
+        index.markPaid(null);
+        Assertions.assertEquals(TransactionIdIndex.Lookup.UNKNOWN, index.lookup(null));
+    }
+
+    private static CorrelationStore newStore(CorrelationStoreBackend backend) {
+        return new CorrelationStore(new CorrelationStoreProperties(), new ZeebeProperties(), backend);
+    }
+
+    /**
+     * Stands in for Redis, shared by the indexes of a test and failing its lookups while down.
+     */
+    private final class SharedBackend extends InMemoryCorrelationStoreBackend {
+
+        SharedBackend() {
+            super(100);
+        }
+
+        @Override
+        public Boolean exists(String key) {
+            return sharedBackendUp.get() ? super.exists(key) : null;
+        }
+
+        @Override
+        public boolean isShared() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.mifos.connector.tnm.roster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AccountIndexTest {
+
+    @DisplayName("Added account and MSISDN pairs are found with their client name")
+    @Test
+    void test_find_returns_added_account() {
+        AccountIndex.Builder builder = new AccountIndex.Builder(16);
+        builder.add("24450523", "265999000000", "Jane Doe");
+        builder.add("24450524", "265999000001", null);
+        AccountIndex index = builder.build();
+
+        Assertions.assertEquals(2, index.size());
+        Assertions.assertEquals("Jane Doe", index.find("24450523", "+265 999-000000").clientName());
+        Assertions.assertNull(index.find("24450524", "265999000001").clientName());
+        Assertions.assertNull(index.find("24450523", "265999000001"));
+        Assertions.assertNull(index.find("24450525", "265999000000"));
+    }
+
+    @DisplayName("The index grows past the expected number of accounts")
+    @Test
+    void test_index_grows() {
+        AccountIndex.Builder builder = new AccountIndex.Builder(16);
+        for (int i = 0; i < 10_000; i++) {
+            builder.add("acc-" + i, String.valueOf(265_999_000_000L + i), null);
+        }
+        builder.add("acc-0", "265999000000", "Jane Doe");
+        AccountIndex index = builder.build();
+
+        Assertions.assertEquals(10_000, index.size());
+        Assertions.assertEquals("Jane Doe", index.find("acc-0", "265999000000").clientName());
+        Assertions.assertNotNull(index.find("acc-9999", "265999009999"));
+    }
+
+    @DisplayName("Accounts without an ID or with an invalid MSISDN are rejected")
+    @Test
+    void test_invalid_accounts_are_rejected() {
+        AccountIndex.Builder builder = new AccountIndex.Builder(16);
+
+        Assertions.assertFalse(builder.add(" ", "265999000000", null));
+        Assertions.assertFalse(builder.add("24450523", "not-a-msisdn", null));
+        Assertions.assertFalse(builder.add("24450523", "1234567890123456789", null));
+        Assertions.assertEquals(3, builder.getRejectedCount());
+        Assertions.assertEquals(0, builder.build().size());
+    }
+}
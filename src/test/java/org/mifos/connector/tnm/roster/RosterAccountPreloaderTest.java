@@ -0,0 +1,132 @@
+package org.mifos.connector.tnm.roster;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mifos.connector.common.gsma.dto.CustomData;
+import org.mifos.connector.tnm.camel.config.AmsPayBillProperties;
+import org.mifos.connector.tnm.camel.config.AmsProperties;
+import org.mifos.connector.tnm.camel.config.RosterPreloadProperties;
+import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
+import org.mifos.connector.tnm.util.JsonMappers;
+import org.mifos.connector.tnm.util.StreamingJson;
+
+class RosterAccountPreloaderTest {
+
+    @TempDir
+    Path directory;
+
+    private AmsPayBillProperties amsPayBillProperties;
+    private RosterAccountPreloader preloader;
+
+    @BeforeEach
+    void setUp() {
+        amsPayBillProperties = new AmsPayBillProperties();
+        amsPayBillProperties.setAccountHoldingInstitutionId("oaf");
+        amsPayBillProperties.setDefaultAmsShortCode("87654321");
+        amsPayBillProperties.setGroups(List.of(new AmsProperties("24322607", "fineract", "MWK", "http://fineract"),
+                new AmsProperties("87654321", "roster", "MWK", "http://roster")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (preloader != null) {
+            preloader.destroy();
+        }
+    }
+
+    @DisplayName("Accounts preloaded from a CSV file are validated locally")
+    @Test
+    void test_csv_accounts_are_answered() throws IOException {
+        preloader = preload("roster.csv", """
+                accountId,msisdn,clientName
+                24450523,265999000000,"Doe, Jane"
+                24450524,265999000001
+                """);
+
+        String answer = preloader.answer(null, "24450523", "265999000000", null, true);
+
+        Assertions.assertEquals(2, preloader.getAccountCount());
+        Assertions.assertEquals("true", StreamingJson.readTextField(answer, "reconciled"));
+        Assertions.assertEquals("roster", StreamingJson.readTextField(answer, "amsName"));
+        Assertions.assertEquals("oaf", StreamingJson.readTextField(answer, "accountHoldingInstitutionId"));
+        Assertions.assertEquals("MWK", StreamingJson.readTextField(answer, "currency"));
+        Assertions.assertEquals("Doe, Jane", StreamingJson.readTextField(answer, "clientName"));
+        Assertions.assertNotNull(StreamingJson.readTextField(answer, "transactionId"));
+        PayBillValidationResponseDto response = JsonMappers.VALIDATION_RESPONSE_READER.readValue(answer);
+        Assertions.assertEquals("0", response.getAmount());
+        Assertions.assertEquals(List.of("transactionId", "currency", "getAccountDetails"),
+                response.getCustomData().stream().map(CustomData::getKey).toList());
+        Assertions.assertEquals(response.getTransactionId(), response.getCustomData().get(0).getValue());
+        Assertions.assertNull(StreamingJson.readTextField(preloader.answer("87654321", "24450523", "265999000000", null, false),
+                "clientName"));
+    }
+
+    @DisplayName("Accounts preloaded from a newline delimited JSON file are validated locally")
+    @Test
+    void test_json_lines_accounts_are_answered() throws IOException {
+        preloader = preload("roster.ndjson", """
+                {"accountId": "24450523", "msisdn": "265999000000", "clientName": "Jane Doe"}
+                {"ACCOUNTID": "24450524", "MSISDN": "265999000001"}
+                """);
+
+        Assertions.assertEquals(2, preloader.getAccountCount());
+        Assertions.assertNotNull(preloader.answer(null, "24450524", "265999000001", "MWK", true));
+    }
+
+    @DisplayName("Unknown accounts and other AMS fall back to the channel")
+    @Test
+    void test_misses_are_not_answered() throws IOException {
+        preloader = preload("roster.csv", """
+                24450523,265999000000,Jane Doe
+                """);
+
+        Assertions.assertNull(preloader.answer(null, "24450523", "265999000001", null, true));
+        Assertions.assertNull(preloader.answer("24322607", "24450523", "265999000000", null, true));
+        Assertions.assertNull(preloader.answer("11111111", "24450523", "265999000000", null, true));
+        Assertions.assertEquals(1, preloader.getMissCount());
+        Assertions.assertEquals(0, preloader.getHitCount());
+    }
+
+    @DisplayName("A preload file that cannot be read keeps the current accounts")
+    @Test
+    void test_invalid_file_keeps_current_accounts() throws IOException {
+        preloader = preload("roster.ndjson", """
+                {"accountId": "24450523", "msisdn": "265999000000"}
+                """);
+        Files.writeString(directory.resolve("roster.ndjson"), """
+                {"accountId": "24450524", "msisdn":
+                """);
+
+        Assertions.assertThrows(RuntimeException.class, () -> preloader.reload());
+        Assertions.assertNotNull(preloader.answer(null, "24450523", "265999000000", null, true));
+    }
+
+    @DisplayName("Nothing is answered locally without a preload file")
+    @Test
+    void test_no_file_answers_nothing() {
+        preloader = new RosterAccountPreloader(new RosterPreloadProperties(), amsPayBillProperties);
+
+        Assertions.assertNull(preloader.answer(null, "24450523", "265999000000", null, true));
+        Assertions.assertThrows(IllegalStateException.class, () -> preloader.reload());
+    }
+
+    private RosterAccountPreloader preload(String fileName, String content) throws IOException {
+        Path file = directory.resolve(fileName);
+        Files.writeString(file, content);
+        RosterPreloadProperties properties = new RosterPreloadProperties();
+        properties.setFile(file.toString());
+        properties.setPollInterval(Duration.ofHours(1));
+        RosterAccountPreloader rosterAccountPreloader = new RosterAccountPreloader(properties, amsPayBillProperties);
+        rosterAccountPreloader.reload();
+        return rosterAccountPreloader;
+    }
+}
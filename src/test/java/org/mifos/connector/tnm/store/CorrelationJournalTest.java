@@ -0,0 +1,87 @@
+package org.mifos.connector.tnm.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CorrelationJournalTest {
+
+    private static final int CAPACITY = 4096;
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @DisplayName("Entries written before a restart are replayed, removed and expired ones are not")
+    @Test
+    void test_replay_after_restart() throws IOException {
+        Path path = tempDir.resolve("correlation.journal");
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            journal.appendPut("ref-1", "key-1", clock.get() + 60_000);
+            journal.appendPut("ref-2", "key-2", clock.get() + 60_000);
+            journal.appendPut("ref-3", "key-3", clock.get() + 1_000);
+            journal.appendRemove("ref-2");
+        }
+        clock.addAndGet(5_000);
+
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            Map<String, String> replayed = replay(journal);
+            Assertions.assertEquals(Map.of("ref-1", "key-1"), replayed);
+        }
+    }
+
+    @DisplayName("A torn record at the tail of the journal is ignored and overwritten")
+    @Test
+    void test_torn_record_is_ignored() throws IOException {
+        Path path = tempDir.resolve("correlation.journal");
+        int validEnd;
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            journal.appendPut("ref-1", "key-1", clock.get() + 60_000);
+            validEnd = journal.getUsedBytes();
+        }
+        // Simulate a crash while writing: a length with a payload that does not match its checksum
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putInt(40).putInt(123).putInt(7).flip(), validEnd);
+        }
+
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            Assertions.assertEquals(validEnd, journal.getUsedBytes());
+            journal.appendPut("ref-2", "key-2", clock.get() + 60_000);
+        }
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            Assertions.assertEquals(Map.of("ref-1", "key-1", "ref-2", "key-2"), replay(journal));
+        }
+    }
+
+    @DisplayName("A full journal is compacted to its live entries")
+    @Test
+    void test_full_journal_is_compacted() throws IOException {
+        Path path = tempDir.resolve("correlation.journal");
+        try (CorrelationJournal journal = new CorrelationJournal(path, CAPACITY, clock::get)) {
+            for (int i = 0; i < 500; i++) {
+                journal.appendPut("ref-" + i, "key-" + i, clock.get() + 60_000);
+                journal.appendRemove("ref-" + i);
+            }
+            journal.appendPut("ref-live", "key-live", clock.get() + 60_000);
+
+            Assertions.assertTrue(journal.getCompactionCount() > 0);
+            Assertions.assertEquals(Map.of("ref-live", "key-live"), replay(journal));
+        }
+    }
+
+    private static Map<String, String> replay(CorrelationJournal journal) {
+        Map<String, String> replayed = new LinkedHashMap<>();
+        journal.replay((key, value, expiresAt) -> replayed.put(key, value));
+        return replayed;
+    }
+}
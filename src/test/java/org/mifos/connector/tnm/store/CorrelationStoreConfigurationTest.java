@@ -0,0 +1,23 @@
+package org.mifos.connector.tnm.store;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.camel.config.CorrelationStoreProperties;
+import org.springframework.util.unit.DataSize;
+
+class CorrelationStoreConfigurationTest {
+
+    @DisplayName("A journal larger than a single mapped buffer is rejected instead of overflowing its size")
+    @Test
+    void test_journal_above_2gb_is_rejected() {
+        CorrelationStoreProperties properties = new CorrelationStoreProperties();
+        properties.getJournal().setEnabled(true);
+        properties.getJournal().setSize(DataSize.ofGigabytes(3));
+
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new CorrelationStoreConfiguration().inMemoryCorrelationStoreBackend(properties));
+
+        Assertions.assertTrue(exception.getMessage().contains("correlation-store.journal.size"));
+    }
+}
@@ -0,0 +1,112 @@
+package org.mifos.connector.tnm.store;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.lettuce.core.RedisCommandTimeoutException;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.sync.RedisCommands;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class RedisCorrelationStoreBackendTest {
+
+    private static final String PREFIX = "tnm:correlation:";
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private RedisCommands<String, String> commands;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Map backed stand-in for a Redis server
+        commands = mock(RedisCommands.class);
+        when(commands.set(anyString(), anyString(), any(SetArgs.class))).thenAnswer(invocation -> {
+            redis.put(invocation.getArgument(0), invocation.getArgument(1));
+            return "OK";
+        });
+        when(commands.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(commands.del(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) == null ? 0L : 1L);
+    }
+
+    @DisplayName("Entries written by one replica are read by another one")
+    @Test
+    void test_entries_are_shared_between_replicas() {
+        CorrelationStoreBackend replicaA = new NearCachedCorrelationStoreBackend(new RedisCorrelationStoreBackend(commands, PREFIX), 100,
+                Duration.ofSeconds(2));
+        CorrelationStoreBackend replicaB = new NearCachedCorrelationStoreBackend(new RedisCorrelationStoreBackend(commands, PREFIX), 100,
+                Duration.ofSeconds(2));
+
+        replicaA.put("ref-1", "key-1", Duration.ofSeconds(90));
+
+        Assertions.assertEquals("key-1", redis.get(PREFIX + "ref-1"));
+        Assertions.assertEquals("key-1", replicaB.get("ref-1"));
+    }
+
+    @DisplayName("Repeated reads are answered by the near cache")
+    @Test
+    void test_near_cache_answers_repeated_reads() {
+        redis.put(PREFIX + "ref-1", "key-1");
+        CorrelationStoreBackend backend = new NearCachedCorrelationStoreBackend(new RedisCorrelationStoreBackend(commands, PREFIX), 100,
+                Duration.ofSeconds(2));
+
+        Assertions.assertEquals("key-1", backend.get("ref-1"));
+        Assertions.assertEquals("key-1", backend.get("ref-1"));
+        verify(commands, times(1)).get(PREFIX + "ref-1");
+    }
+
+    @DisplayName("Removed entries are gone from Redis and from the near cache")
+    @Test
+    void test_remove_clears_both_levels() {
+        CorrelationStoreBackend backend = new NearCachedCorrelationStoreBackend(new RedisCorrelationStoreBackend(commands, PREFIX), 100,
+                Duration.ofSeconds(2));
+        backend.put("ref-1", "key-1", Duration.ofSeconds(90));
+
+        backend.remove("ref-1");
+
+        Assertions.assertNull(backend.get("ref-1"));
+        Assertions.assertFalse(redis.containsKey(PREFIX + "ref-1"));
+    }
+
+    @DisplayName("An unavailable Redis fails reads and writes instead of reporting a miss")
+    @Test
+    void test_redis_failure_is_rethrown() {
+        doThrow(new RedisCommandTimeoutException("Command timed out after 500 millisecond(s)")).when(commands).get(anyString());
+        doThrow(new RedisException("Connection refused")).when(commands).set(anyString(), anyString(), any(SetArgs.class));
+        CorrelationStoreBackend backend = new RedisCorrelationStoreBackend(commands, PREFIX);
+
+        Assertions.assertThrows(RedisCommandTimeoutException.class, () -> backend.get("ref-1"));
+        Assertions.assertThrows(RedisException.class, () -> backend.put("ref-1", "key-1", Duration.ofSeconds(90)));
+    }
+
+    @DisplayName("The connection is opened by the first command and again after a failed attempt")
+    @Test
+    void test_connects_lazily() {
+        AtomicInteger attempts = new AtomicInteger();
+        CorrelationStoreBackend backend = new RedisCorrelationStoreBackend(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RedisException("Connection refused");
+            }
+            return commands;
+        }, PREFIX);
+        redis.put(PREFIX + "ref-1", "key-1");
+
+        Assertions.assertEquals(0, attempts.get());
+        Assertions.assertThrows(RedisException.class, () -> backend.get("ref-1"));
+        Assertions.assertEquals("key-1", backend.get("ref-1"));
+        Assertions.assertEquals("key-1", backend.get("ref-1"));
+        Assertions.assertEquals(2, attempts.get());
+    }
+}
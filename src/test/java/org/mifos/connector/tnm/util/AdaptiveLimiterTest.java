@@ -0,0 +1,91 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(20).toNanos();
+    private static final long SLOW = Duration.ofMillis(200).toNanos();
+
+    private AdaptiveLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveLimiter("channel-validate", new AdaptiveLimiter.Config(10, 2, 50, 1000));
+    }
+
+    @DisplayName("Calls above the limit are rejected until a slot is released")
+    @Test
+    void test_limit_is_enforced() {
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(limiter.tryAcquire());
+        }
+
+        Assertions.assertFalse(limiter.tryAcquire());
+        Assertions.assertEquals(10, limiter.getInFlight());
+        Assertions.assertEquals(1, limiter.getRejectedCount());
+        limiter.release();
+        Assertions.assertTrue(limiter.tryAcquire());
+    }
+
+    @DisplayName("The limit grows while the round trip time stays at its lowest under load")
+    @Test
+    void test_limit_grows_at_steady_latency() {
+        for (int round = 0; round < 20; round++) {
+            runBatch(limiter.getLimit(), FAST);
+        }
+
+        Assertions.assertEquals(50, limiter.getLimit());
+    }
+
+    @DisplayName("The limit does not grow while most of it is unused")
+    @Test
+    void test_limit_does_not_grow_when_idle() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onResult(FAST, false);
+        }
+
+        Assertions.assertEquals(10, limiter.getLimit());
+    }
+
+    @DisplayName("The limit shrinks when the round trip time rises above its lowest")
+    @Test
+    void test_limit_shrinks_when_latency_rises() {
+        runBatch(10, FAST);
+        int limitBefore = limiter.getLimit();
+        for (int round = 0; round < 20; round++) {
+            runBatch(limiter.getLimit(), SLOW);
+        }
+
+        Assertions.assertTrue(limiter.getLimit() < limitBefore / 2);
+    }
+
+    @DisplayName("Dropped calls cut the limit down, not below its minimum")
+    @Test
+    void test_drops_cut_the_limit() {
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onResult(FAST, true);
+        }
+
+        Assertions.assertEquals(2, limiter.getLimit());
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    private void runBatch(int calls, long rttNanos) {
+        int acquired = 0;
+        for (int i = 0; i < calls; i++) {
+            if (limiter.tryAcquire()) {
+                acquired++;
+            }
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onResult(rttNanos, false);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BoundedExpiringMapTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private BoundedExpiringMap<String, String> map;
+
+    @BeforeEach
+    void setUp() {
+        map = new BoundedExpiringMap<>(16, Duration.ofSeconds(60), clock::get);
+    }
+
+    @DisplayName("Stored values are returned and counted as hits")
+    @Test
+    void test_get_returns_stored_value() {
+        map.put("ref-1", "key-1");
+
+        Assertions.assertEquals("key-1", map.get("ref-1"));
+        Assertions.assertNull(map.get("ref-2"));
+        Assertions.assertEquals(1, map.getHitCount());
+        Assertions.assertEquals(1, map.getMissCount());
+    }
+
+    @DisplayName("Entries are not returned once their time to live has elapsed")
+    @Test
+    void test_expired_entries_are_dropped() {
+        map.put("ref-1", "key-1");
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        Assertions.assertNull(map.get("ref-1"));
+        Assertions.assertEquals(0, map.size());
+        Assertions.assertEquals(1, map.getExpirationCount());
+    }
+
+    @DisplayName("Per entry time to live overrides the default one")
+    @Test
+    void test_per_entry_ttl() {
+        map.put("ref-1", "key-1", Duration.ofSeconds(1));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+        Assertions.assertNull(map.get("ref-1"));
+    }
+
+    @DisplayName("Oldest entries are evicted once the map is full")
+    @Test
+    void test_size_is_bounded() {
+        for (int i = 0; i < 1000; i++) {
+            map.put("ref-" + i, "key-" + i);
+        }
+
+        Assertions.assertTrue(map.size() <= 16);
+        Assertions.assertEquals(1000 - map.size(), map.getEvictionCount());
+        Assertions.assertEquals("key-999", map.get("ref-999"));
+    }
+
+    @DisplayName("Removing an entry returns its live value")
+    @Test
+    void test_remove_returns_value() {
+        map.put("ref-1", "key-1");
+
+        Assertions.assertEquals("key-1", map.remove("ref-1"));
+        Assertions.assertNull(map.remove("ref-1"));
+        Assertions.assertNull(map.get("ref-1"));
+    }
+
+    @DisplayName("Expired short lived entries do not push out live long lived ones")
+    @Test
+    void test_mixed_ttl_capacity() {
+        BoundedExpiringMap<String, String> mixed = new BoundedExpiringMap<>(64, Duration.ofSeconds(60), clock::get);
+        mixed.put("terminal", "COMMITTED", Duration.ofHours(1));
+        for (int i = 0; i < 100; i++) {
+            mixed.put("pending-" + i, "IN_PROGRESS", Duration.ofSeconds(5));
+            clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        }
+
+        Assertions.assertEquals("COMMITTED", mixed.get("terminal"));
+        Assertions.assertEquals(0, mixed.getEvictionCount());
+        Assertions.assertTrue(mixed.getExpirationCount() > 0);
+    }
+
+    @DisplayName("The expiry of a replaced value does not drop the new one")
+    @Test
+    void test_replaced_value_keeps_its_own_expiry() {
+        BoundedExpiringMap<String, String> replaced = new BoundedExpiringMap<>(1024, Duration.ofSeconds(60), clock::get);
+        for (int i = 0; i < 1000; i++) {
+            replaced.put("ref-1", "key-" + i, Duration.ofSeconds(1));
+        }
+        replaced.put("ref-1", "key-last", Duration.ofHours(1));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        for (int i = 0; i < 200; i++) {
+            replaced.put("other-" + i, "value");
+        }
+
+        Assertions.assertEquals("key-last", replaced.get("ref-1"));
+        Assertions.assertEquals(0, replaced.getEvictionCount());
+    }
+}
@@ -0,0 +1,99 @@
+package org.mifos.connector.tnm.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BoundedThreadPerTaskExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private BoundedThreadPerTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("No more tasks than the concurrency limit run at once, the others wait")
+    @Test
+    void test_concurrency_limit() throws InterruptedException {
+        executor = new BoundedThreadPerTaskExecutor("test", Thread::new, 2, Integer.MAX_VALUE, false);
+        CountDownLatch done = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                blockingTask();
+                done.countDown();
+            });
+        }
+        awaitRunning(2);
+        Thread.sleep(50);
+        Assertions.assertEquals(10, executor.getTaskCount());
+        Assertions.assertEquals(2, running.get());
+
+        release.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, maxRunning.get());
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @DisplayName("Tasks above the queue limit are rejected, or run by the caller")
+    @Test
+    void test_full() {
+        executor = new BoundedThreadPerTaskExecutor("test", Thread::new, 1, 1, false);
+        executor.execute(this::blockingTask);
+        executor.execute(this::blockingTask);
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(this::blockingTask));
+
+        BoundedThreadPerTaskExecutor callerRuns = new BoundedThreadPerTaskExecutor("test", Thread::new, 1, 0, true);
+        callerRuns.execute(this::blockingTask);
+        Thread caller = Thread.currentThread();
+        Thread[] ranOn = new Thread[1];
+        callerRuns.execute(() -> ranOn[0] = Thread.currentThread());
+        Assertions.assertSame(caller, ranOn[0]);
+        callerRuns.shutdownNow();
+    }
+
+    @DisplayName("A shut down executor rejects new tasks and terminates once its tasks are done")
+    @Test
+    void test_shutdown() throws InterruptedException {
+        executor = new BoundedThreadPerTaskExecutor("test", Thread::new, 1, 10, false);
+        executor.execute(this::blockingTask);
+        executor.shutdown();
+
+        Assertions.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+        Assertions.assertFalse(executor.awaitTermination(50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(executor.isTerminated());
+    }
+
+    private void awaitRunning(int tasks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running.get() < tasks && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void blockingTask() {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+}
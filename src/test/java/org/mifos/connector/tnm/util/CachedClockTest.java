@@ -0,0 +1,71 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CachedClockTest {
+
+    private final AtomicLong millis = new AtomicLong(Instant.parse("2024-03-05T07:08:09.123Z").toEpochMilli());
+
+    @DisplayName("ISO date time is encoded in the clock zone and cached within the millisecond")
+    @Test
+    void test_iso_date_time() {
+        CachedClock clock = new CachedClock(new TickingClock(millis, ZoneOffset.ofHours(2)));
+
+        String first = clock.isoDateTime();
+
+        Assertions.assertEquals("2024-03-05T09:08:09.123+02:00", first);
+        Assertions.assertSame(first, clock.isoDateTime());
+        millis.incrementAndGet();
+        Assertions.assertEquals("2024-03-05T09:08:09.124+02:00", clock.isoDateTime());
+    }
+
+    @DisplayName("Compact date time matches the yyyyMMddHHmmss encoding and changes every second")
+    @Test
+    void test_compact_date_time() {
+        CachedClock clock = new CachedClock(new TickingClock(millis, ZoneOffset.UTC));
+
+        Assertions.assertEquals(20240305070809L, clock.compactDateTime());
+        millis.addAndGet(876);
+        Assertions.assertEquals(20240305070809L, clock.compactDateTime());
+        millis.incrementAndGet();
+        Assertions.assertEquals(20240305070810L, clock.compactDateTime());
+    }
+
+    private static final class TickingClock extends Clock {
+
+        private final AtomicLong millis;
+        private final ZoneId zone;
+
+        TickingClock(AtomicLong millis, ZoneId zone) {
+            this.millis = millis;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new TickingClock(millis, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+    }
+}
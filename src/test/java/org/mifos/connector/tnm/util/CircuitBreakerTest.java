@@ -0,0 +1,119 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<CircuitBreaker.State> transitions = new ArrayList<>();
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreaker.Config config = new CircuitBreaker.Config(10, 4, 0.5, Duration.ofSeconds(1), 0.5, Duration.ofSeconds(30), 2);
+        breaker = new CircuitBreaker("channel-validate:roster", config, (b, from, to) -> transitions.add(to), clock::get);
+    }
+
+    @DisplayName("The breaker stays closed until enough calls are recorded")
+    @Test
+    void test_minimum_calls() {
+        call(FAST, true);
+        call(FAST, true);
+        call(FAST, true);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @DisplayName("The breaker opens on failure rate and then rejects calls")
+    @Test
+    void test_opens_on_failure_rate() {
+        call(FAST, false);
+        call(FAST, false);
+        call(FAST, true);
+        call(FAST, true);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @DisplayName("The breaker opens on slow call rate")
+    @Test
+    void test_opens_on_slow_call_rate() {
+        call(FAST, false);
+        call(SLOW, false);
+        call(FAST, false);
+        call(SLOW, false);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @DisplayName("Healthy trial calls close the breaker after the open duration")
+    @Test
+    void test_closes_after_healthy_trials() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertFalse(breaker.tryAcquire());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assertions.assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.CLOSED),
+                transitions);
+    }
+
+    @DisplayName("A failed trial call opens the breaker again")
+    @Test
+    void test_reopens_after_failed_trial() {
+        open();
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        Assertions.assertTrue(breaker.tryAcquire());
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, false);
+
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assertions.assertFalse(breaker.tryAcquire());
+    }
+
+    @DisplayName("Old outcomes leave the window")
+    @Test
+    void test_sliding_window() {
+        CircuitBreaker healthy = new CircuitBreaker("channel-transfer-status:none",
+                new CircuitBreaker.Config(4, 4, 0.5, Duration.ofSeconds(1), 1.0, Duration.ofSeconds(30), 2), (b, from, to) -> {},
+                clock::get);
+        healthy.onResult(FAST, true);
+        for (int i = 0; i < 10; i++) {
+            healthy.onResult(FAST, false);
+        }
+        healthy.onResult(FAST, true);
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, healthy.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(long durationNanos, boolean failed) {
+        Assertions.assertTrue(breaker.tryAcquire());
+        breaker.onResult(durationNanos, failed);
+    }
+}
@@ -0,0 +1,52 @@
+package org.mifos.connector.tnm.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.dto.PayBillValidationResponseDto;
+import org.mifos.connector.tnm.dto.TnmPayBillPayRequestDto;
+
+class JsonMappersTest {
+
+    @DisplayName("Channel payloads built by hand keep their null fields")
+    @Test
+    void test_channel_payloads_keep_null_fields() throws JsonProcessingException {
+        PayBillValidationResponseDto dto = new PayBillValidationResponseDto();
+        dto.setReconciled(true);
+        dto.setAmsName("roster");
+
+        JSONObject json = new JSONObject(JsonMappers.VALIDATION_RESPONSE_WRITER.writeValueAsString(dto));
+
+        Assertions.assertEquals("roster", json.getString("amsName"));
+        Assertions.assertTrue(json.has("clientName"));
+        Assertions.assertTrue(json.isNull("clientName"));
+    }
+
+    @DisplayName("Each bean mapper is a new instance omitting null fields")
+    @Test
+    void test_bean_mapper_is_separate_and_omits_nulls() throws JsonProcessingException {
+        ObjectMapper beanMapper = JsonMappers.newBeanMapper();
+        PayBillValidationResponseDto dto = new PayBillValidationResponseDto();
+        dto.setAmsName("roster");
+
+        JSONObject json = new JSONObject(beanMapper.writeValueAsString(dto));
+
+        Assertions.assertNotSame(JsonMappers.mapper(), beanMapper);
+        Assertions.assertNotSame(beanMapper, JsonMappers.newBeanMapper());
+        Assertions.assertEquals("roster", json.getString("amsName"));
+        Assertions.assertFalse(json.has("clientName"));
+    }
+
+    @DisplayName("Route readers ignore unknown properties")
+    @Test
+    void test_route_readers_ignore_unknown_properties() throws JsonProcessingException {
+        TnmPayBillPayRequestDto request = JsonMappers.PAY_REQUEST_READER
+                .readValue("{\"trans_id\":\"RKTQDM7W6S\",\"amount\":\"10\",\"unexpected\":\"value\"}");
+
+        Assertions.assertEquals("RKTQDM7W6S", request.getTransactionId());
+        Assertions.assertEquals("10", request.getTransactionAmount());
+    }
+}
@@ -0,0 +1,67 @@
+package org.mifos.connector.tnm.util;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.common.channel.dto.TransactionStatusResponseDTO;
+import org.mifos.connector.common.mojaloop.type.TransferState;
+
+class PayBillResponseTemplatesTest {
+
+    @DisplayName("Slots are filled in order and their values are escaped")
+    @Test
+    void test_render_escapes_values() {
+        ResponseTemplate template = ResponseTemplate.compile("{\"a\":\"{{first}}\",\"b\":\"{{second}}\"}");
+
+        String body = new String(template.render("plain", "say \"hi\"\n"), StandardCharsets.UTF_8);
+
+        Assertions.assertEquals("{\"a\":\"plain\",\"b\":\"say \\\"hi\\\"\\n\"}", body);
+        Assertions.assertEquals(2, template.getSlots().size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> template.render("only one"));
+    }
+
+    @DisplayName("Validation templates produce the same body as the streaming builder")
+    @Test
+    void test_validation_response_matches_builder() {
+        assertSameBody(TnmUtils.buildPayBillValidationResponse(false, null, null),
+                PayBillResponseTemplates.validationResponse(false, null, null));
+        assertSameBody(TnmUtils.buildPayBillValidationResponse(false, "corr-1", "Jane"),
+                PayBillResponseTemplates.validationResponse(false, "corr-1", "Jane"));
+        assertSameBody(TnmUtils.buildPayBillValidationResponse(true, "corr-1", "Jan\u00e9 Ndlovu"),
+                PayBillResponseTemplates.validationResponse(true, "corr-1", "Jan\u00e9 Ndlovu"));
+        assertSameBody(TnmUtils.buildPayBillValidationResponse(true, "corr-1", null),
+                PayBillResponseTemplates.validationResponse(true, "corr-1", null));
+    }
+
+    @DisplayName("Transaction status templates produce the same body as the streaming builder")
+    @Test
+    void test_transaction_response_matches_builder() {
+        TransactionStatusResponseDTO responseDto = new TransactionStatusResponseDTO();
+        responseDto.setTransferId("transfer-1");
+        responseDto.setTransactionId("txn-1");
+        responseDto.setTransferState(TransferState.COMMITTED);
+
+        assertSameBody(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto),
+                PayBillResponseTemplates.transactionResponse(true, responseDto));
+        responseDto.setTransferState(TransferState.RECEIVED);
+        assertSameBody(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto),
+                PayBillResponseTemplates.transactionResponse(true, responseDto));
+        responseDto.setTransferId(null);
+        assertSameBody(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto),
+                PayBillResponseTemplates.transactionResponse(true, responseDto));
+        assertSameBody(TnmUtils.buildPayBillTransactionResponseResponse(false, responseDto),
+                PayBillResponseTemplates.transactionResponse(false, responseDto));
+    }
+
+    @DisplayName("Pay template carries the receipt number")
+    @Test
+    void test_pay_response() {
+        Assertions.assertEquals("{\"status\":200,\"message\":\"Payment successful\",\"receipt_number\":\"ref-1\"}",
+                new String(PayBillResponseTemplates.payResponse("ref-1"), StandardCharsets.UTF_8));
+    }
+
+    private static void assertSameBody(String expected, byte[] actual) {
+        Assertions.assertEquals(expected, new String(actual, StandardCharsets.UTF_8));
+    }
+}
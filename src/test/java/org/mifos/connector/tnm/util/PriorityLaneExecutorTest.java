@@ -0,0 +1,126 @@
+package org.mifos.connector.tnm.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PriorityLaneExecutorTest {
+
+    private final List<Runnable> workerTasks = new ArrayList<>();
+    private final List<String> ran = new ArrayList<>();
+    private PriorityLaneExecutor ingestion;
+
+    @BeforeEach
+    void setUp() {
+        ingestion = new PriorityLaneExecutor("paybill", workerTasks::add, 1, List.of(new PriorityLaneExecutor.LaneSpec("pay", 4),
+                new PriorityLaneExecutor.LaneSpec("validation", 3), new PriorityLaneExecutor.LaneSpec("status", 2)));
+    }
+
+    @DisplayName("Queued tasks run highest priority lane first, within the concurrency limit")
+    @Test
+    void test_priority_order() {
+        ingestion.lane("status").execute(task("status-1"));
+        ingestion.lane("status").execute(task("status-2"));
+        ingestion.lane("validation").execute(task("validation-1"));
+        ingestion.lane("pay").execute(task("pay-1"));
+
+        Assertions.assertEquals(1, workerTasks.size());
+        Assertions.assertEquals(1, ingestion.getRunningCount());
+        Assertions.assertEquals(3, ingestion.getQueuedCount());
+        runWorkerTasks();
+
+        Assertions.assertEquals(List.of("status-1", "pay-1", "validation-1", "status-2"), ran);
+        Assertions.assertEquals(0, ingestion.getRunningCount());
+        Assertions.assertEquals(0, ingestion.getQueuedCount());
+    }
+
+    @DisplayName("Lower priority lanes shed first as the backlog grows")
+    @Test
+    void test_lowest_priority_sheds_first() {
+        ingestion.lane("pay").execute(task("running"));
+        ingestion.lane("status").execute(task("status-1"));
+        ingestion.lane("validation").execute(task("validation-1"));
+
+        Executor status = ingestion.lane("status");
+        Assertions.assertThrows(RejectedExecutionException.class, () -> status.execute(task("status-2")));
+        ingestion.lane("validation").execute(task("validation-2"));
+        Executor validation = ingestion.lane("validation");
+        Assertions.assertThrows(RejectedExecutionException.class, () -> validation.execute(task("validation-3")));
+        ingestion.lane("pay").execute(task("pay-1"));
+        Executor pay = ingestion.lane("pay");
+        Assertions.assertThrows(RejectedExecutionException.class, () -> pay.execute(task("pay-2")));
+        runWorkerTasks();
+
+        Assertions.assertEquals(List.of("running", "pay-1", "validation-1", "validation-2", "status-1"), ran);
+    }
+
+    @DisplayName("Queued and shed tasks are exported per lane")
+    @Test
+    void test_meters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ingestion.bindTo(registry);
+        ingestion.lane("pay").execute(task("running"));
+        ingestion.lane("status").execute(task("status-1"));
+        ingestion.lane("status").execute(task("status-2"));
+        Executor status = ingestion.lane("status");
+        Assertions.assertThrows(RejectedExecutionException.class, () -> status.execute(task("status-3")));
+
+        Assertions.assertEquals(2.0, registry.get("tnm.ingestion.queued").tags("ingestion", "paybill", "lane", "status").gauge().value());
+        Assertions.assertEquals(1.0,
+                registry.get("tnm.ingestion.shed").tags("ingestion", "paybill", "lane", "status").functionCounter().count());
+        Assertions.assertEquals(1.0, registry.get("tnm.ingestion.running").tags("ingestion", "paybill").gauge().value());
+    }
+
+    @DisplayName("Tasks rejected by the shared executor fail their future instead of being dropped")
+    @Test
+    void test_rejected_by_workers() {
+        PriorityLaneExecutor rejecting = new PriorityLaneExecutor("paybill", task -> {
+            throw new RejectedExecutionException("shut down");
+        }, 1, List.of(new PriorityLaneExecutor.LaneSpec("pay", 4)));
+
+        CompletableFuture<String> result = PriorityLaneExecutor.supplyAsync(() -> "ran", rejecting.lane("pay"));
+
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class, result::get);
+        Assertions.assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        Assertions.assertEquals(0, rejecting.getRunningCount());
+        Assertions.assertEquals(0, rejecting.getQueuedCount());
+    }
+
+    @DisplayName("Tasks run through a lane complete their future")
+    @Test
+    void test_supply_async() throws ExecutionException, InterruptedException {
+        CompletableFuture<String> result = PriorityLaneExecutor.supplyAsync(() -> "ran", ingestion.lane("pay"));
+        CompletableFuture<Void> failed = PriorityLaneExecutor.runAsync(() -> {
+            throw new IllegalStateException("failed");
+        }, ingestion.lane("pay"));
+        runWorkerTasks();
+
+        Assertions.assertEquals("ran", result.get());
+        ExecutionException failure = Assertions.assertThrows(ExecutionException.class, failed::get);
+        Assertions.assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    @DisplayName("Unknown lanes are refused")
+    @Test
+    void test_unknown_lane() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ingestion.lane("refund"));
+    }
+
+    private Runnable task(String name) {
+        return () -> ran.add(name);
+    }
+
+    private void runWorkerTasks() {
+        while (!workerTasks.isEmpty()) {
+            workerTasks.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.mifos.connector.tnm.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+
+    @DisplayName("Calls for a key already in flight share its result")
+    @Test
+    void test_concurrent_calls_are_coalesced() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = singleFlight.execute("trx-1", () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> follower = singleFlight.execute("trx-1", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        pending.complete("ref-1");
+
+        Assertions.assertEquals("ref-1", leader.get());
+        Assertions.assertEquals("ref-1", follower.get());
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(1, singleFlight.getLeaderCount());
+        Assertions.assertEquals(1, singleFlight.getFollowerCount());
+    }
+
+    @DisplayName("A completed call releases its key")
+    @Test
+    void test_key_is_released_after_completion() throws Exception {
+        singleFlight.execute("trx-1", () -> CompletableFuture.completedFuture("ref-1")).get();
+
+        Assertions.assertEquals("ref-2", singleFlight.execute("trx-1", () -> CompletableFuture.completedFuture("ref-2")).get());
+        Assertions.assertEquals(2, singleFlight.getLeaderCount());
+    }
+
+    @DisplayName("Followers receive the failure of the leader")
+    @Test
+    void test_failure_is_shared() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> leader = singleFlight.execute("trx-1", () -> pending);
+        CompletableFuture<String> follower = singleFlight.execute("trx-1", () -> pending);
+        pending.completeExceptionally(new IllegalStateException("channel down"));
+
+        Assertions.assertThrows(ExecutionException.class, leader::get);
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, follower::get);
+        Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @DisplayName("A call throwing synchronously fails its future and releases the key")
+    @Test
+    void test_synchronous_failure_releases_key() throws Exception {
+        CompletableFuture<String> failed = singleFlight.execute("trx-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+        Assertions.assertEquals("ref-1", singleFlight.execute("trx-1", () -> CompletableFuture.completedFuture("ref-1")).get());
+    }
+}
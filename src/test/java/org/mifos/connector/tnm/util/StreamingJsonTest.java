@@ -0,0 +1,54 @@
+package org.mifos.connector.tnm.util;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.tnm.dto.ChannelRequestDto;
+import org.mifos.connector.tnm.exception.TnmConnectorJsonProcessingException;
+
+class StreamingJsonTest {
+
+    @DisplayName("Channel request is written with nested party and amount objects")
+    @Test
+    void test_write_channel_request() {
+        ChannelRequestDto request = new ChannelRequestDto(new ChannelRequestDto.PartyIdInfo("MSISDN", "265999000000"),
+                new ChannelRequestDto.PartyIdInfo("accountNumber", "ACC123"), new ChannelRequestDto.Amount("100", "MWK"), true,
+                "workflow-1");
+
+        JSONObject json = new JSONObject(StreamingJson.writeChannelRequest(request));
+
+        Assertions.assertEquals("265999000000", json.getJSONObject("payer").getJSONObject("partyIdInfo").getString("partyIdentifier"));
+        Assertions.assertEquals("accountNumber", json.getJSONObject("payee").getJSONObject("partyIdInfo").getString("partyIdType"));
+        Assertions.assertEquals("MWK", json.getJSONObject("amount").getString("currency"));
+        Assertions.assertTrue(json.getBoolean("useWorkflowIdAsTransactionId"));
+        Assertions.assertEquals("workflow-1", json.getString("workflowId"));
+    }
+
+    @DisplayName("Null fields are omitted and the buffer is reused across calls")
+    @Test
+    void test_null_fields_are_omitted() {
+        String first = StreamingJson.writeChannelRequest(new ChannelRequestDto());
+        String second = StreamingJson.writeChannelRequest(new ChannelRequestDto(null, null, null, null, "workflow-2"));
+
+        Assertions.assertEquals("{}", first);
+        Assertions.assertEquals("{\"workflowId\":\"workflow-2\"}", second);
+    }
+
+    @DisplayName("Top level fields are read as text, skipping nested objects")
+    @Test
+    void test_read_text_field() {
+        String json = "{\"payer\":{\"transactionId\":\"nested\"},\"amount\":100,\"transactionId\":\"123\"}";
+
+        Assertions.assertEquals("123", StreamingJson.readTextField(json, "transactionId"));
+        Assertions.assertEquals("100", StreamingJson.readTextField(json, "amount"));
+        Assertions.assertNull(StreamingJson.readTextField(json, "payee"));
+        Assertions.assertNull(StreamingJson.readTextField("[]", "transactionId"));
+    }
+
+    @DisplayName("Malformed JSON is reported as a JSON processing error")
+    @Test
+    void test_read_malformed_json() {
+        Assertions.assertThrows(TnmConnectorJsonProcessingException.class, () -> StreamingJson.readTextField("{\"a\":", "b"));
+    }
+}
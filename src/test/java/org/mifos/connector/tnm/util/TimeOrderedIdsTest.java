@@ -0,0 +1,47 @@
+package org.mifos.connector.tnm.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdsTest {
+
+    @DisplayName("Identifiers are version 7 UUIDs carrying their creation time")
+    @Test
+    void test_layout() {
+        UUID id = TimeOrderedIds.next(() -> 1_700_000_000_123L);
+
+        Assertions.assertEquals(7, id.version());
+        Assertions.assertEquals(2, id.variant());
+        Assertions.assertEquals(1_700_000_000_123L, id.getMostSignificantBits() >>> 16);
+        Assertions.assertDoesNotThrow(() -> UUID.fromString(TimeOrderedIds.next()));
+    }
+
+    @DisplayName("Identifiers sort by creation time and do not repeat")
+    @Test
+    void test_ordered_and_unique() {
+        String earlier = TimeOrderedIds.next(() -> 1_700_000_000_123L).toString();
+        String later = TimeOrderedIds.next(() -> 1_700_000_000_124L).toString();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TimeOrderedIds.next());
+        }
+
+        Assertions.assertTrue(earlier.compareTo(later) < 0);
+        Assertions.assertEquals(10_000, ids.size());
+    }
+
+    @DisplayName("Identifiers created in the same millisecond differ in their random bits")
+    @Test
+    void test_unique_within_a_millisecond() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(TimeOrderedIds.next(() -> 1_700_000_000_123L));
+        }
+
+        Assertions.assertEquals(10_000, ids.size());
+    }
+}
@@ -24,7 +24,7 @@ class TnmUtilsTest {
         responseDto.setTransferId("transfer-123");
         responseDto.setTransactionId("txn-123");
 
-        JSONObject response = TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto);
+        JSONObject response = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto));
 
         Assertions.assertEquals(200, response.getInt("status"));
         Assertions.assertEquals("Payment successful", response.getString("message"));
@@ -40,7 +40,7 @@ class TnmUtilsTest {
         responseDto.setTransferId("transfer-123");
         responseDto.setTransactionId("txn-123");
 
-        JSONObject response = TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto);
+        JSONObject response = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto));
 
         Assertions.assertEquals(404, response.getInt("status"));
         Assertions.assertEquals("Transaction not found", response.getString("message"));
@@ -49,7 +49,7 @@ class TnmUtilsTest {
     @DisplayName("Handling null response parameter")
     @Test
     void test_null_response_parameter() {
-        JSONObject response = TnmUtils.buildPayBillTransactionResponseResponse(true, null);
+        JSONObject response = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, null));
 
         Assertions.assertEquals(404, response.getInt("status"));
         Assertions.assertEquals("Transaction not found", response.getString("message"));
@@ -65,16 +65,16 @@ class TnmUtilsTest {
         when(responseDto.getTransferId()).thenReturn("receipt123");
         when(responseDto.getTransactionId()).thenReturn("trans123");
 
-        JSONObject result = TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto);
+        JSONObject result = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto));
 
         Assertions.assertEquals("receipt123", result.get("receipt_number"));
         Assertions.assertEquals("trans123", result.get("trans_id"));
     }
 
-    @DisplayName("Method returns JSONObject with status and message fields for all cases")
+    @DisplayName("Method returns JSON with status and message fields for all cases")
     @Test
     void test_method_returns_status_and_message_fields() {
-        JSONObject result = TnmUtils.buildPayBillTransactionResponseResponse(false, null);
+        JSONObject result = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(false, null));
 
         Assertions.assertTrue(result.has("status"));
         Assertions.assertTrue(result.has("message"));
@@ -90,7 +90,7 @@ class TnmUtilsTest {
         when(responseDto.getTransferId()).thenReturn("receipt123");
         when(responseDto.getTransactionId()).thenReturn("trans123");
 
-        JSONObject result = TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto);
+        JSONObject result = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto));
 
         Assertions.assertEquals(200, result.get("status"));
         Assertions.assertEquals("Payment successful", result.get("message"));
@@ -101,7 +101,7 @@ class TnmUtilsTest {
     void test_successful_transaction_committed_state_wrong_object() {
         TransferState responseDto = TransferState.COMMITTED;
 
-        JSONObject response = TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto);
+        JSONObject response = new JSONObject(TnmUtils.buildPayBillTransactionResponseResponse(true, responseDto));
 
         Assertions.assertEquals(404, response.getInt("status"));
         Assertions.assertEquals("Transaction not found", response.getString("message"));
@@ -145,12 +145,15 @@ class TnmUtilsTest {
         ChannelRequestDto result = TnmUtils.convertPayBillToChannelPayload(payBillRequest, amsName, currency);
 
         Assertions.assertNotNull(result);
-        Assertions.assertEquals("254712345678", result.getPayer().getJSONObject("partyIdInfo").getString("partyIdentifier"));
-        Assertions.assertEquals("MSISDN", result.getPayer().getJSONObject("partyIdInfo").getString("partyIdType"));
-        Assertions.assertEquals("ACC123", result.getPayee().getJSONObject("partyIdInfo").getString("partyIdentifier"));
-        Assertions.assertEquals("fineractAccountID", result.getPayee().getJSONObject("partyIdInfo").getString("partyIdType"));
-        Assertions.assertEquals("100", result.getAmount().getString("amount"));
-        Assertions.assertEquals("USD", result.getAmount().getString("currency"));
+        Assertions.assertEquals("254712345678", result.getPayer().getPartyIdentifier());
+        Assertions.assertEquals("MSISDN", result.getPayer().getPartyIdType());
+        Assertions.assertEquals("ACC123", result.getPayee().getPartyIdentifier());
+        Assertions.assertEquals("fineractAccountID", result.getPayee().getPartyIdType());
+        Assertions.assertEquals("100", result.getAmount().getAmount());
+        Assertions.assertEquals("USD", result.getAmount().getCurrency());
+        Assertions.assertEquals("{payer:{partyIdInfo:{partyIdType:MSISDN, partyIdentifier:254712345678}}, payee:{partyIdInfo:"
+                + "{partyIdType:fineractAccountID, partyIdentifier:ACC123}}, amount:{amount:100, currency:USD}, "
+                + "useWorkflowIdAsTransactionId:null, workflowId:null}", result.toString());
     }
 
 }
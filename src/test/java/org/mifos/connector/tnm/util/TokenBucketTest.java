@@ -0,0 +1,82 @@
+package org.mifos.connector.tnm.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+    @DisplayName("A full bucket lets the burst through and then rejects")
+    @Test
+    void test_burst_then_reject() {
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertFalse(bucket.tryAcquire());
+    }
+
+    @DisplayName("Tokens are refilled at the configured rate, up to the burst")
+    @Test
+    void test_refill() {
+        drain();
+        clock.addAndGet(Duration.ofMillis(100).toNanos());
+
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertFalse(bucket.tryAcquire());
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        drain();
+        Assertions.assertFalse(bucket.tryAcquire());
+    }
+
+    @DisplayName("A released token can be taken again, but never beyond the burst")
+    @Test
+    void test_release() {
+        drain();
+        bucket.release();
+
+        Assertions.assertTrue(bucket.tryAcquire());
+        Assertions.assertFalse(bucket.tryAcquire());
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        bucket.release();
+        drain();
+        Assertions.assertFalse(bucket.tryAcquire());
+    }
+
+    @DisplayName("Concurrent callers never take more tokens than the bucket holds")
+    @Test
+    void test_concurrent_acquire() throws InterruptedException {
+        TokenBucket slowBucket = new TokenBucket(0.001, 100);
+        AtomicLong acquired = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (slowBucket.tryAcquire()) {
+                        acquired.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(100, acquired.get());
+    }
+
+    private void drain() {
+        int taken = 0;
+        while (bucket.tryAcquire()) {
+            taken++;
+        }
+        Assertions.assertTrue(taken <= 3);
+    }
+}
@@ -0,0 +1,70 @@
+package org.mifos.connector.tnm.zeebe;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mifos.connector.common.gsma.dto.CustomData;
+import org.mifos.connector.tnm.camel.config.ZeebeProperties;
+
+class ZeebeVariableSchemaTest {
+
+    private static final String BPMN = """
+            <bpmn:definitions>
+              <zeebe:subscription correlationKey="=clientCorrelationId" />
+              <bpmn:conditionExpression>=isReconciled = true and not(order.status = &quot;paid&quot;)</bpmn:conditionExpression>
+              <bpmn:timeDuration xsi:type="bpmn:tFormalExpression">= tnmPayRequestWaitPeriod</bpmn:timeDuration>
+            </bpmn:definitions>
+            """;
+
+    @DisplayName("Variables read by BPMN expressions are collected, ignoring keywords, literals and nested fields")
+    @Test
+    void test_read_variables_from_bpmn() {
+        Assertions.assertEquals(Set.of("clientCorrelationId", "isReconciled", "order", "tnmPayRequestWaitPeriod"),
+                ZeebeVariableSchema.readVariables(BPMN));
+    }
+
+    @DisplayName("Every variable is sent when slimming is disabled")
+    @Test
+    void test_all_variables_sent_by_default() {
+        ZeebeVariableSchema schema = new ZeebeVariableSchema(new ZeebeProperties());
+
+        String json = schema.serialize("inbound_tnm_roster-oaf", Map.of("clientCorrelationId", "ref-1", "validationRequest", "{}"));
+
+        Assertions.assertFalse(schema.isSlim());
+        Assertions.assertTrue(json.contains("validationRequest"));
+        Assertions.assertTrue(schema.getReadVariables().contains("isValidationReferencePresent"));
+    }
+
+    @DisplayName("Only read and required variables are kept when slimming is enabled")
+    @Test
+    void test_slim_drops_unread_variables() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZeebeVariableSchema schema = new ZeebeVariableSchema(true, List.of("tnmTrxId"), List.of(BPMN));
+        schema.bindTo(registry);
+
+        String json = schema.serialize("inbound_tnm_roster-oaf",
+                Map.of("clientCorrelationId", "ref-1", "tnmTrxId", "trx-1", "validationRequest", "{}"));
+        List<CustomData> customData = schema.customData("inbound_tnm_roster-oaf",
+                List.of(customData("tnmTrxId", "trx-1"), customData("validationRequest", "{}")));
+
+        Assertions.assertTrue(json.contains("clientCorrelationId") && json.contains("tnmTrxId"));
+        Assertions.assertFalse(json.contains("validationRequest"));
+        Assertions.assertEquals(1, customData.size());
+        Assertions.assertEquals(2, registry.get("tnm.zeebe.variables.dropped").counter().count());
+        Assertions.assertEquals(1, registry.get("tnm.zeebe.variables.size").summary().count());
+        Assertions.assertEquals(json.length(), registry.get("tnm.zeebe.variables.size").summary().totalAmount());
+        Assertions.assertEquals(1, registry.get("tnm.zeebe.custom.data.size").summary().count());
+        Assertions.assertEquals("tnmTrxId".length() + "trx-1".length(), registry.get("tnm.zeebe.custom.data.size").summary().totalAmount());
+    }
+
+    private static CustomData customData(String key, Object value) {
+        CustomData data = new CustomData();
+        data.setKey(key);
+        data.setValue(value);
+        return data;
+    }
+}